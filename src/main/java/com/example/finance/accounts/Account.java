@@ -9,7 +9,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 
-import java.math.BigDecimal;
+import com.example.finance.money.Money;
 import java.time.LocalDateTime;
 
 @Entity
@@ -38,7 +38,7 @@ public class Account {
     private AccountType accountType;
     
     @Column(name = "balance", precision = 15, scale = 2)
-    private BigDecimal balance = BigDecimal.ZERO;
+    private Money balance = Money.ZERO;
     
     @Enumerated(EnumType.STRING)
     @Column(name = "account_status", length = 20)
@@ -49,6 +49,11 @@ public class Account {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
     
+    // Bumped by every balance or status change, also the basis of the account ETags
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
     public enum AccountType {
         SAVINGS, CURRENT
     }
@@ -9,12 +9,15 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
+import java.util.Optional;
 import com.example.finance.auth.JwtUtil;
+import com.example.finance.json.PageResponse;
+import com.example.finance.transactions.AccountSummaryDto;
 import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
@@ -46,31 +49,43 @@ public class AccountController {
     }
     
     @GetMapping
-    public List<AccountDto> getUserAccounts(HttpServletRequest request) {
+    public List<AccountDto> getUserAccounts(HttpServletRequest request, WebRequest webRequest) {
         Long userId = getUserIdFromToken(request);
+        if (webRequest.checkNotModified("\"" + accountService.getAccountsVersionTag(userId) + "\"")) {
+            return null;
+        }
         return accountService.getUserAccounts(userId);
     }
     
     @GetMapping("/paginated")
-    public Page<AccountDto> getUserAccountsPaginated(
+    public PageResponse<AccountDto> getUserAccountsPaginated(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir,
-            HttpServletRequest request) {
+            HttpServletRequest request,
+            WebRequest webRequest) {
         Long userId = getUserIdFromToken(request);
+        String eTag = "\"" + accountService.getAccountsVersionTag(userId) + "-" + page + "-" + size + "-" + sortBy + "-" + sortDir + "\"";
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
         
         Sort sort = sortDir.equalsIgnoreCase("desc") 
             ? Sort.by(sortBy).descending() 
             : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        return accountService.getUserAccounts(userId, pageable);
+        return PageResponse.of(accountService.getUserAccounts(userId, pageable));
     }
 
     @GetMapping("/{accountNumber}")
-    public AccountDto getAccountById(@PathVariable String accountNumber, HttpServletRequest httpRequest) {
+    public AccountDto getAccountById(@PathVariable String accountNumber, HttpServletRequest httpRequest, WebRequest webRequest) {
         Long userId = getUserIdFromToken(httpRequest);
+        Optional<String> versionTag = accountService.getAccountVersionTag(accountNumber, userId);
+        if (versionTag.isPresent() && webRequest.checkNotModified("\"" + versionTag.get() + "\"")) {
+            return null;
+        }
         return accountService.getAccountById(accountNumber, userId);
     }
 
@@ -91,6 +106,14 @@ public class AccountController {
         return accountService.activateAccount(accountNumber, userId);
     }
 
+    @GetMapping("/{accountNumber}/summary")
+    public AccountSummaryDto getAccountSummary(@PathVariable String accountNumber,
+                                               @RequestParam(defaultValue = "month") String period,
+                                               HttpServletRequest request) {
+        Long userId = getUserIdFromToken(request);
+        return accountService.getAccountSummary(accountNumber, userId, period);
+    }
+
     @GetMapping("/{accountNumber}/status")
         public Account.AccountStatus getAccountStatus(@PathVariable String accountNumber, HttpServletRequest request) {
         Long userId = getUserIdFromToken(request);
@@ -4,12 +4,28 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 
+import com.example.finance.money.Money;
+
+import java.math.BigDecimal;
+
 @Mapper(componentModel = "spring")
 public interface AccountMapper {
 
     @Mapping(source = "user.id", target = "userId")
     AccountDto toDto(Account account);
     
+    @Mapping(target = "version", ignore = true)
     Account toEntity(AccountRequest request);
+    
+    // The version is owned by JPA optimistic locking, a DTO must never overwrite it
+    @Mapping(target = "version", ignore = true)
     void updateEntity(AccountDto accountDto, @MappingTarget Account account);
+    
+    default BigDecimal toDecimal(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+    
+    default Money toMoney(BigDecimal amount) {
+        return amount == null ? null : Money.of(amount);
+    }
 }
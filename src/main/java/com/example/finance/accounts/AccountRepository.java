@@ -18,4 +18,17 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     Page<Account> findByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId, Pageable pageable);
     
     void deleteByAccountNumber(String accountNumber);
+    
+    @Query("SELECT a.version FROM Account a WHERE a.accountNumber = :accountNumber AND a.user.id = :userId")
+    Optional<Long> findVersion(@Param("accountNumber") String accountNumber, @Param("userId") Long userId);
+    
+    @Query("SELECT COUNT(a) AS accounts, COALESCE(SUM(a.version), 0) AS versionSum, COALESCE(MAX(a.id), 0) AS maxId " +
+           "FROM Account a WHERE a.user.id = :userId")
+    VersionSummary summarizeVersions(@Param("userId") Long userId);
+    
+    interface VersionSummary {
+        long getAccounts();
+        long getVersionSum();
+        long getMaxId();
+    }
 }
@@ -2,13 +2,23 @@ package com.example.finance.accounts;
 
 import org.springframework.stereotype.Service;
 
-import com.example.finance.users.User;
+import com.example.finance.users.UserCache;
 import com.example.finance.users.UserRepository;
 import com.example.finance.exceptions.AccountNotFoundException;
+import com.example.finance.exceptions.InvalidTransactionAmountException;
 import com.example.finance.exceptions.UnauthorizedAccountAccessException;
+import com.example.finance.money.Money;
+import com.example.finance.outbox.OutboxWriter;
+import com.example.finance.transactions.Transaction;
+import com.example.finance.transactions.AccountSummaryDto;
+import com.example.finance.transactions.TransactionMapper;
+import com.example.finance.transactions.TransactionRepository;
+import com.example.finance.transactions.TransactionRollupService;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -16,22 +26,50 @@ public class AccountService {
 
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final AccountMapper accountMapper;
+    private final TransactionRepository transactionRepository;
+    private final TransactionRollupService transactionRollupService;
+    private final TransactionMapper transactionMapper;
+    private final OutboxWriter outboxWriter;
 
-    public AccountService(AccountRepository accountRepository, UserRepository userRepository, AccountMapper accountMapper) {
+    public AccountService(AccountRepository accountRepository, UserRepository userRepository, UserCache userCache, AccountMapper accountMapper,
+                          TransactionRepository transactionRepository, TransactionRollupService transactionRollupService,
+                          TransactionMapper transactionMapper, OutboxWriter outboxWriter) {
         this.accountRepository = accountRepository;
         this.userRepository = userRepository;
+        this.userCache = userCache;
         this.accountMapper = accountMapper;
+        this.transactionRepository = transactionRepository;
+        this.transactionRollupService = transactionRollupService;
+        this.transactionMapper = transactionMapper;
+        this.outboxWriter = outboxWriter;
     }
     
+    @Transactional
     public AccountDto createAccount(Long userId, AccountRequest request) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+        userCache.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
         Account account = new Account();
-        account.setUser(user);
+        // The cache confirmed the user exists, a reference is all the foreign key needs
+        account.setUser(userRepository.getReferenceById(userId));
         account.setAccountType(request.getAccountType());
-        account.setBalance(request.getInitialBalance());
+        try {
+            account.setBalance(request.getInitialBalance() == null ? Money.ZERO : Money.of(request.getInitialBalance()));
+        } catch (ArithmeticException e) {
+            throw new InvalidTransactionAmountException("Initial balance " + request.getInitialBalance() + " must have at most two decimal places");
+        }
         account.setAccountNumber("ACC" + userId + System.currentTimeMillis());
-        return accountMapper.toDto(accountRepository.save(account));
+        Account savedAccount = accountRepository.save(account);
+        
+        // Record the opening balance so the balance always equals the net of its transaction history
+        if (savedAccount.getBalance().isPositive()) {
+            Transaction opening = transactionRepository.save(new Transaction(null, null, savedAccount, Transaction.TransactionType.DEPOSIT,
+                savedAccount.getBalance().toBigDecimal(), "Opening balance", Transaction.TransactionStatus.COMPLETED,
+                "OPEN-" + savedAccount.getAccountNumber(), null));
+            outboxWriter.recordCompleted(transactionMapper.toDto(opening));
+            transactionRollupService.recordPosting(savedAccount.getId(), TransactionRollupService.PostingLeg.DEPOSIT, savedAccount.getBalance().toBigDecimal());
+        }
+        return accountMapper.toDto(savedAccount);
     }   
 
     public List<AccountDto> getUserAccounts(Long userId) {
@@ -58,6 +96,22 @@ public class AccountService {
         accountRepository.deleteByAccountNumber(accountNumber);
     }
 
+    /**
+     * Version tag of one account for ETags, empty if the user does not own it. Reads only the version column.
+     */
+    public Optional<String> getAccountVersionTag(String accountNumber, Long userId) {
+        return accountRepository.findVersion(accountNumber, userId)
+            .map(version -> accountNumber + "-v" + version);
+    }
+    
+    /**
+     * Version tag of all of the user's accounts, changes when any account changes, is created or is deleted
+     */
+    public String getAccountsVersionTag(Long userId) {
+        AccountRepository.VersionSummary summary = accountRepository.summarizeVersions(userId);
+        return summary.getAccounts() + "-" + summary.getVersionSum() + "-" + summary.getMaxId();
+    }
+
     // Method to validate if account belongs to user
     public void validateAccountOwnership(String accountNumber, Long userId) {
         Account account = accountRepository.findByAccountNumber(accountNumber)
@@ -85,6 +139,16 @@ public class AccountService {
         return accountMapper.toDto(accountRepository.save(account));
     }
     
+    // Method to get posting totals for the current day, week or month
+    public AccountSummaryDto getAccountSummary(String accountNumber, Long userId, String period) {
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+            .orElseThrow(() -> new AccountNotFoundException("Account with number " + accountNumber + " not found"));
+        if (!account.getUser().getId().equals(userId)) {
+            throw new UnauthorizedAccountAccessException("Access denied: You are not authorized to access this account");
+        }
+        return transactionRollupService.getSummary(account.getId(), accountNumber, period);
+    }
+    
     // Method to get account status
     public Account.AccountStatus getAccountStatus(String accountNumber, Long userId) {
             validateAccountOwnership(accountNumber, userId);
@@ -2,35 +2,47 @@ package com.example.finance.auth;
 
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.finance.users.User;
+import com.example.finance.users.CachedUser;
+import com.example.finance.users.UserCache;
 import com.example.finance.users.UserRepository;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserCache userCache;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
 
 
-    public AuthController(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+    public AuthController(UserRepository userRepository, UserCache userCache, PasswordHashingService passwordHashingService, JwtUtil jwtUtil) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
+        this.passwordHashingService = passwordHashingService;
         this.jwtUtil = jwtUtil;
     }
 
     @PostMapping("/login")
     public ResponseEntity<LoginResponse> login(@RequestBody LoginRequest request) {
-        User user = userRepository.findByEmail(request.getEmail()).orElseThrow(() -> new RuntimeException("Invalid email or password"));
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+        CachedUser user = userCache.findByEmail(request.getEmail()).orElseThrow(() -> new RuntimeException("Invalid email or password"));
+        if (!passwordHashingService.matches(request.getPassword(), user.passwordHash())) {
             throw new RuntimeException("Invalid email or password");
         }
-        return ResponseEntity.ok(new LoginResponse(jwtUtil.generateToken(user.getId())));
+        // Hashes made with an older, cheaper cost are replaced now that the password is known
+        if (passwordHashingService.needsUpgrade(user.passwordHash())) {
+            String oldHash = user.passwordHash();
+            passwordHashingService.upgradeInBackground(request.getPassword(),
+                newHash -> {
+                    if (userRepository.updatePasswordHash(user.id(), oldHash, newHash) > 0) {
+                        userCache.invalidate(user.id());
+                    }
+                });
+        }
+        return ResponseEntity.ok(new LoginResponse(jwtUtil.generateToken(user.id(), user.role())));
     }
 
 }
@@ -12,11 +12,14 @@ public class JwtUtil {
     private final String SECRET_KEY = "verysecretkey12345678901234567890"; // keep in env variable
     private final long EXPIRATION = 1000 * 60 * 60 * 2; // 2 hours
 
+    private static final String ROLE_CLAIM = "role";
+
     private final SecretKey key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
 
-    public String generateToken(Long userId) {
+    public String generateToken(Long userId, String role) {
         return Jwts.builder()
                 .subject(userId.toString())
+                .claim(ROLE_CLAIM, role)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + EXPIRATION))
                 .signWith(key)
@@ -28,6 +31,13 @@ public class JwtUtil {
                 .parseSignedClaims(token).getPayload().getSubject();
     }
 
+    // Tokens issued before roles existed carry no claim and get the plain user role
+    public String extractRole(String token) {
+        String role = Jwts.parser().verifyWith(key).build()
+                .parseSignedClaims(token).getPayload().get(ROLE_CLAIM, String.class);
+        return role == null ? "USER" : role;
+    }
+
     public boolean validateToken(String token) {
         try {
             Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
@@ -0,0 +1,130 @@
+package com.example.finance.auth;
+
+import com.example.finance.exceptions.AuthCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs BCrypt hashing and verification on a small dedicated pool instead of request threads.
+ * The pool has a bounded queue and rejects work once it is full, so a login burst is answered with
+ * 503 instead of taking every core away from the rest of the API.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMillis;
+    private final Timer encodeTimer;
+    private final Timer verifyTimer;
+    private final Counter rejections;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                                  @Value("${finance.auth.hashing.threads:0}") int threads,
+                                  @Value("${finance.auth.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${finance.auth.hashing.max-wait-ms:2000}") long maxWaitMillis) {
+        this.passwordEncoder = passwordEncoder;
+        this.maxWaitMillis = maxWaitMillis;
+        // Half the cores by default, leaving the rest for money movement
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            task -> Thread.ofPlatform().name("password-hashing-" + threadNumber.incrementAndGet()).daemon(true).unstarted(task),
+            new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("finance.auth.password.hash").tag("operation", "encode")
+            .publishPercentiles(0.5, 0.99).register(meterRegistry);
+        this.verifyTimer = Timer.builder("finance.auth.password.hash").tag("operation", "verify")
+            .publishPercentiles(0.5, 0.99).register(meterRegistry);
+        this.rejections = Counter.builder("finance.auth.password.rejected").register(meterRegistry);
+        Gauge.builder("finance.auth.password.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("finance.auth.password.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return await(submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword))));
+    }
+
+    public boolean matches(String rawPassword, String passwordHash) {
+        return await(submit(() -> verifyTimer.record(() -> passwordEncoder.matches(rawPassword, passwordHash))));
+    }
+
+    /**
+     * Whether the hash was made with a lower cost than the configured one
+     */
+    public boolean needsUpgrade(String passwordHash) {
+        return passwordEncoder.upgradeEncoding(passwordHash);
+    }
+
+    /**
+     * Re-hashes in the background and hands the new hash to onHashed; skipped when the pool is busy
+     */
+    public void upgradeInBackground(String rawPassword, Consumer<String> onHashed) {
+        try {
+            executor.execute(() -> {
+                try {
+                    onHashed.accept(encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+                } catch (RuntimeException e) {
+                    log.warn("Password hash upgrade failed", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The next successful login tries again
+            rejections.increment();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new AuthCapacityExceededException("Authentication is temporarily overloaded, please retry shortly");
+        }
+    }
+
+    private <T> T await(Future<T> result) {
+        try {
+            return result.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            rejections.increment();
+            throw new AuthCapacityExceededException("Authentication is temporarily overloaded, please retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthCapacityExceededException("Authentication was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.finance.auth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory per-user token buckets, one set per endpoint group.
+ * Each bucket is a single AtomicLong holding the time at which it will be full again (the GCRA form of a
+ * token bucket), so taking a token is one compare-and-set with no locks and no allocation.
+ */
+@Component
+public class RateLimiter {
+
+    public enum Group {
+        READ, WRITE
+    }
+
+    private final Map<Group, Limit> limits = new EnumMap<>(Group.class);
+    private final Map<Group, ConcurrentHashMap<String, AtomicLong>> buckets = new EnumMap<>(Group.class);
+
+    public RateLimiter(@Value("${finance.rate-limit.read.capacity:60}") int readCapacity,
+                       @Value("${finance.rate-limit.read.per-second:20}") double readPerSecond,
+                       @Value("${finance.rate-limit.write.capacity:20}") int writeCapacity,
+                       @Value("${finance.rate-limit.write.per-second:5}") double writePerSecond) {
+        limits.put(Group.READ, new Limit(readCapacity, readPerSecond));
+        limits.put(Group.WRITE, new Limit(writeCapacity, writePerSecond));
+        for (Group group : Group.values()) {
+            buckets.put(group, new ConcurrentHashMap<>());
+        }
+    }
+
+    private record Limit(long intervalNanos, long burstNanos) {
+        private Limit(int capacity, double perSecond) {
+            this((long) (TimeUnit.SECONDS.toNanos(1) / perSecond), (long) (TimeUnit.SECONDS.toNanos(1) / perSecond) * capacity);
+        }
+    }
+
+    /**
+     * Takes one token, returns 0 if granted or the nanoseconds until a token is available
+     */
+    public long tryAcquire(String userId, Group group) {
+        Limit limit = limits.get(group);
+        AtomicLong fullAt = buckets.get(group).computeIfAbsent(userId, id -> new AtomicLong(System.nanoTime()));
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            // Every token taken pushes the refill time one interval further out
+            long next = Math.max(current, now) + limit.intervalNanos();
+            long overBy = next - now - limit.burstNanos();
+            if (overBy > 0) {
+                return overBy;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets that have refilled completely, forgetting them loses nothing
+     */
+    @Scheduled(fixedDelayString = "${finance.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<String, AtomicLong> groupBuckets : buckets.values()) {
+            groupBuckets.values().removeIf(fullAt -> fullAt.get() - now <= 0);
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.example.finance.auth;
 
+import com.example.finance.cluster.AccountForwardingFilter;
+import com.example.finance.cluster.ClusterMembership;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
@@ -10,16 +15,31 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 
+import java.time.Duration;
+
 @Configuration
 public class SecurityConfig {
     private final JwtFilter jwtFilter;
-    public SecurityConfig(JwtFilter jwtFilter) {
+    private final RateLimiter rateLimiter;
+    private final ClusterMembership clusterMembership;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${finance.rate-limit.enabled:true}")
+    private boolean rateLimitEnabled;
+
+    @Value("${finance.cluster.forward-timeout-ms:5000}")
+    private long forwardTimeoutMillis;
+
+    public SecurityConfig(JwtFilter jwtFilter, RateLimiter rateLimiter, ClusterMembership clusterMembership, MeterRegistry meterRegistry) {
         this.jwtFilter = jwtFilter;
+        this.rateLimiter = rateLimiter;
+        this.clusterMembership = clusterMembership;
+        this.meterRegistry = meterRegistry;
     }
 
    @Bean
-   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+   public PasswordEncoder passwordEncoder(@Value("${finance.auth.bcrypt-strength:10}") int strength) {
+    return new BCryptPasswordEncoder(strength);
    }
 
    @Bean
@@ -30,10 +50,19 @@ public class SecurityConfig {
                    .requestMatchers("/swagger-ui/**").permitAll()
                    .requestMatchers("/swagger-ui.html").permitAll()
                    .requestMatchers("/v3/api-docs/**").permitAll()
+                   .requestMatchers("/api/reconciliation/**").hasRole("ADMIN")
+                   .requestMatchers("/api/description-index/**").hasRole("ADMIN")
+                   .requestMatchers("/api/users/all").hasRole("ADMIN")
+                   .requestMatchers(HttpMethod.GET, "/api/limit-profiles/**").authenticated()
+                   .requestMatchers("/api/limit-profiles/**").hasRole("ADMIN")
+                   // Daily limit updates are stored as permanent account overrides, like the limit profile endpoints
+                   .requestMatchers(HttpMethod.PUT, "/api/transactions/limits/**").hasRole("ADMIN")
                    .anyRequest().authenticated()
            )
            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-           .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+           .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+           .addFilterAfter(new AccountForwardingFilter(clusterMembership, meterRegistry, Duration.ofMillis(forwardTimeoutMillis)), JwtFilter.class)
+           .addFilterAfter(new RateLimitFilter(rateLimiter, rateLimitEnabled), AccountForwardingFilter.class);
 
        return http.build();
    }
@@ -0,0 +1,193 @@
+package com.example.finance.cluster;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends deposits, withdrawals and transfers to the instance that owns the account, the source account
+ * of a transfer, so every debit of an account runs on its owner. The credit leg of a transfer runs on the
+ * source's owner, concurrently with what the destination's owner posts, see {@link AccountSerializer}.
+ * Runs after JWT verification, so unauthenticated requests are rejected where they arrive, and before
+ * rate limiting, which then applies once, on the owner. A request that was already forwarded is always
+ * served locally, so instances with differing member lists cannot bounce it around. Only a forward signed
+ * with the shared secret by a known member counts as one; forwarding headers sent by clients are ignored
+ * and never passed on.
+ * Registered only inside the security filter chain, like {@link com.example.finance.auth.RateLimitFilter}.
+ */
+public class AccountForwardingFilter extends OncePerRequestFilter {
+
+    public static final String FORWARDED_BY_HEADER = "X-Finance-Forwarded-By";
+    public static final String FORWARDED_AT_HEADER = "X-Finance-Forwarded-At";
+    public static final String FORWARD_SIGNATURE_HEADER = "X-Finance-Forward-Signature";
+    public static final String NODE_HEADER = "X-Finance-Node";
+
+    private static final Logger log = LoggerFactory.getLogger(AccountForwardingFilter.class);
+    private static final Pattern MONEY_MOVEMENT =
+        Pattern.compile("/api/transactions/(?:deposit|withdraw|transfer)/([^/]+)(?:/to/[^/]+)?");
+    // Hop-by-hop headers and those the HTTP client or the servlet container set themselves
+    private static final Set<String> NOT_COPIED = Set.of(
+        "host", "connection", "keep-alive", "proxy-connection", "te", "trailer", "transfer-encoding", "upgrade",
+        "http2-settings", "expect", "content-length", "date",
+        FORWARDED_BY_HEADER.toLowerCase(), FORWARDED_AT_HEADER.toLowerCase(), FORWARD_SIGNATURE_HEADER.toLowerCase());
+
+    private final ClusterMembership membership;
+    private final HttpClient client;
+    private final Duration timeout;
+    private final Counter local;
+    private final Counter misrouted;
+    private final Timer forwarded;
+    private final Counter unavailable;
+    private final Counter untrusted;
+
+    public AccountForwardingFilter(ClusterMembership membership, MeterRegistry meterRegistry, Duration timeout) {
+        this.membership = membership;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .build();
+        this.local = Counter.builder("finance.cluster.requests").tag("route", "local").register(meterRegistry);
+        this.misrouted = Counter.builder("finance.cluster.requests").tag("route", "misrouted").register(meterRegistry);
+        this.unavailable = Counter.builder("finance.cluster.requests").tag("route", "unavailable").register(meterRegistry);
+        this.untrusted = Counter.builder("finance.cluster.requests").tag("route", "untrusted").register(meterRegistry);
+        this.forwarded = Timer.builder("finance.cluster.forwarded").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !membership.isEnabled() || !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Matcher matcher = MONEY_MOVEMENT.matcher(path);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!matcher.matches() || authentication == null || !authentication.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ClusterMember owner = membership.ownerOf(UriUtils.decode(matcher.group(1), StandardCharsets.UTF_8));
+        String target = path + (request.getQueryString() == null ? "" : "?" + request.getQueryString());
+        String forwardedBy = trustedForwarder(request, target);
+        if (owner == membership.self() || forwardedBy != null) {
+            if (owner != membership.self()) {
+                misrouted.increment();
+                log.warn("Serving {} forwarded by {} although {} owns the account, check that all instances share finance.cluster.members",
+                    path, forwardedBy, owner.id());
+            } else {
+                local.increment();
+            }
+            response.setHeader(NODE_HEADER, membership.self().id());
+            filterChain.doFilter(request, response);
+            return;
+        }
+        forward(request, response, owner, target);
+    }
+
+    /**
+     * Id of the member that forwarded this request, null if the request came from a client
+     */
+    private String trustedForwarder(HttpServletRequest request, String target) {
+        String forwardedBy = request.getHeader(FORWARDED_BY_HEADER);
+        if (forwardedBy == null) {
+            return null;
+        }
+        boolean signed = membership.member(forwardedBy).isPresent() && membership.forwardSignature().verify(
+            forwardedBy, request.getHeader(FORWARDED_AT_HEADER), request.getMethod(), target,
+            request.getHeader(FORWARD_SIGNATURE_HEADER), System.currentTimeMillis());
+        if (!signed) {
+            // Either a client setting the header or a member with a different secret or clock, route it as a client request
+            untrusted.increment();
+            return null;
+        }
+        return forwardedBy;
+    }
+
+    private void forward(HttpServletRequest request, HttpServletResponse response, ClusterMember owner, String target) throws IOException {
+        HttpRequest.Builder forward = HttpRequest.newBuilder(URI.create(owner.baseUrl() + target))
+            .timeout(timeout)
+            .method(request.getMethod(), HttpRequest.BodyPublishers.ofByteArray(request.getInputStream().readAllBytes()));
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!NOT_COPIED.contains(name.toLowerCase())) {
+                for (String value : Collections.list(request.getHeaders(name))) {
+                    forward.header(name, value);
+                }
+            }
+        }
+        long now = System.currentTimeMillis();
+        forward.header(FORWARDED_BY_HEADER, membership.self().id())
+            .header(FORWARDED_AT_HEADER, Long.toString(now))
+            .header(FORWARD_SIGNATURE_HEADER, membership.forwardSignature().sign(membership.self().id(), now, request.getMethod(), target));
+
+        long started = System.nanoTime();
+        HttpResponse<byte[]> answer;
+        try {
+            answer = client.send(forward.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (HttpTimeoutException e) {
+            // The owner may still have posted it, a retry with the same transactionRef is safe
+            unavailable.increment();
+            error(response, HttpStatus.GATEWAY_TIMEOUT, "Instance " + owner.id() + " owning the account did not answer in time, " +
+                "retry with the same transactionRef");
+            return;
+        } catch (IOException e) {
+            unavailable.increment();
+            log.warn("Could not forward {} to {}: {}", target, owner.id(), e.toString());
+            error(response, HttpStatus.SERVICE_UNAVAILABLE, "Instance " + owner.id() + " owning the account is unavailable");
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error(response, HttpStatus.SERVICE_UNAVAILABLE, "Instance " + owner.id() + " owning the account is unavailable");
+            return;
+        }
+        forwarded.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+        response.setStatus(answer.statusCode());
+        answer.headers().map().forEach((name, values) -> {
+            if (!NOT_COPIED.contains(name.toLowerCase()) && !name.startsWith(":")) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        response.getOutputStream().write(answer.body());
+    }
+
+    private static void error(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        if (status == HttpStatus.SERVICE_UNAVAILABLE) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.finance.cluster;
+
+import com.example.finance.exceptions.AccountBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs money movement of an account one request at a time, in arrival order, on the instance that owns it.
+ * Callers wrap the whole transactional call, so the next request of the account reads the committed
+ * balance and version instead of failing on a concurrent update. Accounts share a fixed set of fair lock
+ * stripes. Active in cluster mode only.
+ * <p>
+ * Stripes are local to this instance. A transfer runs on the owner of its source and also takes the
+ * destination's stripe there, which only orders it against this instance's own postings to that account.
+ * The destination's owner keeps posting to it meanwhile, so a transfer into a busy account can still hit
+ * the version check and fail with 409; retrying with the same transactionRef is safe.
+ */
+@Component
+public class AccountSerializer {
+
+    private final boolean enabled;
+    private final ReentrantLock[] stripes;
+    private final long maxWaitMillis;
+
+    public AccountSerializer(ClusterMembership membership,
+                             @Value("${finance.cluster.lock-stripes:4096}") int stripes,
+                             @Value("${finance.cluster.lock-wait-ms:5000}") long maxWaitMillis) {
+        this.enabled = membership.isEnabled();
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock(true);
+        }
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public <T> T serialize(String accountNumber, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        ReentrantLock lock = stripeOf(accountNumber);
+        acquire(lock, accountNumber);
+        try {
+            return work.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Both accounts of a transfer, stripes taken in index order so two transfers cannot wait on each other
+     */
+    public <T> T serialize(String sourceAccountNumber, String destinationAccountNumber, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        ReentrantLock source = stripeOf(sourceAccountNumber);
+        ReentrantLock destination = stripeOf(destinationAccountNumber);
+        if (source == destination) {
+            return serialize(sourceAccountNumber, work);
+        }
+        boolean sourceFirst = stripeIndex(sourceAccountNumber) < stripeIndex(destinationAccountNumber);
+        ReentrantLock first = sourceFirst ? source : destination;
+        ReentrantLock second = sourceFirst ? destination : source;
+        acquire(first, sourceFirst ? sourceAccountNumber : destinationAccountNumber);
+        try {
+            acquire(second, sourceFirst ? destinationAccountNumber : sourceAccountNumber);
+            try {
+                return work.get();
+            } finally {
+                second.unlock();
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+
+    private void acquire(ReentrantLock lock, String accountNumber) {
+        try {
+            if (!lock.tryLock(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw new AccountBusyException("Account " + accountNumber + " is busy, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountBusyException("Account " + accountNumber + " is busy, please retry");
+        }
+    }
+
+    private ReentrantLock stripeOf(String accountNumber) {
+        return stripes[stripeIndex(accountNumber)];
+    }
+
+    private int stripeIndex(String accountNumber) {
+        return (int) Long.remainderUnsigned(ConsistentHashRing.hash(accountNumber), stripes.length);
+    }
+}
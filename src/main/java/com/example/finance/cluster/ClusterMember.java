@@ -0,0 +1,9 @@
+package com.example.finance.cluster;
+
+import java.net.URI;
+
+/**
+ * One application instance of the cluster, addressed by its base URL
+ */
+public record ClusterMember(String id, URI baseUrl) {
+}
@@ -0,0 +1,102 @@
+package com.example.finance.cluster;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Static cluster membership and account ownership.
+ * Every instance is configured with the same member list, so all of them agree on the owner of an account
+ * without coordinating. With cluster mode off this instance owns every account.
+ * Members also share a secret that signs forwarded requests.
+ */
+@Component
+public class ClusterMembership {
+
+    private final boolean enabled;
+    private final List<ClusterMember> members;
+    private final ClusterMember self;
+    private final ConsistentHashRing ring;
+    private final ForwardSignature forwardSignature;
+
+    public ClusterMembership(@Value("${finance.cluster.enabled:false}") boolean enabled,
+                             @Value("${finance.cluster.self:local}") String selfId,
+                             @Value("${finance.cluster.members:}") List<String> members,
+                             @Value("${finance.cluster.virtual-nodes:160}") int virtualNodes,
+                             @Value("${finance.cluster.forward-secret:}") String forwardSecret) {
+        this.enabled = enabled;
+        this.members = parse(members);
+        if (!enabled) {
+            this.self = new ClusterMember(selfId, null);
+            this.ring = null;
+            this.forwardSignature = null;
+            return;
+        }
+        if (forwardSecret == null || forwardSecret.isBlank()) {
+            throw new IllegalStateException("finance.cluster.forward-secret must be set when finance.cluster.enabled is true");
+        }
+        this.forwardSignature = new ForwardSignature(forwardSecret);
+        this.self = this.members.stream()
+            .filter(member -> member.id().equals(selfId))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("finance.cluster.self " + selfId + " is not one of finance.cluster.members"));
+        this.ring = new ConsistentHashRing(this.members, virtualNodes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ClusterMember self() {
+        return self;
+    }
+
+    public List<ClusterMember> members() {
+        return members;
+    }
+
+    public ClusterMember ownerOf(String accountNumber) {
+        return enabled ? ring.ownerOf(accountNumber) : self;
+    }
+
+    public boolean isLocal(String accountNumber) {
+        return ownerOf(accountNumber) == self;
+    }
+
+    public Optional<ClusterMember> member(String id) {
+        return members.stream().filter(member -> member.id().equals(id)).findFirst();
+    }
+
+    ForwardSignature forwardSignature() {
+        return forwardSignature;
+    }
+
+    /**
+     * Entries are id=base URL
+     */
+    private static List<ClusterMember> parse(List<String> entries) {
+        List<ClusterMember> members = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (String entry : entries) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalStateException("Cluster member " + entry + " is not of the form id=url");
+            }
+            String id = entry.substring(0, separator).trim();
+            if (!ids.add(id)) {
+                throw new IllegalStateException("Cluster member " + id + " is listed twice");
+            }
+            members.add(new ClusterMember(id, URI.create(entry.substring(separator + 1).trim())));
+        }
+        return List.copyOf(members);
+    }
+}
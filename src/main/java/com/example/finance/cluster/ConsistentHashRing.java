@@ -0,0 +1,61 @@
+package com.example.finance.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Consistent hashing of keys onto members. Every member is placed on a 64-bit ring at a number of virtual
+ * points and a key belongs to the first point at or after its hash, so adding or removing a member only
+ * moves the keys of its own points. Points live in sorted parallel arrays; a lookup is one binary search.
+ */
+final class ConsistentHashRing {
+
+    private final long[] points;
+    private final ClusterMember[] owners;
+
+    ConsistentHashRing(List<ClusterMember> members, int virtualNodes) {
+        long[][] placed = new long[members.size() * virtualNodes][];
+        int n = 0;
+        for (int m = 0; m < members.size(); m++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                placed[n++] = new long[] {hash(members.get(m).id() + "#" + v), m};
+            }
+        }
+        // Ties between members are broken by member order, which every instance shares
+        Arrays.sort(placed, Comparator.<long[]>comparingLong(point -> point[0]).thenComparingLong(point -> point[1]));
+        points = new long[placed.length];
+        owners = new ClusterMember[placed.length];
+        for (int i = 0; i < placed.length; i++) {
+            points[i] = placed[i][0];
+            owners[i] = members.get((int) placed[i][1]);
+        }
+    }
+
+    ClusterMember ownerOf(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 64-bit mix. Stable across JVMs and
+     * versions, unlike String.hashCode it spreads short similar keys such as account numbers evenly.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
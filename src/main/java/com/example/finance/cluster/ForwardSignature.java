@@ -0,0 +1,62 @@
+package com.example.finance.cluster;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * HMAC-SHA256 over the forwarding member, the time and the request line, keyed with the secret all members share.
+ * It proves a request was forwarded by a member, so a client cannot make a non-owner serve it by claiming so.
+ * The JWT still authenticates the caller; the body is not signed.
+ */
+final class ForwardSignature {
+
+    static final Duration MAX_AGE = Duration.ofSeconds(30);
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    ForwardSignature(String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    String sign(String memberId, long timestampMillis, String method, String target) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac(memberId, timestampMillis, method, target));
+    }
+
+    /**
+     * True if signature was made with this secret for exactly these values within {@link #MAX_AGE} of nowMillis
+     */
+    boolean verify(String memberId, String timestamp, String method, String target, String signature, long nowMillis) {
+        if (memberId == null || timestamp == null || signature == null) {
+            return false;
+        }
+        try {
+            long timestampMillis = Long.parseLong(timestamp);
+            if (Math.abs(nowMillis - timestampMillis) > MAX_AGE.toMillis()) {
+                return false;
+            }
+            byte[] expected = mac(memberId, timestampMillis, method, target);
+            return MessageDigest.isEqual(expected, Base64.getUrlDecoder().decode(signature));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private byte[] mac(String memberId, long timestampMillis, String method, String target) {
+        try {
+            // Mac instances are not thread safe and cheap to create
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            String message = memberId + "\n" + timestampMillis + "\n" + method + "\n" + target;
+            return mac.doFinal(message.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.finance.coldstore;
+
+import com.example.finance.transactions.TransactionDto;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Serves transaction history of sealed months from memory-mapped segment files.
+ * The cold_segments table is the manifest: every node loads the months listed there, verifies each file
+ * against its row count and checksum, and rebuilds a missing file from transactions_archive as long as the
+ * month's rows have not been deleted. Rows created before {@link #getBoundary()} are served from the
+ * segments loaded on this node, rows at or after it from MySQL.
+ */
+@Component
+public class ColdStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ColdStore.class);
+
+    static final LocalDateTime NO_COLD_DATA = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Start of the first month not in the manifest, as SQL. Read in the same statement as cold_account_totals
+     * it always matches the months those totals cover, whatever this node has loaded.
+     */
+    public static final String SEALED_BOUNDARY_SQL =
+        "(SELECT COALESCE(DATE_ADD(STR_TO_DATE(CONCAT(MAX(month), '01'), '%Y%m%d'), INTERVAL 1 MONTH), '1970-01-01') FROM cold_segments)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SegmentBuilder segmentBuilder;
+    private final Path directory;
+
+    // Newest month first, replaced as a whole when the manifest is reloaded
+    private volatile List<SegmentReader> segments = List.of();
+
+    public ColdStore(JdbcTemplate jdbcTemplate, SegmentBuilder segmentBuilder,
+                     @Value("${finance.cold-store.directory:./data/cold-store}") String directory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.segmentBuilder = segmentBuilder;
+        this.directory = Path.of(directory);
+    }
+
+    @PostConstruct
+    void load() throws IOException {
+        Files.createDirectories(directory);
+        // Startup only opens files already present, missing ones are rebuilt by the first scheduled reload
+        refresh(false);
+    }
+
+    /**
+     * Picks up months sealed by other nodes and rebuilds the ones missing here
+     */
+    @Scheduled(initialDelayString = "${finance.cold-store.refresh-interval-ms:60000}",
+               fixedDelayString = "${finance.cold-store.refresh-interval-ms:60000}")
+    public void reloadManifest() {
+        refresh(true);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Start of the first month not served from segments on this node
+     */
+    public LocalDateTime getBoundary() {
+        List<SegmentReader> current = segments;
+        if (current.isEmpty()) {
+            return NO_COLD_DATA;
+        }
+        return SegmentBuilder.month(current.get(0).getMonth()).plusMonths(1).atDay(1).atStartOfDay();
+    }
+
+    /**
+     * Loads the manifest oldest month first and stops at the first month that cannot be served, so the
+     * boundary never moves past a gap. Rows of months not loaded are still read from transactions_archive.
+     */
+    synchronized void refresh(boolean rebuildMissing) {
+        List<ManifestEntry> manifest = jdbcTemplate.query(
+            "SELECT month, file_name, row_count, checksum, rows_deleted FROM cold_segments ORDER BY month",
+            (rs, rowNum) -> new ManifestEntry(
+                rs.getInt("month"),
+                rs.getString("file_name"),
+                rs.getLong("row_count"),
+                rs.getObject("checksum", Long.class),
+                rs.getBoolean("rows_deleted")));
+
+        Map<Integer, SegmentReader> open = new HashMap<>();
+        for (SegmentReader segment : segments) {
+            open.put(segment.getMonth(), segment);
+        }
+        List<SegmentReader> loaded = new ArrayList<>(manifest.size());
+        for (ManifestEntry entry : manifest) {
+            SegmentReader reader = open.get(entry.month());
+            if (reader == null) {
+                reader = openOrRebuild(entry, rebuildMissing);
+            }
+            if (reader == null) {
+                break;
+            }
+            loaded.add(reader);
+        }
+        Collections.reverse(loaded);
+        segments = List.copyOf(loaded);
+    }
+
+    private SegmentReader openOrRebuild(ManifestEntry entry, boolean rebuildMissing) {
+        Path file = directory.resolve(entry.fileName());
+        try {
+            if (Files.exists(file)) {
+                SegmentReader reader = new SegmentReader(file);
+                if (entry.matches(reader)) {
+                    return reader;
+                }
+                log.warn("Cold segment {} does not match the manifest", file);
+            }
+            if (entry.rowsDeleted()) {
+                log.error("Cold segment {} is missing or damaged and the archive rows of {} were deleted. History from that "
+                    + "month on is incomplete on this node until the file is restored; sealed rows may only be deleted "
+                    + "when {} is shared by all nodes", file, entry.month(), directory);
+                return null;
+            }
+            if (!rebuildMissing) {
+                return null;
+            }
+            log.info("Rebuilding cold segment {} from transactions_archive", file);
+            SegmentReader rebuilt = segmentBuilder.build(directory, SegmentBuilder.month(entry.month()), file).reader();
+            if (!entry.matches(rebuilt)) {
+                log.error("Rebuilt cold segment {} does not match the manifest, the archive rows of {} have changed", file, entry.month());
+                return null;
+            }
+            return rebuilt;
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not load cold segment {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Cold history of an account, newest first
+     */
+    public List<TransactionDto> findByAccountId(long accountId) {
+        List<TransactionDto> history = new ArrayList<>();
+        for (SegmentReader segment : segments) {
+            List<TransactionDto> rows = new ArrayList<>(segment.findByAccountId(accountId));
+            Collections.reverse(rows);
+            history.addAll(rows);
+        }
+        return history;
+    }
+
+    public long countByAccountId(long accountId) {
+        long count = 0;
+        for (SegmentReader segment : segments) {
+            count += segment.countByAccountId(accountId);
+        }
+        return count;
+    }
+
+    public Optional<TransactionDto> findByRef(String transactionRef) {
+        for (SegmentReader segment : segments) {
+            Optional<TransactionDto> found = segment.findByRef(transactionRef);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private record ManifestEntry(int month, String fileName, long rowCount, Long checksum, boolean rowsDeleted) {
+
+        // Segments sealed before checksums were recorded are checked on their row count only
+        boolean matches(SegmentReader reader) {
+            return reader.getMonth() == month
+                && reader.getRowCount() == rowCount
+                && (checksum == null || checksum == reader.checksum());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.finance.coldstore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Seals closed months of transactions_archive into cold segment files.
+ * Only the node holding the cold_store_lease row seals. A month is written to disk first, then its account
+ * totals and manifest row are committed together; other nodes pick it up from the manifest.
+ * <p>
+ * Archived rows stay in MySQL by default, so a node whose directory lacks a segment rebuilds it. With
+ * {@code finance.cold-store.delete-sealed-rows} the rows of months sealed longer than the grace period ago are
+ * deleted in small throttled batches; that is only safe when the directory is storage shared by all nodes.
+ */
+@Component
+public class ColdStoreArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(ColdStoreArchiver.class);
+
+    private final ColdStore coldStore;
+    private final SegmentBuilder segmentBuilder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String leaseOwner = UUID.randomUUID().toString();
+
+    @Value("${finance.cold-store.enabled:true}")
+    private boolean enabled;
+
+    @Value("${finance.cold-store.cold-after-months:6}")
+    private int coldAfterMonths;
+
+    @Value("${finance.cold-store.lease-minutes:120}")
+    private int leaseMinutes;
+
+    @Value("${finance.cold-store.delete-sealed-rows:false}")
+    private boolean deleteSealedRows;
+
+    @Value("${finance.cold-store.delete-grace-minutes:60}")
+    private int deleteGraceMinutes;
+
+    @Value("${finance.cold-store.delete-batch-size:1000}")
+    private int deleteBatchSize;
+
+    public ColdStoreArchiver(ColdStore coldStore, SegmentBuilder segmentBuilder, JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate) {
+        this.coldStore = coldStore;
+        this.segmentBuilder = segmentBuilder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(cron = "${finance.cold-store.cron:0 0 4 2 * *}")
+    public void sealClosedMonths() {
+        if (!enabled) {
+            return;
+        }
+        if (!takeLease()) {
+            log.info("Cold store lease is held by another node, skipping this sealing run");
+            return;
+        }
+        try {
+            // Months sealed by earlier runs, so every node has had time to load them before the rows go
+            deleteSealedRows();
+
+            YearMonth lastColdMonth = YearMonth.now().minusMonths(coldAfterMonths);
+            while (true) {
+                LocalDateTime oldest = jdbcTemplate.queryForObject(
+                    "SELECT MIN(created_at) FROM transactions_archive WHERE created_at >= " + ColdStore.SEALED_BOUNDARY_SQL,
+                    LocalDateTime.class);
+                if (oldest == null || !YearMonth.from(oldest).isBefore(lastColdMonth.plusMonths(1))) {
+                    return;
+                }
+                if (!takeLease()) {
+                    log.warn("Lost the cold store lease, stopping this sealing run");
+                    return;
+                }
+                sealMonth(YearMonth.from(oldest));
+            }
+        } finally {
+            jdbcTemplate.update("UPDATE cold_store_lease SET owner = NULL, leased_until = NULL WHERE id = 1 AND owner = ?", leaseOwner);
+        }
+    }
+
+    /**
+     * Takes or renews the lease, false while another node holds an unexpired one
+     */
+    private boolean takeLease() {
+        return jdbcTemplate.update(
+            "UPDATE cold_store_lease SET owner = ?, leased_until = CURRENT_TIMESTAMP + INTERVAL ? MINUTE " +
+            "WHERE id = 1 AND (owner IS NULL OR owner = ? OR leased_until < CURRENT_TIMESTAMP)",
+            leaseOwner, leaseMinutes, leaseOwner) == 1;
+    }
+
+    private void sealMonth(YearMonth month) {
+        int monthKey = SegmentBuilder.monthKey(month);
+        String fileName = SegmentBuilder.fileName(month);
+        Path target = coldStore.getDirectory().resolve(fileName);
+
+        SegmentBuilder.Segment segment;
+        try {
+            segment = segmentBuilder.build(coldStore.getDirectory(), month, target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<Object[]> totals = new ArrayList<>(segment.accountTotals().size());
+        for (Map.Entry<Long, long[]> entry : segment.accountTotals().entrySet()) {
+            totals.add(new Object[] {
+                entry.getKey(), BigDecimal.valueOf(entry.getValue()[0], 2), BigDecimal.valueOf(entry.getValue()[1], 2)
+            });
+        }
+        // The manifest primary key rejects a month sealed twice, even if a lease expired mid-run
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO cold_account_totals (account_id, credits, debits) VALUES (?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE credits = credits + VALUES(credits), debits = debits + VALUES(debits)", totals);
+            jdbcTemplate.update(
+                "INSERT INTO cold_segments (month, file_name, row_count, checksum, rows_deleted) VALUES (?, ?, ?, ?, FALSE)",
+                monthKey, fileName, segment.reader().getRowCount(), segment.reader().checksum());
+        });
+        log.info("Sealed {} archived transaction rows of {} into {}", segment.reader().getRowCount(), month, target);
+        coldStore.refresh(false);
+    }
+
+    private void deleteSealedRows() {
+        if (!deleteSealedRows) {
+            return;
+        }
+        List<Integer> months = jdbcTemplate.queryForList(
+            "SELECT month FROM cold_segments WHERE sealed_at < CURRENT_TIMESTAMP - INTERVAL ? MINUTE ORDER BY month",
+            Integer.class, deleteGraceMinutes);
+        for (int monthKey : months) {
+            if (!takeLease()) {
+                return;
+            }
+            // Marked before the first batch: from here on a node without the file can no longer rebuild it
+            jdbcTemplate.update("UPDATE cold_segments SET rows_deleted = TRUE WHERE month = ?", monthKey);
+            YearMonth month = SegmentBuilder.month(monthKey);
+            if (!deleteArchivedBetween(month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay())) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Deletes archived rows of the range in throttled batches, false if interrupted
+     */
+    private boolean deleteArchivedBetween(LocalDateTime from, LocalDateTime to) {
+        Timestamp start = Timestamp.valueOf(from);
+        Timestamp end = Timestamp.valueOf(to);
+        int deleted;
+        do {
+            long startNanos = System.nanoTime();
+            deleted = jdbcTemplate.update(
+                "DELETE FROM transactions_archive WHERE created_at >= ? AND created_at < ? LIMIT ?", start, end, deleteBatchSize);
+            try {
+                // Give online traffic as much time as the batch took
+                Thread.sleep((System.nanoTime() - startNanos) / 1_000_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        } while (deleted > 0);
+        return true;
+    }
+}
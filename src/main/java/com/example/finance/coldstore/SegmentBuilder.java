@@ -0,0 +1,87 @@
+package com.example.finance.coldstore;
+
+import com.example.finance.transactions.ArchivedTransaction;
+import com.example.finance.transactions.Transaction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.Map;
+
+/**
+ * Writes one month of transactions_archive into a segment file. Used by the sealer and by nodes rebuilding
+ * a sealed month they do not have; the rows are read in a fixed order so both produce identical files.
+ */
+@Component
+class SegmentBuilder {
+
+    private static final String MONTH_ROWS_QUERY =
+        "SELECT account_key, id, source_account_id, destination_account_id, type, amount, description, status, transaction_ref, created_at FROM (" +
+        "  SELECT source_account_id AS account_key, t.* FROM transactions_archive t " +
+        "  WHERE created_at >= ? AND created_at < ? AND source_account_id IS NOT NULL " +
+        "  UNION ALL " +
+        "  SELECT destination_account_id AS account_key, t.* FROM transactions_archive t " +
+        "  WHERE created_at >= ? AND created_at < ? AND destination_account_id IS NOT NULL" +
+        ") sides ORDER BY account_key, created_at, id";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    SegmentBuilder(DataSource dataSource) {
+        // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole month
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    static int monthKey(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    static YearMonth month(int monthKey) {
+        return YearMonth.of(monthKey / 100, monthKey % 100);
+    }
+
+    static String fileName(YearMonth month) {
+        return "transactions-" + month + ".seg";
+    }
+
+    /**
+     * Streams the month's archived rows into target, spooling columns under workDir
+     */
+    Segment build(Path workDir, YearMonth month, Path target) throws IOException {
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        try (SegmentWriter writer = new SegmentWriter(workDir, monthKey(month))) {
+            streamingJdbcTemplate.query(MONTH_ROWS_QUERY, rs -> {
+                ArchivedTransaction row = new ArchivedTransaction(
+                    rs.getLong("id"),
+                    rs.getObject("source_account_id", Long.class),
+                    rs.getObject("destination_account_id", Long.class),
+                    Transaction.TransactionType.valueOf(rs.getString("type")),
+                    rs.getBigDecimal("amount"),
+                    rs.getString("description"),
+                    Transaction.TransactionStatus.valueOf(rs.getString("status")),
+                    rs.getString("transaction_ref"),
+                    rs.getTimestamp("created_at").toLocalDateTime(),
+                    null);
+                try {
+                    writer.append(rs.getLong("account_key"), row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, from, to, from, to);
+            writer.finish(target);
+            return new Segment(new SegmentReader(target), writer.getAccountTotals());
+        }
+    }
+
+    /**
+     * A finished segment and its COMPLETED totals per account in minor units, as {credits, debits}
+     */
+    record Segment(SegmentReader reader, Map<Long, long[]> accountTotals) {
+    }
+}
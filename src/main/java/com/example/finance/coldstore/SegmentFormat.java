@@ -0,0 +1,71 @@
+package com.example.finance.coldstore;
+
+import com.example.finance.transactions.Transaction.TransactionStatus;
+import com.example.finance.transactions.Transaction.TransactionType;
+
+/**
+ * On-disk layout of a cold segment file.
+ * <pre>
+ * header   magic, version, month (yyyymm), rowCount, accountCount, dictionaryCount, then one long offset per section
+ * DICTIONARY      distinct descriptions, length-prefixed UTF-8
+ * ACCOUNTS        sparse index, per account: id, first row, start offset in each varint column
+ * REF_INDEX       sorted longs of (ref hash &lt;&lt; 32 | row)
+ * META            1 byte per row: type, status and whether the account is the destination
+ * REF_OFFSETS     4 bytes per row into REFS
+ * REFS            length-prefixed UTF-8 references
+ * IDS, TIMES      zigzag varint deltas, restarting at every account
+ * AMOUNTS         varint minor units
+ * COUNTERPARTIES  varint account id of the other side, 0 when there is none
+ * DESCRIPTIONS    varint dictionary code, 0 for null
+ * </pre>
+ */
+final class SegmentFormat {
+
+    static final int MAGIC = 0x46545853; // "FTXS"
+    static final int VERSION = 1;
+
+    static final int DICTIONARY = 0;
+    static final int ACCOUNTS = 1;
+    static final int REF_INDEX = 2;
+    static final int META = 3;
+    static final int REF_OFFSETS = 4;
+    static final int REFS = 5;
+    static final int IDS = 6;
+    static final int TIMES = 7;
+    static final int AMOUNTS = 8;
+    static final int COUNTERPARTIES = 9;
+    static final int DESCRIPTIONS = 10;
+    static final int SECTION_COUNT = 11;
+
+    static final int[] SPOOLED_SECTIONS = {META, REF_OFFSETS, REFS, IDS, TIMES, AMOUNTS, COUNTERPARTIES, DESCRIPTIONS};
+    static final int[] VARINT_SECTIONS = {IDS, TIMES, AMOUNTS, COUNTERPARTIES, DESCRIPTIONS};
+
+    static final int HEADER_SIZE = 6 * Integer.BYTES + SECTION_COUNT * Long.BYTES;
+    static final int ACCOUNT_ENTRY_SIZE = Long.BYTES + Integer.BYTES + VARINT_SECTIONS.length * Integer.BYTES;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private SegmentFormat() {
+    }
+
+    static int meta(TransactionType type, TransactionStatus status, boolean incoming) {
+        return type.ordinal() | (status.ordinal() << 2) | (incoming ? 0x10 : 0);
+    }
+
+    static TransactionType type(int meta) {
+        return TYPES[meta & 0x3];
+    }
+
+    static TransactionStatus status(int meta) {
+        return STATUSES[(meta >> 2) & 0x3];
+    }
+
+    static boolean incoming(int meta) {
+        return (meta & 0x10) != 0;
+    }
+
+    static long refIndexEntry(String ref, int row) {
+        return ((long) ref.hashCode() << 32) | (row & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.finance.coldstore;
+
+import com.example.finance.transactions.TransactionDto;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * Read-only view of a segment file mapped into memory.
+ * Lookups binary search the sparse account index and the ref index directly in the mapping,
+ * only the description dictionary is copied onto the heap.
+ */
+public class SegmentReader {
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int month;
+    private final int rowCount;
+    private final int accountCount;
+    private final int refCount;
+    private final long[] sectionOffsets = new long[SegmentFormat.SECTION_COUNT];
+    private final String[] dictionary;
+
+    public SegmentReader(Path path) throws IOException {
+        this.path = path;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Segment " + path + " exceeds the 2 GB mapping limit");
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != SegmentFormat.MAGIC || buffer.getInt(4) != SegmentFormat.VERSION) {
+            throw new IOException("Not a version " + SegmentFormat.VERSION + " transaction segment: " + path);
+        }
+        this.month = buffer.getInt(8);
+        this.rowCount = buffer.getInt(12);
+        this.accountCount = buffer.getInt(16);
+        int dictionaryCount = buffer.getInt(20);
+        for (int section = 0; section < SegmentFormat.SECTION_COUNT; section++) {
+            sectionOffsets[section] = buffer.getLong(24 + section * Long.BYTES);
+        }
+        this.refCount = (int) ((sectionOffsets[SegmentFormat.REF_INDEX + 1] - sectionOffsets[SegmentFormat.REF_INDEX]) / Long.BYTES);
+
+        this.dictionary = new String[dictionaryCount];
+        int position = (int) sectionOffsets[SegmentFormat.DICTIONARY];
+        for (int i = 0; i < dictionaryCount; i++) {
+            dictionary[i] = readString(position);
+            position += Short.BYTES + buffer.getShort(position);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * CRC32C of the whole file, compared against the manifest before a segment is served
+     */
+    public long checksum() {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().clear());
+        return crc.getValue();
+    }
+
+    public int countByAccountId(long accountId) {
+        int entry = findAccount(accountId);
+        return entry < 0 ? 0 : accountRowCount(entry);
+    }
+
+    /**
+     * Every row of the account's history in this segment, oldest first
+     */
+    public List<TransactionDto> findByAccountId(long accountId) {
+        int entry = findAccount(accountId);
+        if (entry < 0) {
+            return List.of();
+        }
+        int rows = accountRowCount(entry);
+        List<TransactionDto> result = new ArrayList<>(rows);
+        decodeAccount(entry, rows, result);
+        return result;
+    }
+
+    public Optional<TransactionDto> findByRef(String transactionRef) {
+        long low = SegmentFormat.refIndexEntry(transactionRef, 0);
+        long high = low | 0xFFFFFFFFL;
+        int base = (int) sectionOffsets[SegmentFormat.REF_INDEX];
+
+        int lo = 0;
+        int hi = refCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (buffer.getLong(base + mid * Long.BYTES) < low) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        for (int i = lo; i < refCount; i++) {
+            long entry = buffer.getLong(base + i * Long.BYTES);
+            if (entry > high) {
+                break;
+            }
+            int row = (int) entry;
+            if (transactionRef.equals(refAt(row))) {
+                return Optional.of(decodeRow(row));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private TransactionDto decodeRow(int row) {
+        // Varint columns restart at each account, so decode the owning account up to the row
+        int lo = 0;
+        int hi = accountCount - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (firstRow(mid) <= row) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        List<TransactionDto> rows = new ArrayList<>(row - firstRow(lo) + 1);
+        decodeAccount(lo, row - firstRow(lo) + 1, rows);
+        return rows.get(rows.size() - 1);
+    }
+
+    private void decodeAccount(int entry, int rows, List<TransactionDto> out) {
+        long accountId = buffer.getLong(accountEntry(entry));
+        int firstRow = firstRow(entry);
+        long[] ids = cursor(entry, 0);
+        long[] times = cursor(entry, 1);
+        long[] amounts = cursor(entry, 2);
+        long[] counterparties = cursor(entry, 3);
+        long[] descriptions = cursor(entry, 4);
+
+        long id = 0;
+        long time = 0;
+        for (int i = 0; i < rows; i++) {
+            int row = firstRow + i;
+            int meta = buffer.get((int) sectionOffsets[SegmentFormat.META] + row);
+            id += VarInts.readSigned(buffer, ids);
+            time += VarInts.readSigned(buffer, times);
+            long amount = VarInts.readUnsigned(buffer, amounts);
+            long counterparty = VarInts.readUnsigned(buffer, counterparties);
+            int description = (int) VarInts.readUnsigned(buffer, descriptions);
+
+            TransactionDto dto = new TransactionDto();
+            dto.setId(id);
+            dto.setType(SegmentFormat.type(meta));
+            dto.setStatus(SegmentFormat.status(meta));
+            dto.setAmount(BigDecimal.valueOf(amount, 2));
+            dto.setDescription(description == 0 ? null : dictionary[description - 1]);
+            dto.setTransactionRef(refAt(row));
+            dto.setCreatedAt(LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC));
+            Long other = counterparty == 0 ? null : counterparty;
+            if (SegmentFormat.incoming(meta)) {
+                dto.setSourceAccountId(other);
+                dto.setDestinationAccountId(accountId);
+            } else {
+                dto.setSourceAccountId(accountId);
+                dto.setDestinationAccountId(other);
+            }
+            out.add(dto);
+        }
+    }
+
+    private int findAccount(long accountId) {
+        int lo = 0;
+        int hi = accountCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long candidate = buffer.getLong(accountEntry(mid));
+            if (candidate < accountId) {
+                lo = mid + 1;
+            } else if (candidate > accountId) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int accountEntry(int entry) {
+        return (int) sectionOffsets[SegmentFormat.ACCOUNTS] + entry * SegmentFormat.ACCOUNT_ENTRY_SIZE;
+    }
+
+    private int firstRow(int entry) {
+        return buffer.getInt(accountEntry(entry) + Long.BYTES);
+    }
+
+    private int accountRowCount(int entry) {
+        int end = entry + 1 < accountCount ? firstRow(entry + 1) : rowCount;
+        return end - firstRow(entry);
+    }
+
+    private long[] cursor(int entry, int varintColumn) {
+        int start = buffer.getInt(accountEntry(entry) + Long.BYTES + Integer.BYTES + varintColumn * Integer.BYTES);
+        return new long[] {sectionOffsets[SegmentFormat.VARINT_SECTIONS[varintColumn]] + start};
+    }
+
+    private String refAt(int row) {
+        int offset = buffer.getInt((int) sectionOffsets[SegmentFormat.REF_OFFSETS] + row * Integer.BYTES);
+        return readString((int) sectionOffsets[SegmentFormat.REFS] + offset);
+    }
+
+    private String readString(int position) {
+        short length = buffer.getShort(position);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
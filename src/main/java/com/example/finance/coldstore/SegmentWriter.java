@@ -0,0 +1,226 @@
+package com.example.finance.coldstore;
+
+import com.example.finance.transactions.ArchivedTransaction;
+import com.example.finance.transactions.Transaction.TransactionStatus;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streams one closed month of transactions into an immutable columnar segment file.
+ * Rows must be appended grouped by account id ascending, ordered by createdAt and id within an account.
+ * A transfer is appended once for each side so every account's history is a contiguous row range.
+ * Each column is spooled to its own temp file and the finished segment is assembled and renamed atomically.
+ */
+public class SegmentWriter implements Closeable {
+
+    private final Path workDir;
+    private final int month;
+    private final DataOutputStream[] columns = new DataOutputStream[SegmentFormat.SECTION_COUNT];
+    private final Path[] columnFiles = new Path[SegmentFormat.SECTION_COUNT];
+    private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+    private final Map<Long, long[]> accountTotals = new HashMap<>();
+
+    private DataOutputStream accountIndex;
+    private long[] refHashes = new long[1024];
+    private int rowCount;
+    private int accountCount;
+    private int refBytes;
+
+    private long currentAccount = -1;
+    private long previousId;
+    private long previousTime;
+
+    public SegmentWriter(Path workDir, int month) throws IOException {
+        this.workDir = Files.createTempDirectory(workDir, "segment-" + month + "-");
+        this.month = month;
+        for (int section : SegmentFormat.SPOOLED_SECTIONS) {
+            columnFiles[section] = this.workDir.resolve("section-" + section);
+            columns[section] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(columnFiles[section]), 1 << 16));
+        }
+    }
+
+    /**
+     * Appends a row to the history of accountId, which must be the row's source or destination account
+     */
+    public void append(long accountId, ArchivedTransaction row) throws IOException {
+        if (accountId != currentAccount) {
+            if (accountId < currentAccount) {
+                throw new IllegalStateException("Rows must be grouped by ascending account id");
+            }
+            startAccount(accountId);
+        }
+        boolean incoming = row.getDestinationAccountId() != null && row.getDestinationAccountId() == accountId;
+        Long counterparty = incoming ? row.getSourceAccountId() : row.getDestinationAccountId();
+        long amountMinor = row.getAmount().movePointRight(2).longValueExact();
+        long time = row.getCreatedAt().toEpochSecond(ZoneOffset.UTC);
+
+        columns[SegmentFormat.META].writeByte(SegmentFormat.meta(row.getType(), row.getStatus(), incoming));
+        columns[SegmentFormat.REF_OFFSETS].writeInt(refBytes);
+        refBytes += writeRef(row.getTransactionRef());
+        VarInts.writeSigned(columns[SegmentFormat.IDS], row.getId() - previousId);
+        VarInts.writeSigned(columns[SegmentFormat.TIMES], time - previousTime);
+        VarInts.writeUnsigned(columns[SegmentFormat.AMOUNTS], amountMinor);
+        VarInts.writeUnsigned(columns[SegmentFormat.COUNTERPARTIES], counterparty == null ? 0 : counterparty);
+        VarInts.writeUnsigned(columns[SegmentFormat.DESCRIPTIONS], dictionaryCode(row.getDescription()));
+
+        if (rowCount == refHashes.length) {
+            refHashes = Arrays.copyOf(refHashes, rowCount * 2);
+        }
+        // Rows without a ref sort last and are left out of the index
+        refHashes[rowCount] = row.getTransactionRef() != null
+            ? SegmentFormat.refIndexEntry(row.getTransactionRef(), rowCount)
+            : Long.MAX_VALUE;
+
+        if (row.getStatus() == TransactionStatus.COMPLETED) {
+            long[] totals = accountTotals.computeIfAbsent(accountId, id -> new long[2]);
+            totals[incoming ? 0 : 1] = Math.addExact(totals[incoming ? 0 : 1], amountMinor);
+        }
+
+        previousId = row.getId();
+        previousTime = time;
+        rowCount++;
+    }
+
+    /**
+     * COMPLETED credits and debits per account in minor units, as {credits, debits}
+     */
+    public Map<Long, long[]> getAccountTotals() {
+        return accountTotals;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Assembles the segment and atomically moves it into place at target
+     */
+    public void finish(Path target) throws IOException {
+        for (DataOutputStream column : columns) {
+            if (column != null) {
+                column.close();
+            }
+        }
+        if (accountIndex != null) {
+            accountIndex.close();
+        }
+
+        Path dictionaryFile = workDir.resolve("dictionary");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dictionaryFile)))) {
+            for (String description : dictionary.keySet()) {
+                byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+        }
+        columnFiles[SegmentFormat.DICTIONARY] = dictionaryFile;
+
+        Path refIndexFile = workDir.resolve("ref-index");
+        long[] sortedRefs = Arrays.copyOf(refHashes, rowCount);
+        Arrays.sort(sortedRefs);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(refIndexFile)))) {
+            for (long entry : sortedRefs) {
+                if (entry != Long.MAX_VALUE) {
+                    out.writeLong(entry);
+                }
+            }
+        }
+        columnFiles[SegmentFormat.REF_INDEX] = refIndexFile;
+        if (accountIndex == null) {
+            columnFiles[SegmentFormat.ACCOUNTS] = Files.createFile(workDir.resolve("accounts-empty"));
+        }
+
+        Path assembling = workDir.resolve("segment.tmp");
+        try (FileChannel out = FileChannel.open(assembling, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(SegmentFormat.HEADER_SIZE);
+            header.putInt(SegmentFormat.MAGIC).putInt(SegmentFormat.VERSION).putInt(month)
+                .putInt(rowCount).putInt(accountCount).putInt(dictionary.size());
+            long offset = SegmentFormat.HEADER_SIZE;
+            for (int section = 0; section < SegmentFormat.SECTION_COUNT; section++) {
+                header.putLong(offset);
+                offset += Files.size(columnFiles[section]);
+            }
+            header.flip();
+            out.write(header);
+            for (int section = 0; section < SegmentFormat.SECTION_COUNT; section++) {
+                try (FileChannel in = FileChannel.open(columnFiles[section], StandardOpenOption.READ)) {
+                    long size = in.size();
+                    long copied = 0;
+                    while (copied < size) {
+                        copied += in.transferTo(copied, size - copied, out);
+                    }
+                }
+            }
+            out.force(true);
+        }
+        Files.move(assembling, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataOutputStream column : columns) {
+            if (column != null) {
+                column.close();
+            }
+        }
+        if (accountIndex != null) {
+            accountIndex.close();
+        }
+        try (var files = Files.list(workDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(workDir);
+    }
+
+    private void startAccount(long accountId) throws IOException {
+        if (accountIndex == null) {
+            columnFiles[SegmentFormat.ACCOUNTS] = workDir.resolve("accounts");
+            accountIndex = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(columnFiles[SegmentFormat.ACCOUNTS])));
+        }
+        // Sparse index entry: where this account's rows start in every column
+        accountIndex.writeLong(accountId);
+        accountIndex.writeInt(rowCount);
+        for (int section : SegmentFormat.VARINT_SECTIONS) {
+            accountIndex.writeInt(columns[section].size());
+        }
+        currentAccount = accountId;
+        previousId = 0;
+        previousTime = 0;
+        accountCount++;
+    }
+
+    private int writeRef(String ref) throws IOException {
+        if (ref == null) {
+            columns[SegmentFormat.REFS].writeShort(-1);
+            return 2;
+        }
+        byte[] bytes = ref.getBytes(StandardCharsets.UTF_8);
+        columns[SegmentFormat.REFS].writeShort(bytes.length);
+        columns[SegmentFormat.REFS].write(bytes);
+        return 2 + bytes.length;
+    }
+
+    private int dictionaryCode(String description) {
+        if (description == null) {
+            return 0;
+        }
+        return dictionary.computeIfAbsent(description, d -> dictionary.size()) + 1;
+    }
+}
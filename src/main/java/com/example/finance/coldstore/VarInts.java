@@ -0,0 +1,53 @@
+package com.example.finance.coldstore;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * LEB128 style variable length encoding shared by the on-disk segment formats
+ */
+public final class VarInts {
+
+    private VarInts() {
+    }
+
+    public static int writeUnsigned(DataOutput out, long value) throws IOException {
+        int written = 1;
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+            written++;
+        }
+        out.writeByte((int) value);
+        return written;
+    }
+
+    public static int writeSigned(DataOutput out, long value) throws IOException {
+        return writeUnsigned(out, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Reads an unsigned varint at the cursor position and advances the cursor
+     */
+    public static long readUnsigned(ByteBuffer buffer, long[] cursor) {
+        long result = 0;
+        int shift = 0;
+        int position = (int) cursor[0];
+        while (true) {
+            byte b = buffer.get(position++);
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+            shift += 7;
+        }
+        cursor[0] = position;
+        return result;
+    }
+
+    public static long readSigned(ByteBuffer buffer, long[] cursor) {
+        long raw = readUnsigned(buffer, cursor);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+}
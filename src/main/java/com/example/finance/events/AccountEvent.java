@@ -0,0 +1,10 @@
+package com.example.finance.events;
+
+/**
+ * One update for the subscribers of an account, sent as an SSE event named after its type
+ */
+public record AccountEvent(long accountId, String type, Object data) {
+
+    public static final String BALANCE = "balance";
+    public static final String TRANSACTION = "transaction";
+}
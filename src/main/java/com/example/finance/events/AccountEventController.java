@@ -0,0 +1,58 @@
+package com.example.finance.events;
+
+import com.example.finance.accounts.Account;
+import com.example.finance.accounts.AccountRepository;
+import com.example.finance.accounts.AccountService;
+import com.example.finance.auth.JwtUtil;
+import com.example.finance.exceptions.AccountNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/accounts")
+public class AccountEventController {
+
+    private final AccountEventDispatcher dispatcher;
+    private final AccountRepository accountRepository;
+    private final AccountService accountService;
+    private final JwtUtil jwtUtil;
+
+    public AccountEventController(AccountEventDispatcher dispatcher, AccountRepository accountRepository,
+                                  AccountService accountService, JwtUtil jwtUtil) {
+        this.dispatcher = dispatcher;
+        this.accountRepository = accountRepository;
+        this.accountService = accountService;
+        this.jwtUtil = jwtUtil;
+    }
+
+    // Helper method to extract userId from JWT
+    private Long getUserIdFromToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            throw new RuntimeException("Missing or invalid Authorization header");
+        }
+        String token = header.substring(7); // remove "Bearer "
+        return Long.parseLong(jwtUtil.extractUserId(token));
+    }
+
+    /**
+     * Streams balance and transaction events of the account, starting with its current balance.
+     * Ownership is checked once here, the open stream is not re-authorized.
+     */
+    @GetMapping(value = "/{accountNumber}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@PathVariable String accountNumber, HttpServletRequest request) {
+        Long userId = getUserIdFromToken(request);
+        accountService.validateAccountOwnership(accountNumber, userId);
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+            .orElseThrow(() -> new AccountNotFoundException("Account with number " + accountNumber + " not found"));
+
+        AccountEvent snapshot = new AccountEvent(account.getId(), AccountEvent.BALANCE,
+            new BalanceEventDto(account.getAccountNumber(), account.getBalance().toBigDecimal(), account.getVersion()));
+        return dispatcher.subscribe(account.getId(), snapshot);
+    }
+}
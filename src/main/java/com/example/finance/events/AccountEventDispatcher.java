@@ -0,0 +1,124 @@
+package com.example.finance.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans committed account events out to SSE subscribers from a single dispatcher thread.
+ * Publishing only offers to a bounded queue, so the write path never waits on subscribers, and a
+ * subscriber whose own buffer is full is disconnected rather than slowing everyone else down.
+ */
+@Component
+public class AccountEventDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountEventDispatcher.class);
+
+    private final ConcurrentHashMap<Long, Set<AccountSubscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final BlockingQueue<AccountEvent> queue;
+    private final Counter droppedEvents;
+    private final Counter droppedSubscribers;
+    private volatile Thread dispatcher;
+
+    @Value("${finance.events.subscriber-buffer:64}")
+    private int subscriberBuffer;
+
+    @Value("${finance.events.heartbeat-ms:15000}")
+    private long heartbeatMillis;
+
+    @Value("${finance.events.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    public AccountEventDispatcher(MeterRegistry meterRegistry, @Value("${finance.events.queue-capacity:65536}") int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.droppedEvents = Counter.builder("finance.events.dropped").register(meterRegistry);
+        this.droppedSubscribers = Counter.builder("finance.events.subscribers.dropped").register(meterRegistry);
+        Gauge.builder("finance.events.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("finance.events.queue", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        dispatcher = Thread.ofPlatform().name("account-event-dispatcher").daemon(true).start(this::dispatch);
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.interrupt();
+        subscriptions.values().forEach(subscribers -> subscribers.forEach(AccountSubscription::close));
+    }
+
+    /**
+     * Queues an event for fan-out, dropping it if the dispatcher has fallen behind
+     */
+    public void publish(AccountEvent event) {
+        if (!subscriptions.containsKey(event.accountId())) {
+            return;
+        }
+        if (!queue.offer(event)) {
+            droppedEvents.increment();
+        }
+    }
+
+    /**
+     * Opens a stream for the account that starts with the given snapshot event
+     */
+    public SseEmitter subscribe(long accountId, AccountEvent snapshot) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        AccountSubscription subscription = new AccountSubscription(accountId, emitter, subscriberBuffer, heartbeatMillis, this);
+        subscription.offer(snapshot);
+        // Added inside the map operation, so a concurrent unsubscribe cannot drop the set before the add lands
+        subscriptions.compute(accountId, (id, subscribers) -> {
+            Set<AccountSubscription> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(subscription);
+            return set;
+        });
+        subscriberCount.incrementAndGet();
+        subscription.start();
+        return emitter;
+    }
+
+    void unsubscribe(AccountSubscription subscription) {
+        subscriptions.computeIfPresent(subscription.getAccountId(), (id, subscribers) -> {
+            if (subscribers.remove(subscription)) {
+                subscriberCount.decrementAndGet();
+            }
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private void dispatch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            AccountEvent event;
+            try {
+                event = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            Set<AccountSubscription> subscribers = subscriptions.get(event.accountId());
+            if (subscribers == null) {
+                continue;
+            }
+            for (AccountSubscription subscription : subscribers) {
+                if (!subscription.offer(event) && subscription.close()) {
+                    droppedSubscribers.increment();
+                    log.debug("Dropped slow SSE subscriber of account {}", event.accountId());
+                }
+            }
+        }
+    }
+}
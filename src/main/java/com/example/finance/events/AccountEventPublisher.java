@@ -0,0 +1,44 @@
+package com.example.finance.events;
+
+import com.example.finance.accounts.Account;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Publishes account events once the surrounding transaction commits, so subscribers never see a
+ * posting that is later rolled back
+ */
+@Component
+public class AccountEventPublisher {
+
+    private final AccountEventDispatcher dispatcher;
+
+    public AccountEventPublisher(AccountEventDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Announces a posting and the resulting balance of each account it touched
+     */
+    public void publishPostingAfterCommit(Object transaction, Account... accounts) {
+        Runnable publish = () -> {
+            for (Account account : accounts) {
+                // Read at commit time, when the balance and version reflect the flushed update
+                dispatcher.publish(new AccountEvent(account.getId(), AccountEvent.BALANCE,
+                    new BalanceEventDto(account.getAccountNumber(), account.getBalance().toBigDecimal(), account.getVersion())));
+                dispatcher.publish(new AccountEvent(account.getId(), AccountEvent.TRANSACTION, transaction));
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.finance.events;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One SSE connection. The dispatcher only ever offers to the bounded buffer; a virtual thread per
+ * subscription drains it into the emitter, so a slow client blocks nothing but its own thread.
+ */
+public class AccountSubscription {
+
+    private final long accountId;
+    private final SseEmitter emitter;
+    private final BlockingQueue<AccountEvent> buffer;
+    private final long heartbeatMillis;
+    private final AccountEventDispatcher dispatcher;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private Thread writer;
+
+    AccountSubscription(long accountId, SseEmitter emitter, int bufferSize, long heartbeatMillis, AccountEventDispatcher dispatcher) {
+        this.accountId = accountId;
+        this.emitter = emitter;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.heartbeatMillis = heartbeatMillis;
+        this.dispatcher = dispatcher;
+    }
+
+    long getAccountId() {
+        return accountId;
+    }
+
+    void start() {
+        emitter.onCompletion(this::close);
+        emitter.onTimeout(this::close);
+        emitter.onError(error -> close());
+        writer = Thread.ofVirtual().name("sse-account-" + accountId).start(this::drain);
+    }
+
+    /**
+     * Queues an event without blocking, returns false if the buffer is full
+     */
+    public boolean offer(AccountEvent event) {
+        return !closed.get() && buffer.offer(event);
+    }
+
+    /**
+     * Disconnects the subscriber, returns false if it was already closed
+     */
+    boolean close() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        dispatcher.unsubscribe(this);
+        if (writer != null) {
+            writer.interrupt();
+        }
+        emitter.complete();
+        return true;
+    }
+
+    private void drain() {
+        try {
+            while (!closed.get()) {
+                AccountEvent event = buffer.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    // Keeps proxies from timing out the connection and finds dead clients
+                    emitter.send(SseEmitter.event().comment("keepalive"));
+                } else {
+                    emitter.send(SseEmitter.event().name(event.type()).data(event.data(), MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+        } finally {
+            close();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.finance.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class BalanceEventDto {
+    private String accountNumber;
+    private BigDecimal balance;
+    // Account version, lets clients discard an update older than one they already have
+    private Long version;
+}
@@ -0,0 +1,7 @@
+package com.example.finance.exceptions;
+
+public class AccountBusyException extends RuntimeException {
+    public AccountBusyException(String message) {
+        super(message);
+    }
+}
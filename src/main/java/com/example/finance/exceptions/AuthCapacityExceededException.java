@@ -0,0 +1,7 @@
+package com.example.finance.exceptions;
+
+public class AuthCapacityExceededException extends RuntimeException {
+    public AuthCapacityExceededException(String message) {
+        super(message);
+    }
+}
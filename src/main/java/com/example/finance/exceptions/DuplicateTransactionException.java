@@ -0,0 +1,7 @@
+package com.example.finance.exceptions;
+
+public class DuplicateTransactionException extends RuntimeException {
+    public DuplicateTransactionException(String message) {
+        super(message);
+    }
+}
@@ -2,8 +2,10 @@ package com.example.finance.exceptions;
 
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
@@ -25,6 +27,36 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", ex.getMessage()));
     }
     
+    @ExceptionHandler(LimitProfileNotFoundException.class)
+    public ResponseEntity<?> handleLimitProfileNotFoundException(LimitProfileNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", ex.getMessage()));
+    }
+    
+    @ExceptionHandler(ScheduledTransferNotFoundException.class)
+    public ResponseEntity<?> handleScheduledTransferNotFoundException(ScheduledTransferNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", ex.getMessage()));
+    }
+    
+    @ExceptionHandler(TransactionImportNotFoundException.class)
+    public ResponseEntity<?> handleTransactionImportNotFoundException(TransactionImportNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", ex.getMessage()));
+    }
+    
+    @ExceptionHandler(InvalidScheduleException.class)
+    public ResponseEntity<?> handleInvalidScheduleException(InvalidScheduleException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", ex.getMessage()));
+    }
+    
+    @ExceptionHandler(InvalidSummaryPeriodException.class)
+    public ResponseEntity<?> handleInvalidSummaryPeriodException(InvalidSummaryPeriodException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", ex.getMessage()));
+    }
+    
+    @ExceptionHandler(InvalidSearchCursorException.class)
+    public ResponseEntity<?> handleInvalidSearchCursorException(InvalidSearchCursorException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", ex.getMessage()));
+    }
+    
     @ExceptionHandler(AccountSuspendedException.class)
     public ResponseEntity<?> handleAccountSuspendedException(AccountSuspendedException ex) {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", ex.getMessage()));
@@ -35,9 +67,38 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", ex.getMessage()));
     }
     
+    @ExceptionHandler(VelocityLimitExceededException.class)
+    public ResponseEntity<?> handleVelocityLimitExceededException(VelocityLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", ex.getMessage()));
+    }
+    
     @ExceptionHandler(MaximumTransferLimitExceededException.class)
     public ResponseEntity<?> handleMaximumTransferLimitExceededException(MaximumTransferLimitExceededException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", ex.getMessage()));
     }
     
+    @ExceptionHandler(DuplicateTransactionException.class)
+    public ResponseEntity<?> handleDuplicateTransactionException(DuplicateTransactionException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
+    }
+    
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleOptimisticLockingFailureException(ObjectOptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "The account was changed by another request, please retry"));
+    }
+    
+    @ExceptionHandler(AccountBusyException.class)
+    public ResponseEntity<?> handleAccountBusyException(AccountBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(Map.of("error", ex.getMessage()));
+    }
+    
+    @ExceptionHandler(AuthCapacityExceededException.class)
+    public ResponseEntity<?> handleAuthCapacityExceededException(AuthCapacityExceededException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(Map.of("error", ex.getMessage()));
+    }
+    
 }
@@ -0,0 +1,7 @@
+package com.example.finance.exceptions;
+
+public class InvalidScheduleException extends RuntimeException {
+    public InvalidScheduleException(String message) {
+        super(message);
+    }
+}
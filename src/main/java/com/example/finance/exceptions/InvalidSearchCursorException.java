@@ -0,0 +1,7 @@
+package com.example.finance.exceptions;
+
+public class InvalidSearchCursorException extends RuntimeException {
+    public InvalidSearchCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.finance.exceptions;
+
+public class InvalidSummaryPeriodException extends RuntimeException {
+    public InvalidSummaryPeriodException(String message) {
+        super(message);
+    }
+}
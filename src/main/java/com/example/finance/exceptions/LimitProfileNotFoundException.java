@@ -0,0 +1,7 @@
+package com.example.finance.exceptions;
+
+public class LimitProfileNotFoundException extends RuntimeException {
+    public LimitProfileNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.finance.exceptions;
+
+public class ScheduledTransferNotFoundException extends RuntimeException {
+    public ScheduledTransferNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.finance.exceptions;
+
+public class TransactionImportNotFoundException extends RuntimeException {
+    public TransactionImportNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.finance.exceptions;
+
+public class VelocityLimitExceededException extends RuntimeException {
+    public VelocityLimitExceededException(String message) {
+        super(message);
+    }
+}
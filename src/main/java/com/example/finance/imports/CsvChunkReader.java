@@ -0,0 +1,102 @@
+package com.example.finance.imports;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a file line by line through a fixed direct buffer, tracking the byte offset after each line so a
+ * reader can be reopened exactly where a previous one stopped. Lines end with LF, an optional CR before it
+ * is dropped; lines are decoded as UTF-8.
+ */
+final class CsvChunkReader implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private long offset;
+    private long lineNumber;
+    private boolean endOfFile;
+
+    CsvChunkReader(Path file, long startOffset, long startLine, int bufferSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.channel.position(startOffset);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.buffer.flip();
+        this.offset = startOffset;
+        this.lineNumber = startLine;
+    }
+
+    /**
+     * Up to maxLines lines, empty once the file is exhausted
+     */
+    Chunk next(int maxLines) throws IOException {
+        List<String> lines = new ArrayList<>(maxLines);
+        long firstLine = lineNumber;
+        while (lines.size() < maxLines) {
+            String read = readLine();
+            if (read == null) {
+                break;
+            }
+            lines.add(read);
+        }
+        return new Chunk(firstLine, lines, offset, lineNumber);
+    }
+
+    private String readLine() throws IOException {
+        lineLength = 0;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                if (endOfFile || !fill()) {
+                    // A last line without a trailing newline still counts
+                    return lineLength > 0 ? finishLine(0) : null;
+                }
+            }
+            byte next = buffer.get();
+            if (next == '\n') {
+                return finishLine(1);
+            }
+            if (lineLength == line.length) {
+                line = Arrays.copyOf(line, line.length * 2);
+            }
+            line[lineLength++] = next;
+        }
+    }
+
+    private String finishLine(int terminatorLength) {
+        offset += lineLength + terminatorLength;
+        lineNumber++;
+        int length = lineLength > 0 && line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read = channel.read(buffer);
+        buffer.flip();
+        if (read < 0) {
+            endOfFile = true;
+            return false;
+        }
+        return read > 0 || fill();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Lines starting at firstLine; nextOffset and nextLine are where the following chunk starts
+     */
+    record Chunk(long firstLine, List<String> lines, long nextOffset, long nextLine) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.finance.imports;
+
+import com.example.finance.money.Money;
+import com.example.finance.transactions.Transaction.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One parsed line of an import file. Parsing checks everything that does not need the database;
+ * a row that fails carries its error and is reported instead of posted.
+ * <pre>
+ * type,source_account,destination_account,amount,description,transaction_ref
+ * TRANSFER,ACC1001,ACC1002,25.00,"Rent, March",REF-0001
+ * </pre>
+ * Fields may be double-quoted, with "" for a quote inside. Description and transaction_ref are optional.
+ */
+record ImportRow(long lineNumber, TransactionType type, String sourceAccountNumber, String destinationAccountNumber,
+                 Money amount, String description, String transactionRef, String error) {
+
+    static final String HEADER = "type,source_account,destination_account,amount,description,transaction_ref";
+    private static final int FIELDS = 6;
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+    private static final int MAX_REF_LENGTH = 50;
+
+    boolean isValid() {
+        return error == null;
+    }
+
+    static ImportRow parse(long lineNumber, String line) {
+        List<String> fields = split(line);
+        if (fields == null) {
+            return failed(lineNumber, "Unterminated quoted field");
+        }
+        if (fields.size() < FIELDS - 2 || fields.size() > FIELDS) {
+            return failed(lineNumber, "Expected " + FIELDS + " fields but found " + fields.size());
+        }
+        TransactionType type;
+        try {
+            type = TransactionType.valueOf(fields.get(0).trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return failed(lineNumber, "Unknown transaction type " + fields.get(0).trim());
+        }
+        String source = emptyToNull(fields.get(1));
+        String destination = emptyToNull(fields.get(2));
+        if (type != TransactionType.DEPOSIT && source == null) {
+            return failed(lineNumber, type + " requires a source account");
+        }
+        if (type != TransactionType.WITHDRAW && destination == null) {
+            return failed(lineNumber, type + " requires a destination account");
+        }
+        if (type == TransactionType.DEPOSIT) {
+            source = null;
+        } else if (type == TransactionType.WITHDRAW) {
+            destination = null;
+        } else if (source.equals(destination)) {
+            return failed(lineNumber, "Source and destination accounts must differ");
+        }
+
+        Money amount;
+        try {
+            amount = Money.of(new BigDecimal(fields.get(3).trim()));
+        } catch (NumberFormatException e) {
+            return failed(lineNumber, "Amount " + fields.get(3).trim() + " is not a number");
+        } catch (ArithmeticException e) {
+            return failed(lineNumber, "Amount " + fields.get(3).trim() + " must have at most two decimal places");
+        }
+        if (!amount.isPositive()) {
+            return failed(lineNumber, "Amount must be positive");
+        }
+
+        String description = fields.size() > 4 ? emptyToNull(fields.get(4)) : null;
+        if (description != null && description.length() > MAX_DESCRIPTION_LENGTH) {
+            return failed(lineNumber, "Description is longer than " + MAX_DESCRIPTION_LENGTH + " characters");
+        }
+        String transactionRef = fields.size() > 5 ? emptyToNull(fields.get(5)) : null;
+        if (transactionRef != null && transactionRef.length() > MAX_REF_LENGTH) {
+            return failed(lineNumber, "Transaction reference is longer than " + MAX_REF_LENGTH + " characters");
+        }
+        return new ImportRow(lineNumber, type, source, destination, amount, description, transactionRef, null);
+    }
+
+    static ImportRow failed(long lineNumber, String error) {
+        return new ImportRow(lineNumber, null, null, null, null, null, null, error);
+    }
+
+    /**
+     * Splits on commas outside double quotes, null for an unterminated quote
+     */
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>(FIELDS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String emptyToNull(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
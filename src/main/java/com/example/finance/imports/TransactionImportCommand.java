@@ -0,0 +1,47 @@
+package com.example.finance.imports;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Command line import, enabled by finance.import.file. Imports the file, then exits with 0 once it is
+ * COMPLETED and 1 otherwise; running it again on the same file resumes an unfinished import.
+ * <pre>
+ * java -jar finance.jar --spring.main.web-application-type=none --finance.import.file=postings.csv
+ * </pre>
+ */
+@Component
+@ConditionalOnProperty("finance.import.file")
+public class TransactionImportCommand implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionImportCommand.class);
+
+    private final TransactionImportService transactionImportService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${finance.import.file}")
+    private String file;
+
+    public TransactionImportCommand(TransactionImportService transactionImportService, ConfigurableApplicationContext context) {
+        this.transactionImportService = transactionImportService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        TransactionImportDto result = transactionImportService.importFile(Path.of(file));
+        log.info("Import {} of {}: {}, {} rows posted, {} rows rejected{}", result.getId(), file, result.getStatus(),
+            result.getPostedRows(), result.getFailedRows(), result.getError() == null ? "" : ", " + result.getError());
+        int exitCode = "COMPLETED".equals(result.getStatus()) ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+}
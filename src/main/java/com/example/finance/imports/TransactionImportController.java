@@ -0,0 +1,59 @@
+package com.example.finance.imports;
+
+import com.example.finance.auth.JwtUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/imports")
+public class TransactionImportController {
+
+    private final TransactionImportService transactionImportService;
+    private final JwtUtil jwtUtil;
+
+    public TransactionImportController(TransactionImportService transactionImportService, JwtUtil jwtUtil) {
+        this.transactionImportService = transactionImportService;
+        this.jwtUtil = jwtUtil;
+    }
+
+    // Helper method to extract userId from JWT
+    private Long getUserIdFromToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            throw new RuntimeException("Missing or invalid Authorization header");
+        }
+        return Long.parseLong(jwtUtil.extractUserId(header.substring(7)));
+    }
+
+    /**
+     * Takes the CSV file as the raw request body, streamed to disk, and answers before it is posted
+     */
+    @PostMapping(consumes = {"text/csv", "application/octet-stream"})
+    public ResponseEntity<TransactionImportDto> upload(@RequestParam(defaultValue = "import.csv") String fileName,
+                                                       HttpServletRequest httpRequest) throws IOException {
+        Long userId = getUserIdFromToken(httpRequest);
+        return ResponseEntity.accepted().body(transactionImportService.upload(userId, fileName, httpRequest.getInputStream()));
+    }
+
+    @GetMapping("/{id}")
+    public TransactionImportDto get(@PathVariable Long id, HttpServletRequest httpRequest) {
+        return transactionImportService.get(getUserIdFromToken(httpRequest), id);
+    }
+
+    @GetMapping("/{id}/errors")
+    public List<TransactionImportErrorDto> getErrors(@PathVariable Long id,
+                                                     @RequestParam(defaultValue = "0") long afterLine,
+                                                     @RequestParam(defaultValue = "100") int limit,
+                                                     HttpServletRequest httpRequest) {
+        return transactionImportService.getErrors(getUserIdFromToken(httpRequest), id, afterLine, limit);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.finance.imports;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class TransactionImportDto {
+    private Long id;
+    private String fileName;
+    private String status;
+    private Long fileSize;
+    private Long bytesProcessed;
+    private Long nextLine;
+    private Long postedRows;
+    private Long failedRows;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
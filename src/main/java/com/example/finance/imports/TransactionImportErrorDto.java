@@ -0,0 +1,9 @@
+package com.example.finance.imports;
+
+import lombok.Data;
+
+@Data
+public class TransactionImportErrorDto {
+    private Long lineNumber;
+    private String message;
+}
@@ -0,0 +1,769 @@
+package com.example.finance.imports;
+
+import com.example.finance.coldstore.ColdStore;
+import com.example.finance.exceptions.TransactionImportNotFoundException;
+import com.example.finance.exceptions.VelocityLimitExceededException;
+import com.example.finance.limits.LimitResolver;
+import com.example.finance.limits.TypeLimits;
+import com.example.finance.money.Money;
+import com.example.finance.outbox.OutboxWriter;
+import com.example.finance.textsearch.DescriptionIndex;
+import com.example.finance.transactions.Transaction.TransactionStatus;
+import com.example.finance.transactions.Transaction.TransactionType;
+import com.example.finance.transactions.TransactionDto;
+import com.example.finance.transactions.TransactionRollupService;
+import com.example.finance.transactions.TransactionRollupService.PostingLeg;
+import com.example.finance.velocity.VelocityEngine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk posting of transactions from CSV files.
+ * A file is streamed in chunks of lines; while one chunk is posted the next is already parsed and validated
+ * in parallel on the validation pool. Each chunk is posted in a single database transaction: its accounts
+ * are resolved and locked with one IN query, its rows are applied in file order against the locked balances,
+ * and the resulting transactions, balance changes, rollups, outbox events, rejected rows and the import's
+ * next byte offset are written with JDBC batching. A restarted import continues at that offset.
+ * <p>
+ * Imported rows are checked for account status, ownership, balance, duplicate references and the maximum
+ * per transaction. Files uploaded by users are also checked against the daily limits, whose rows are locked
+ * with the chunk's accounts and updated with the rows posted, and against the velocity rules, so an upload
+ * passes the same controls as the same postings made one by one. Files imported from the command line are
+ * trusted operator input and skip both.
+ */
+@Service
+public class TransactionImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionImportService.class);
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private static final RowMapper<TransactionImportDto> IMPORT_ROW = (rs, rowNum) -> {
+        TransactionImportDto dto = new TransactionImportDto();
+        dto.setId(rs.getLong("id"));
+        dto.setFileName(rs.getString("file_name"));
+        dto.setStatus(rs.getString("status"));
+        dto.setFileSize(rs.getLong("file_size"));
+        dto.setBytesProcessed(rs.getLong("next_offset"));
+        dto.setNextLine(rs.getLong("next_line"));
+        dto.setPostedRows(rs.getLong("posted_rows"));
+        dto.setFailedRows(rs.getLong("failed_rows"));
+        dto.setError(rs.getString("error"));
+        dto.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        Timestamp completedAt = rs.getTimestamp("completed_at");
+        dto.setCompletedAt(completedAt == null ? null : completedAt.toLocalDateTime());
+        return dto;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LimitResolver limitResolver;
+    private final TransactionRollupService transactionRollupService;
+    private final OutboxWriter outboxWriter;
+    private final DescriptionIndex descriptionIndex;
+    private final ColdStore coldStore;
+    private final VelocityEngine velocityEngine;
+    private final Path directory;
+    private final Counter postedRows;
+    private final Counter failedRows;
+    private final Timer chunkTimer;
+    private ExecutorService worker;
+    private ExecutorService validationPool;
+    private int threads;
+
+    @Value("${finance.import.chunk-size:2000}")
+    private int chunkSize;
+
+    @Value("${finance.import.validation-threads:0}")
+    private int validationThreads;
+
+    @Value("${finance.import.read-buffer-kb:256}")
+    private int readBufferKb;
+
+    public TransactionImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                    LimitResolver limitResolver, TransactionRollupService transactionRollupService,
+                                    OutboxWriter outboxWriter, DescriptionIndex descriptionIndex, ColdStore coldStore,
+                                    VelocityEngine velocityEngine, MeterRegistry meterRegistry,
+                                    @Value("${finance.import.directory:./data/imports}") String directory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.limitResolver = limitResolver;
+        this.transactionRollupService = transactionRollupService;
+        this.outboxWriter = outboxWriter;
+        this.descriptionIndex = descriptionIndex;
+        this.coldStore = coldStore;
+        this.velocityEngine = velocityEngine;
+        this.directory = Path.of(directory);
+        this.postedRows = Counter.builder("finance.imports.rows").tag("result", "posted").register(meterRegistry);
+        this.failedRows = Counter.builder("finance.imports.rows").tag("result", "failed").register(meterRegistry);
+        this.chunkTimer = Timer.builder("finance.imports.chunk").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(directory);
+        threads = validationThreads > 0 ? validationThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger validatorIds = new AtomicInteger();
+        validationPool = Executors.newFixedThreadPool(threads,
+            task -> Thread.ofPlatform().name("import-validator-" + validatorIds.incrementAndGet()).daemon(true).unstarted(task));
+        // Imports run one at a time so their chunks never contend for the same account locks
+        worker = Executors.newSingleThreadExecutor(task -> Thread.ofPlatform().name("import-worker").daemon(true).unstarted(task));
+
+        List<Long> unfinished = jdbcTemplate.queryForList(
+            "SELECT id FROM transaction_imports WHERE status = 'RUNNING' ORDER BY id", Long.class);
+        for (Long importId : unfinished) {
+            log.info("Resuming transaction import {}", importId);
+            worker.submit(() -> run(importId));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        // An interrupted import stays RUNNING at its last committed chunk and resumes on the next start
+        worker.shutdownNow();
+        validationPool.shutdownNow();
+    }
+
+    /**
+     * Stores the uploaded file and queues its import for the user
+     */
+    public TransactionImportDto upload(Long userId, String fileName, InputStream content) throws IOException {
+        Path file = directory.resolve("import-" + UUID.randomUUID() + ".csv");
+        try {
+            Files.copy(content, file);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        long importId = createImport(userId, fileName, file);
+        worker.submit(() -> run(importId));
+        return get(userId, importId);
+    }
+
+    /**
+     * Imports a local file without an owner check and waits for it, continuing an unfinished import of the
+     * same file instead of starting over
+     */
+    public TransactionImportDto importFile(Path file) throws InterruptedException, ExecutionException {
+        Path absolute = file.toAbsolutePath().normalize();
+        List<Long> unfinished = jdbcTemplate.queryForList(
+            "SELECT id FROM transaction_imports WHERE user_id IS NULL AND file_path = ? AND status = 'RUNNING' ORDER BY id DESC LIMIT 1",
+            Long.class, absolute.toString());
+        long importId = unfinished.isEmpty() ? createImport(null, absolute.getFileName().toString(), absolute) : unfinished.get(0);
+        worker.submit(() -> run(importId)).get();
+        return find(importId);
+    }
+
+    public TransactionImportDto get(Long userId, Long importId) {
+        List<TransactionImportDto> found = jdbcTemplate.query(
+            "SELECT * FROM transaction_imports WHERE id = ? AND user_id = ?", IMPORT_ROW, importId, userId);
+        if (found.isEmpty()) {
+            throw new TransactionImportNotFoundException("Transaction import " + importId + " not found");
+        }
+        return found.get(0);
+    }
+
+    /**
+     * Rejected rows in line order, a page at a time
+     */
+    public List<TransactionImportErrorDto> getErrors(Long userId, Long importId, long afterLine, int limit) {
+        get(userId, importId);
+        return jdbcTemplate.query(
+            "SELECT line_number, message FROM transaction_import_errors WHERE import_id = ? AND line_number > ? " +
+            "ORDER BY line_number LIMIT ?",
+            (rs, rowNum) -> {
+                TransactionImportErrorDto dto = new TransactionImportErrorDto();
+                dto.setLineNumber(rs.getLong("line_number"));
+                dto.setMessage(rs.getString("message"));
+                return dto;
+            },
+            importId, afterLine, Math.min(Math.max(limit, 1), 1000));
+    }
+
+    private TransactionImportDto find(long importId) {
+        List<TransactionImportDto> found = jdbcTemplate.query(
+            "SELECT * FROM transaction_imports WHERE id = ?", IMPORT_ROW, importId);
+        if (found.isEmpty()) {
+            throw new TransactionImportNotFoundException("Transaction import " + importId + " not found");
+        }
+        return found.get(0);
+    }
+
+    private long createImport(Long userId, String fileName, Path file) {
+        long fileSize;
+        try {
+            fileSize = Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read import file " + file, e);
+        }
+        KeyHolder key = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO transaction_imports (user_id, file_name, file_path, file_size) VALUES (?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS);
+            ps.setObject(1, userId);
+            ps.setString(2, truncate(fileName));
+            ps.setString(3, file.toAbsolutePath().normalize().toString());
+            ps.setLong(4, fileSize);
+            return ps;
+        }, key);
+        return key.getKey().longValue();
+    }
+
+    void run(long importId) {
+        ImportJob job = jdbcTemplate.queryForObject(
+            "SELECT id, user_id, file_path, status, next_offset, next_line FROM transaction_imports WHERE id = ?",
+            (rs, rowNum) -> new ImportJob(rs.getLong("id"), rs.getObject("user_id", Long.class), Path.of(rs.getString("file_path")),
+                rs.getString("status"), rs.getLong("next_offset"), rs.getLong("next_line")),
+            importId);
+        if (!"RUNNING".equals(job.status)) {
+            return;
+        }
+        long started = System.nanoTime();
+        try (CsvChunkReader reader = new CsvChunkReader(job.file, job.nextOffset, job.nextLine, readBufferKb << 10)) {
+            long offset = job.nextOffset;
+            CsvChunkReader.Chunk chunk = reader.next(chunkSize);
+            List<Future<List<ImportRow>>> parsed = validate(chunk);
+            while (!chunk.lines().isEmpty()) {
+                // Read and validate the next chunk while this one is posted
+                CsvChunkReader.Chunk next = reader.next(chunkSize);
+                List<Future<List<ImportRow>>> parsedNext = validate(next);
+                post(job, offset, join(parsed), chunk);
+                offset = chunk.nextOffset();
+                chunk = next;
+                parsed = parsedNext;
+            }
+            jdbcTemplate.update(
+                "UPDATE transaction_imports SET status = 'COMPLETED', error = NULL, completed_at = CURRENT_TIMESTAMP WHERE id = ?", importId);
+            log.info("Transaction import {} completed in {} ms", importId, (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | InvalidImportException e) {
+            // The file itself is unusable, resuming would not help
+            jdbcTemplate.update(
+                "UPDATE transaction_imports SET status = 'FAILED', error = ?, completed_at = CURRENT_TIMESTAMP WHERE id = ?",
+                truncate(e.getMessage()), importId);
+            log.warn("Transaction import {} failed: {}", importId, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            jdbcTemplate.update("UPDATE transaction_imports SET error = ? WHERE id = ?", truncate(String.valueOf(cause)), importId);
+            log.error("Transaction import {} stopped, it resumes from its last committed chunk on the next start", importId, cause);
+        }
+    }
+
+    private static List<ImportRow> join(List<Future<List<ImportRow>>> slices) throws InterruptedException, ExecutionException {
+        List<ImportRow> rows = new ArrayList<>();
+        for (Future<List<ImportRow>> slice : slices) {
+            try {
+                rows.addAll(slice.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof InvalidImportException invalid) {
+                    throw invalid;
+                }
+                throw e;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Parses a chunk in contiguous slices on the validation pool, in line order
+     */
+    private List<Future<List<ImportRow>>> validate(CsvChunkReader.Chunk chunk) {
+        List<String> lines = chunk.lines();
+        List<Future<List<ImportRow>>> slices = new ArrayList<>();
+        int sliceSize = Math.max(64, (lines.size() + threads - 1) / threads);
+        for (int from = 0; from < lines.size(); from += sliceSize) {
+            int start = from;
+            int end = Math.min(from + sliceSize, lines.size());
+            slices.add(validationPool.submit(() -> {
+                List<ImportRow> rows = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++) {
+                    long lineNumber = chunk.firstLine() + i;
+                    if (lineNumber == 1) {
+                        if (!ImportRow.HEADER.equalsIgnoreCase(lines.get(i).replace("\uFEFF", "").replace(" ", ""))) {
+                            throw new InvalidImportException("The first line must be the header " + ImportRow.HEADER);
+                        }
+                        continue;
+                    }
+                    if (!lines.get(i).isBlank()) {
+                        rows.add(ImportRow.parse(lineNumber, lines.get(i)));
+                    }
+                }
+                return rows;
+            }));
+        }
+        return slices;
+    }
+
+    private void post(ImportJob job, long offset, List<ImportRow> rows, CsvChunkReader.Chunk chunk) {
+        long started = System.nanoTime();
+        int[] outcome = transactionTemplate.execute(status -> {
+            // Guards against a second runner of the same import, e.g. on another instance
+            Long current = jdbcTemplate.queryForObject(
+                "SELECT next_offset FROM transaction_imports WHERE id = ? AND status = 'RUNNING' FOR UPDATE", Long.class, job.id);
+            if (current == null || current != offset) {
+                throw new IllegalStateException("Transaction import " + job.id + " was advanced by another runner");
+            }
+
+            Map<String, ImportAccount> accounts = lockAccounts(rows);
+            Map<DailyKey, DailyUsage> dailyUsage = job.userId == null ? null : lockDailyLimits(rows, accounts);
+            Set<String> existingRefs = existingRefs(rows);
+            Set<String> chunkRefs = new HashSet<>();
+            List<TransactionDto> postings = new ArrayList<>(rows.size());
+            List<ImportRow> rejected = new ArrayList<>();
+            for (ImportRow row : rows) {
+                String error = row.isValid() ? apply(job, row, accounts, dailyUsage, existingRefs, chunkRefs, postings) : row.error();
+                if (error != null) {
+                    rejected.add(ImportRow.failed(row.lineNumber(), error));
+                }
+            }
+
+            insertTransactions(job, postings);
+            updateBalances(accounts);
+            updateDailyLimits(dailyUsage);
+            recordRollups(postings);
+            if (!postings.isEmpty()) {
+                for (TransactionDto posted : postings) {
+                    descriptionIndex.indexAfterCommit(posted.getId(), posted.getSourceAccountId(),
+                        posted.getDestinationAccountId(), posted.getDescription());
+                }
+                outboxWriter.recordCompleted(postings);
+            }
+            if (!rejected.isEmpty()) {
+                jdbcTemplate.batchUpdate(
+                    "INSERT INTO transaction_import_errors (import_id, line_number, message) VALUES (?, ?, ?)",
+                    rejected, rejected.size(), (ps, row) -> {
+                        ps.setLong(1, job.id);
+                        ps.setLong(2, row.lineNumber());
+                        ps.setString(3, truncate(row.error()));
+                    });
+            }
+            jdbcTemplate.update(
+                "UPDATE transaction_imports SET next_offset = ?, next_line = ?, posted_rows = posted_rows + ?, " +
+                "failed_rows = failed_rows + ? WHERE id = ?",
+                chunk.nextOffset(), chunk.nextLine(), postings.size(), rejected.size(), job.id);
+            return new int[] {postings.size(), rejected.size()};
+        });
+        postedRows.increment(outcome[0]);
+        failedRows.increment(outcome[1]);
+        chunkTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Checks one row against the chunk's accounts and applies it to their balances, returning the reason
+     * it was rejected or null once it is posted
+     */
+    private String apply(ImportJob job, ImportRow row, Map<String, ImportAccount> accounts, Map<DailyKey, DailyUsage> dailyUsage,
+                         Set<String> existingRefs, Set<String> chunkRefs, List<TransactionDto> postings) {
+        ImportAccount source = row.sourceAccountNumber() == null ? null : accounts.get(row.sourceAccountNumber());
+        ImportAccount destination = row.destinationAccountNumber() == null ? null : accounts.get(row.destinationAccountNumber());
+        if (row.sourceAccountNumber() != null && source == null) {
+            return "Source account with number " + row.sourceAccountNumber() + " not found";
+        }
+        if (row.destinationAccountNumber() != null && destination == null) {
+            return "Destination account with number " + row.destinationAccountNumber() + " not found";
+        }
+        // The account the API checks ownership and the maximum on: the credited one for deposits, else the debited one
+        ImportAccount owned = row.type() == TransactionType.DEPOSIT ? destination : source;
+        if (job.userId != null && !job.userId.equals(owned.userId)) {
+            return "Not authorized to post on account " + owned.accountNumber;
+        }
+        for (ImportAccount account : new ImportAccount[] {source, destination}) {
+            if (account != null && !account.active) {
+                return "Account " + account.accountNumber + " is suspended and cannot perform transactions";
+            }
+        }
+        Money maximum = limitResolver.resolve(owned.id).get(row.type()).maxPerTransaction();
+        if (row.amount().isGreaterThan(maximum)) {
+            return "Amount " + row.amount() + " exceeds maximum allowed limit of " + maximum;
+        }
+        if (row.transactionRef() != null
+            && (existingRefs.contains(row.transactionRef()) || !chunkRefs.add(row.transactionRef()))) {
+            return "Duplicate transaction reference " + row.transactionRef();
+        }
+        if (source != null && source.balanceMinor < row.amount().minorUnits()) {
+            return "Insufficient balance in account " + source.accountNumber + ". Available: "
+                + Money.ofMinor(source.balanceMinor) + ", Requested: " + row.amount();
+        }
+        DailyUsage daily = dailyUsage == null ? null : dailyUsage.get(new DailyKey(owned.id, row.type()));
+        if (daily != null) {
+            String exceeded = daily.check(row.type(), row.amount());
+            if (exceeded != null) {
+                return exceeded;
+            }
+        }
+        if (job.userId != null) {
+            // Last check, so a reserved row is always posted; the reservation is released if the chunk rolls back
+            try {
+                velocityEngine.checkAndReserve(owned.id, destination == null ? null : destination.id, row.type(), row.amount());
+            } catch (VelocityLimitExceededException e) {
+                return e.getMessage();
+            }
+        }
+
+        long amountMinor = row.amount().minorUnits();
+        if (daily != null) {
+            daily.record(amountMinor);
+        }
+        if (source != null) {
+            source.balanceMinor -= amountMinor;
+            source.deltaMinor -= amountMinor;
+        }
+        if (destination != null) {
+            destination.balanceMinor = Math.addExact(destination.balanceMinor, amountMinor);
+            destination.deltaMinor = Math.addExact(destination.deltaMinor, amountMinor);
+        }
+        TransactionDto dto = new TransactionDto();
+        dto.setSourceAccountId(source == null ? null : source.id);
+        dto.setDestinationAccountId(destination == null ? null : destination.id);
+        dto.setType(row.type());
+        dto.setAmount(row.amount().toBigDecimal());
+        dto.setDescription(row.description());
+        dto.setStatus(TransactionStatus.COMPLETED);
+        dto.setTransactionRef(row.transactionRef() != null ? row.transactionRef() : "IMP-" + job.id + "-" + row.lineNumber());
+        postings.add(dto);
+        return null;
+    }
+
+    /**
+     * Loads and locks every account a chunk names, in id order like every other multi-account lock
+     */
+    private Map<String, ImportAccount> lockAccounts(List<ImportRow> rows) {
+        Set<String> numbers = new HashSet<>();
+        for (ImportRow row : rows) {
+            if (row.isValid()) {
+                addIfPresent(numbers, row.sourceAccountNumber());
+                addIfPresent(numbers, row.destinationAccountNumber());
+            }
+        }
+        Map<String, ImportAccount> accounts = new HashMap<>();
+        if (numbers.isEmpty()) {
+            return accounts;
+        }
+        jdbcTemplate.query(
+            "SELECT id, user_id, account_number, account_status, balance FROM accounts WHERE account_number IN " +
+            placeholders(numbers.size()) + " ORDER BY id FOR UPDATE",
+            rs -> {
+                ImportAccount account = new ImportAccount(rs.getLong("id"), rs.getLong("user_id"), rs.getString("account_number"),
+                    "ACTIVE".equals(rs.getString("account_status")), Money.of(rs.getBigDecimal("balance")).minorUnits());
+                accounts.put(account.accountNumber, account);
+            },
+            numbers.toArray());
+        return accounts;
+    }
+
+    /**
+     * Locks today's daily limit rows of every account and type the chunk would post against, creating the
+     * missing ones from the resolved limits first. Runs after the account locks, the order the API uses.
+     */
+    private Map<DailyKey, DailyUsage> lockDailyLimits(List<ImportRow> rows, Map<String, ImportAccount> accounts) {
+        Set<DailyKey> keys = new HashSet<>();
+        for (ImportRow row : rows) {
+            if (row.isValid()) {
+                ImportAccount owned = accounts.get(row.type() == TransactionType.DEPOSIT
+                    ? row.destinationAccountNumber() : row.sourceAccountNumber());
+                if (owned != null) {
+                    keys.add(new DailyKey(owned.id, row.type()));
+                }
+            }
+        }
+        Map<DailyKey, DailyUsage> usage = new HashMap<>();
+        if (keys.isEmpty()) {
+            return usage;
+        }
+        LocalDate today = LocalDate.now();
+        List<DailyKey> seeds = new ArrayList<>(keys);
+        jdbcTemplate.batchUpdate(
+            "INSERT IGNORE INTO daily_transaction_limits (account_id, transaction_type, date, daily_limit, used_amount, " +
+            "transaction_count, max_transaction_count) VALUES (?, ?, ?, ?, 0, 0, ?)",
+            seeds, seeds.size(), (ps, key) -> {
+                TypeLimits limits = limitResolver.resolve(key.accountId()).get(key.type());
+                ps.setLong(1, key.accountId());
+                ps.setString(2, key.type().name());
+                ps.setObject(3, today);
+                ps.setBigDecimal(4, limits.dailyLimit().toBigDecimal());
+                ps.setInt(5, limits.dailyCount());
+            });
+
+        Set<Long> accountIds = new HashSet<>();
+        for (DailyKey key : keys) {
+            accountIds.add(key.accountId());
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(today);
+        args.addAll(accountIds);
+        jdbcTemplate.query(
+            "SELECT id, account_id, transaction_type, daily_limit, used_amount, transaction_count, max_transaction_count " +
+            "FROM daily_transaction_limits WHERE date = ? AND account_id IN " + placeholders(accountIds.size()) +
+            " ORDER BY id FOR UPDATE",
+            rs -> {
+                DailyKey key = new DailyKey(rs.getLong("account_id"), TransactionType.valueOf(rs.getString("transaction_type")));
+                if (keys.contains(key)) {
+                    usage.put(key, new DailyUsage(rs.getLong("id"), Money.of(rs.getBigDecimal("daily_limit")).minorUnits(),
+                        Money.of(rs.getBigDecimal("used_amount")).minorUnits(), rs.getInt("transaction_count"),
+                        rs.getInt("max_transaction_count")));
+                }
+            },
+            args.toArray());
+        return usage;
+    }
+
+    private void updateDailyLimits(Map<DailyKey, DailyUsage> dailyUsage) {
+        if (dailyUsage == null) {
+            return;
+        }
+        List<DailyUsage> changed = new ArrayList<>();
+        for (DailyUsage usage : dailyUsage.values()) {
+            if (usage.postedCount > 0) {
+                changed.add(usage);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            "UPDATE daily_transaction_limits SET used_amount = ?, transaction_count = ? WHERE id = ?",
+            changed, changed.size(), (ps, usage) -> {
+                ps.setBigDecimal(1, BigDecimal.valueOf(usage.usedMinor, Money.SCALE));
+                ps.setInt(2, usage.count);
+                ps.setLong(3, usage.id);
+            });
+    }
+
+    private Set<String> existingRefs(List<ImportRow> rows) {
+        Set<String> refs = new HashSet<>();
+        for (ImportRow row : rows) {
+            if (row.isValid()) {
+                addIfPresent(refs, row.transactionRef());
+            }
+        }
+        if (refs.isEmpty()) {
+            return refs;
+        }
+        // Archived refs count too, the archive has its own unique constraint and would not stop a reuse
+        List<Object> args = new ArrayList<>(refs);
+        args.addAll(refs);
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT transaction_ref FROM transactions WHERE transaction_ref IN " + placeholders(refs.size()) +
+            " UNION SELECT transaction_ref FROM transactions_archive WHERE transaction_ref IN " + placeholders(refs.size()),
+            String.class, args.toArray()));
+        for (String ref : refs) {
+            if (!existing.contains(ref) && coldStore.findByRef(ref).isPresent()) {
+                existing.add(ref);
+            }
+        }
+        return existing;
+    }
+
+    private void insertTransactions(ImportJob job, List<TransactionDto> postings) {
+        if (postings.isEmpty()) {
+            return;
+        }
+        LocalDateTime postedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            connection -> connection.prepareStatement(
+                "INSERT INTO transactions (source_account_id, destination_account_id, type, amount, description, status, transaction_ref, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, 'COMPLETED', ?, ?)", Statement.RETURN_GENERATED_KEYS),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    TransactionDto dto = postings.get(i);
+                    ps.setObject(1, dto.getSourceAccountId());
+                    ps.setObject(2, dto.getDestinationAccountId());
+                    ps.setString(3, dto.getType().name());
+                    ps.setBigDecimal(4, dto.getAmount());
+                    ps.setString(5, dto.getDescription());
+                    ps.setString(6, dto.getTransactionRef());
+                    ps.setTimestamp(7, Timestamp.valueOf(postedAt));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return postings.size();
+                }
+            },
+            keys);
+        for (int i = 0; i < postings.size(); i++) {
+            TransactionDto dto = postings.get(i);
+            dto.setId(((Number) keys.getKeyList().get(i).values().iterator().next()).longValue());
+            dto.setCreatedAt(postedAt);
+        }
+    }
+
+    /**
+     * One update per account with its net change over the chunk
+     */
+    private void updateBalances(Map<String, ImportAccount> accounts) {
+        TreeMap<Long, Long> deltas = new TreeMap<>();
+        for (ImportAccount account : accounts.values()) {
+            if (account.deltaMinor != 0) {
+                deltas.put(account.id, account.deltaMinor);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Long>> updates = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(
+            "UPDATE accounts SET balance = balance + ?, version = version + 1 WHERE id = ?",
+            updates, updates.size(), (ps, update) -> {
+                ps.setBigDecimal(1, BigDecimal.valueOf(update.getValue(), Money.SCALE));
+                ps.setLong(2, update.getKey());
+            });
+        for (Long accountId : deltas.keySet()) {
+            limitResolver.invalidateAccount(accountId);
+        }
+    }
+
+    private void recordRollups(List<TransactionDto> postings) {
+        // The rollup counts one posting per entry, so entries are per row, grouped by leg
+        Map<PostingLeg, List<Object[]>> legs = new EnumMap<>(PostingLeg.class);
+        for (TransactionDto dto : postings) {
+            if (dto.getSourceAccountId() != null) {
+                legs.computeIfAbsent(PostingLeg.of(dto.getType(), false), leg -> new ArrayList<>())
+                    .add(new Object[] {dto.getSourceAccountId(), dto.getAmount()});
+            }
+            if (dto.getDestinationAccountId() != null) {
+                legs.computeIfAbsent(PostingLeg.of(dto.getType(), true), leg -> new ArrayList<>())
+                    .add(new Object[] {dto.getDestinationAccountId(), dto.getAmount()});
+            }
+        }
+        legs.forEach(transactionRollupService::recordPostings);
+    }
+
+    private static String placeholders(int count) {
+        StringJoiner joiner = new StringJoiner(",", "(", ")");
+        for (int i = 0; i < count; i++) {
+            joiner.add("?");
+        }
+        return joiner.toString();
+    }
+
+    private static void addIfPresent(Set<String> values, String value) {
+        if (value != null) {
+            values.add(value);
+        }
+    }
+
+    private static String truncate(String value) {
+        return value == null || value.length() <= MAX_ERROR_LENGTH ? value : value.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private record ImportJob(long id, Long userId, Path file, String status, long nextOffset, long nextLine) {
+    }
+
+    private record DailyKey(long accountId, TransactionType type) {
+    }
+
+    /**
+     * A locked daily_transaction_limits row, updated in memory as the chunk's rows are posted
+     */
+    private static final class DailyUsage {
+        private final long id;
+        private final long limitMinor;
+        private final int maxCount;
+        private long usedMinor;
+        private int count;
+        private int postedCount;
+
+        private DailyUsage(long id, long limitMinor, long usedMinor, int count, int maxCount) {
+            this.id = id;
+            this.limitMinor = limitMinor;
+            this.usedMinor = usedMinor;
+            this.count = count;
+            this.maxCount = maxCount;
+        }
+
+        /**
+         * The same rejection TransactionLimitService gives, null if the amount fits
+         */
+        private String check(TransactionType type, Money amount) {
+            long remaining = limitMinor - usedMinor;
+            if (remaining < amount.minorUnits()) {
+                return "Transaction amount " + amount + " exceeds daily remaining limit of " + Money.ofMinor(remaining)
+                    + " for " + type + " transactions";
+            }
+            if (count >= maxCount) {
+                return "Daily transaction count limit exceeded. Maximum " + maxCount
+                    + " transactions allowed per day for " + type + " transactions";
+            }
+            return null;
+        }
+
+        private void record(long amountMinor) {
+            usedMinor = Math.addExact(usedMinor, amountMinor);
+            count++;
+            postedCount++;
+        }
+    }
+
+    private static final class ImportAccount {
+        private final long id;
+        private final long userId;
+        private final String accountNumber;
+        private final boolean active;
+        private long balanceMinor;
+        private long deltaMinor;
+
+        private ImportAccount(long id, long userId, String accountNumber, boolean active, long balanceMinor) {
+            this.id = id;
+            this.userId = userId;
+            this.accountNumber = accountNumber;
+            this.active = active;
+            this.balanceMinor = balanceMinor;
+        }
+    }
+
+    /**
+     * The file does not have the expected layout
+     */
+    private static final class InvalidImportException extends RuntimeException {
+        private InvalidImportException(String message) {
+            super(message);
+        }
+    }
+}
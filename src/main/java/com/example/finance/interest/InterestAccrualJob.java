@@ -0,0 +1,287 @@
+package com.example.finance.interest;
+
+import com.example.finance.outbox.OutboxWriter;
+import com.example.finance.transactions.Transaction;
+import com.example.finance.transactions.TransactionDto;
+import com.example.finance.transactions.TransactionRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Nightly interest accrual for SAVINGS accounts.
+ * Accounts are processed in fixed id-range chunks on a bounded worker pool, each chunk posting its
+ * DEPOSIT transactions and balance updates with JDBC batching in a single commit. Committed chunks are
+ * recorded so an interrupted run resumes where it stopped. The fraction of a cent left over each day is
+ * carried on the account and added to the next day's interest, so no balance loses its remainder.
+ */
+@Component
+public class InterestAccrualJob {
+
+    private static final Logger log = LoggerFactory.getLogger(InterestAccrualJob.class);
+    private static final DateTimeFormatter REF_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final long BPS_DAYS_DIVISOR = 10_000L * 365L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionRollupService transactionRollupService;
+    private final OutboxWriter outboxWriter;
+
+    @Value("${finance.interest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${finance.interest.savings-annual-rate-bps:350}")
+    private long annualRateBps;
+
+    @Value("${finance.interest.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${finance.interest.workers:4}")
+    private int workers;
+
+    public InterestAccrualJob(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              TransactionRollupService transactionRollupService, OutboxWriter outboxWriter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.transactionRollupService = transactionRollupService;
+        this.outboxWriter = outboxWriter;
+    }
+
+    @Scheduled(cron = "${finance.interest.cron:0 30 0 * * *}")
+    public void runNightly() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate accrualDate = LocalDate.now().minusDays(1);
+
+        // Finish any earlier run that was interrupted before accruing the new day
+        List<LocalDate> unfinished = jdbcTemplate.queryForList(
+            "SELECT accrual_date FROM interest_accrual_runs WHERE status = 'RUNNING' AND accrual_date < ? ORDER BY accrual_date",
+            LocalDate.class, Date.valueOf(accrualDate));
+        for (LocalDate date : unfinished) {
+            accrue(date);
+        }
+        accrue(accrualDate);
+    }
+
+    /**
+     * Accrues one day of interest, skipping chunks already committed for that day
+     */
+    public void accrue(LocalDate accrualDate) {
+        AccrualRun run = findOrCreateRun(accrualDate);
+        if (run.completed) {
+            return;
+        }
+
+        Set<Long> committedChunks = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT chunk_start_id FROM interest_accrual_chunks WHERE run_id = ?", Long.class, run.id));
+
+        List<Callable<Void>> pending = new ArrayList<>();
+        for (long start = 1; start <= run.maxAccountId; start += run.chunkSize) {
+            if (committedChunks.contains(start)) {
+                continue;
+            }
+            long chunkStart = start;
+            long chunkEnd = Math.min(start + run.chunkSize - 1, run.maxAccountId);
+            pending.add(() -> {
+                processChunk(run, chunkStart, chunkEnd);
+                return null;
+            });
+        }
+
+        log.info("Interest accrual for {}: {} chunks pending, {} already committed",
+            accrualDate, pending.size(), committedChunks.size());
+
+        int failed = 0;
+        try (ExecutorService executor = Executors.newFixedThreadPool(workers)) {
+            for (Future<Void> result : executor.invokeAll(pending)) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    log.error("Interest accrual chunk failed for {}", accrualDate, e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (failed == 0) {
+            jdbcTemplate.update(
+                "UPDATE interest_accrual_runs SET status = 'COMPLETED', completed_at = CURRENT_TIMESTAMP WHERE id = ?", run.id);
+            log.info("Interest accrual for {} completed", accrualDate);
+        } else {
+            log.warn("Interest accrual for {} left {} chunks uncommitted, they will be resumed on the next run", accrualDate, failed);
+        }
+    }
+
+    private void processChunk(AccrualRun run, long startId, long endId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Claim the chunk first so a concurrent run of the same day fails fast on the primary key
+            jdbcTemplate.update(
+                "INSERT INTO interest_accrual_chunks (run_id, chunk_start_id, chunk_end_id) VALUES (?, ?, ?)",
+                run.id, startId, endId);
+
+            // Each entry is {account id, interest in minor units, carry left for the next day}
+            List<long[]> accruals = jdbcTemplate.query(
+                "SELECT id, balance, interest_carry FROM accounts WHERE id BETWEEN ? AND ? " +
+                "AND account_type = 'SAVINGS' AND account_status = 'ACTIVE' AND balance > 0 FOR UPDATE",
+                (rs, rowNum) -> {
+                    long accountId = rs.getLong("id");
+                    long[] accrual = dailyInterest(rs.getBigDecimal("balance").movePointRight(2).longValueExact(),
+                        rs.getLong("interest_carry"));
+                    return new long[] {accountId, accrual[0], accrual[1]};
+                },
+                startId, endId);
+            List<long[]> credits = new ArrayList<>(accruals.size());
+            List<long[]> carriedOnly = new ArrayList<>();
+            for (long[] accrual : accruals) {
+                (accrual[1] > 0 ? credits : carriedOnly).add(accrual);
+            }
+            if (!carriedOnly.isEmpty()) {
+                // Nothing to post yet, the balance is unchanged so the version is left alone
+                jdbcTemplate.batchUpdate(
+                    "UPDATE accounts SET interest_carry = ? WHERE id = ?",
+                    carriedOnly, carriedOnly.size(), (ps, accrual) -> {
+                        ps.setLong(1, accrual[2]);
+                        ps.setLong(2, accrual[0]);
+                    });
+            }
+            if (credits.isEmpty()) {
+                return;
+            }
+
+            String description = "Interest accrual for " + run.accrualDate;
+            String refPrefix = "INT-" + run.accrualDate.format(REF_DATE) + "-";
+            LocalDateTime postedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(
+                    "INSERT INTO transactions (destination_account_id, type, amount, description, status, transaction_ref, created_at) " +
+                    "VALUES (?, 'DEPOSIT', ?, ?, 'COMPLETED', ?, ?)", Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        long[] credit = credits.get(i);
+                        ps.setLong(1, credit[0]);
+                        ps.setBigDecimal(2, BigDecimal.valueOf(credit[1], 2));
+                        ps.setString(3, description);
+                        ps.setString(4, refPrefix + credit[0]);
+                        ps.setTimestamp(5, Timestamp.valueOf(postedAt));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return credits.size();
+                    }
+                },
+                keys);
+            jdbcTemplate.batchUpdate(
+                "UPDATE accounts SET balance = balance + ?, interest_carry = ?, version = version + 1 WHERE id = ?",
+                credits, credits.size(), (ps, credit) -> {
+                    ps.setBigDecimal(1, BigDecimal.valueOf(credit[1], 2));
+                    ps.setLong(2, credit[2]);
+                    ps.setLong(3, credit[0]);
+                });
+
+            List<Object[]> rollups = new ArrayList<>(credits.size());
+            for (long[] credit : credits) {
+                rollups.add(new Object[] {credit[0], BigDecimal.valueOf(credit[1], 2)});
+            }
+            transactionRollupService.recordPostings(TransactionRollupService.PostingLeg.DEPOSIT, rollups);
+
+            List<TransactionDto> posted = new ArrayList<>(credits.size());
+            for (int i = 0; i < credits.size(); i++) {
+                TransactionDto dto = new TransactionDto();
+                dto.setId(((Number) keys.getKeyList().get(i).values().iterator().next()).longValue());
+                dto.setDestinationAccountId(credits.get(i)[0]);
+                dto.setType(Transaction.TransactionType.DEPOSIT);
+                dto.setAmount(BigDecimal.valueOf(credits.get(i)[1], 2));
+                dto.setDescription(description);
+                dto.setStatus(Transaction.TransactionStatus.COMPLETED);
+                dto.setTransactionRef(refPrefix + credits.get(i)[0]);
+                dto.setCreatedAt(postedAt);
+                posted.add(dto);
+            }
+            outboxWriter.recordCompleted(posted);
+
+            long totalMinor = 0;
+            for (long[] credit : credits) {
+                totalMinor = Math.addExact(totalMinor, credit[1]);
+            }
+            jdbcTemplate.update(
+                "UPDATE interest_accrual_chunks SET accounts_credited = ?, interest_posted = ? WHERE run_id = ? AND chunk_start_id = ?",
+                credits.size(), BigDecimal.valueOf(totalMinor, 2), run.id, startId);
+        });
+    }
+
+    /**
+     * One day of simple interest on a balance in minor units plus the carry from earlier days.
+     * Returns the whole cents to credit and the remainder to carry, in units of 1 / BPS_DAYS_DIVISOR cent.
+     */
+    long[] dailyInterest(long balanceMinor, long carry) {
+        long accrued = Math.addExact(Math.multiplyExact(balanceMinor, annualRateBps), carry);
+        return new long[] {accrued / BPS_DAYS_DIVISOR, accrued % BPS_DAYS_DIVISOR};
+    }
+
+    private AccrualRun findOrCreateRun(LocalDate accrualDate) {
+        Long maxAccountId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM accounts", Long.class);
+        // Chunk boundaries are fixed per run so a resumed run sees the same chunks
+        jdbcTemplate.update(
+            "INSERT IGNORE INTO interest_accrual_runs (accrual_date, chunk_size, max_account_id) VALUES (?, ?, ?)",
+            Date.valueOf(accrualDate), chunkSize, maxAccountId);
+        return jdbcTemplate.queryForObject(
+            "SELECT id, chunk_size, max_account_id, status FROM interest_accrual_runs WHERE accrual_date = ?",
+            (rs, rowNum) -> new AccrualRun(
+                rs.getLong("id"),
+                accrualDate,
+                rs.getInt("chunk_size"),
+                rs.getLong("max_account_id"),
+                "COMPLETED".equals(rs.getString("status"))),
+            Date.valueOf(accrualDate));
+    }
+
+    private static final class AccrualRun {
+        private final long id;
+        private final LocalDate accrualDate;
+        private final int chunkSize;
+        private final long maxAccountId;
+        private final boolean completed;
+
+        private AccrualRun(long id, LocalDate accrualDate, int chunkSize, long maxAccountId, boolean completed) {
+            this.id = id;
+            this.accrualDate = accrualDate;
+            this.chunkSize = chunkSize;
+            this.maxAccountId = maxAccountId;
+            this.completed = completed;
+        }
+    }
+}
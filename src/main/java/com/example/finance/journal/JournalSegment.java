@@ -0,0 +1,128 @@
+package com.example.finance.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * One fixed-size, memory-mapped file of the transaction journal.
+ * Frames are written back to back after the header; a zero length marks the end of the written part.
+ * The length is stored last, so a frame torn by a crash is either invisible or fails its checksum.
+ * <pre>
+ * header  magic int, version int
+ * frame   payload length int, CRC32 of payload int, payload
+ * </pre>
+ */
+final class JournalSegment {
+
+    static final int MAGIC = 0x544A524E; // "TJRN"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int FRAME_HEADER_SIZE = 8;
+
+    private final Path path;
+    private final long sequence;
+    private final MappedByteBuffer buffer;
+    private int position = HEADER_SIZE;
+
+    private JournalSegment(Path path, long sequence, MappedByteBuffer buffer) {
+        this.path = path;
+        this.sequence = sequence;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Creates, zero-fills and maps a new segment. Filling allocates the blocks up front, otherwise the
+     * file system allocates them in the page fault of the first append to each page.
+     */
+    static JournalSegment create(Path path, long sequence, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer zeros = ByteBuffer.allocateDirect(1 << 20);
+            for (long written = 0; written < capacity; ) {
+                zeros.clear().limit((int) Math.min(zeros.capacity(), capacity - written));
+                written += channel.write(zeros, written);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            buffer.putInt(0, MAGIC).putInt(4, VERSION);
+            return new JournalSegment(path, sequence, buffer);
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    int getPosition() {
+        return position;
+    }
+
+    boolean hasRoom(int payloadLength) {
+        return position + FRAME_HEADER_SIZE + payloadLength <= buffer.capacity();
+    }
+
+    /**
+     * Returns the mapped region for the next payload; it becomes visible once {@link #commit} is called.
+     * Callers serialize appends.
+     */
+    ByteBuffer reserve(int payloadLength) {
+        return buffer.slice(position + FRAME_HEADER_SIZE, payloadLength);
+    }
+
+    void commit(int payloadLength, CRC32 crc) {
+        crc.reset();
+        crc.update(buffer.slice(position + FRAME_HEADER_SIZE, payloadLength));
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putInt(position, payloadLength);
+        position += FRAME_HEADER_SIZE + payloadLength;
+    }
+
+    /**
+     * Writes the given range of the mapping to disk
+     */
+    void force(int from, int to) {
+        if (to > from) {
+            buffer.force(from, to - from);
+        }
+    }
+
+    /**
+     * Passes each intact payload of a segment file to the consumer, stopping at the end or at a torn frame.
+     * The limit bounds the scan of a segment that is still being appended to.
+     */
+    static void read(Path path, int limit, Consumer<ByteBuffer> consumer) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (mapped.capacity() < HEADER_SIZE || mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+            throw new IOException("Not a version " + VERSION + " journal segment: " + path);
+        }
+        int end = Math.min(limit, mapped.capacity());
+        CRC32 crc = new CRC32();
+        int position = HEADER_SIZE;
+        while (position + FRAME_HEADER_SIZE <= end) {
+            int length = mapped.getInt(position);
+            if (length <= 0 || position + FRAME_HEADER_SIZE + length > end) {
+                return;
+            }
+            ByteBuffer payload = mapped.slice(position + FRAME_HEADER_SIZE, length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != mapped.getInt(position + 4)) {
+                return;
+            }
+            consumer.accept(payload);
+            position += FRAME_HEADER_SIZE + length;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.finance.journal;
+
+import com.example.finance.outbox.OutboxWriter;
+import com.example.finance.reconciliation.ReconciliationJob;
+import com.example.finance.transactions.Transaction.TransactionStatus;
+import com.example.finance.transactions.Transaction.TransactionType;
+import com.example.finance.transactions.TransactionDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resolves transactions left in PENDING, on startup and on a schedule.
+ * A transaction with a journaled outcome takes that outcome. Without one, the balances decide: when every
+ * account it touches differs from the net of its COMPLETED history by exactly this posting, the posting was
+ * applied and the row is COMPLETED; when they all match, it never was and the row is FAILED. Anything else,
+ * including accounts with several PENDING rows, is left for manual reconciliation.
+ */
+@Component
+public class PendingTransactionSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingTransactionSweeper.class);
+
+    private static final RowMapper<TransactionDto> PENDING_ROW = (rs, rowNum) -> {
+        TransactionDto dto = new TransactionDto();
+        dto.setId(rs.getLong("id"));
+        long sourceAccountId = rs.getLong("source_account_id");
+        dto.setSourceAccountId(rs.wasNull() ? null : sourceAccountId);
+        long destinationAccountId = rs.getLong("destination_account_id");
+        dto.setDestinationAccountId(rs.wasNull() ? null : destinationAccountId);
+        dto.setType(TransactionType.valueOf(rs.getString("type")));
+        dto.setAmount(rs.getBigDecimal("amount"));
+        dto.setDescription(rs.getString("description"));
+        dto.setStatus(TransactionStatus.PENDING);
+        dto.setTransactionRef(rs.getString("transaction_ref"));
+        dto.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        return dto;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionJournal journal;
+    private final ReconciliationJob reconciliationJob;
+    private final OutboxWriter outboxWriter;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final Counter completed;
+    private final Counter failed;
+    private final Counter unresolved;
+
+    @Value("${finance.journal.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${finance.journal.sweeper.pending-age-seconds:300}")
+    private long pendingAgeSeconds;
+
+    @Value("${finance.journal.sweeper.batch-size:500}")
+    private int batchSize;
+
+    @Value("${finance.journal.retention-hours:72}")
+    private long retentionHours;
+
+    public PendingTransactionSweeper(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                     TransactionJournal journal, ReconciliationJob reconciliationJob,
+                                     OutboxWriter outboxWriter, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.journal = journal;
+        this.reconciliationJob = reconciliationJob;
+        this.outboxWriter = outboxWriter;
+        this.completed = Counter.builder("finance.journal.sweeper").tag("result", "completed").register(meterRegistry);
+        this.failed = Counter.builder("finance.journal.sweeper").tag("result", "failed").register(meterRegistry);
+        this.unresolved = Counter.builder("finance.journal.sweeper").tag("result", "unresolved").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void sweepOnStartup() {
+        if (enabled) {
+            Thread.ofPlatform().name("pending-transaction-sweeper").daemon(true).start(this::sweepIfIdle);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${finance.journal.sweeper.interval-ms:60000}")
+    public void sweepScheduled() {
+        if (enabled) {
+            sweepIfIdle();
+        }
+    }
+
+    private void sweepIfIdle() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sweep();
+            int deleted = journal.deleteSegmentsOlderThan(Duration.ofHours(retentionHours));
+            if (deleted > 0) {
+                log.info("Deleted {} transaction journal segments past retention", deleted);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Pending transaction sweep failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Walks PENDING rows older than the threshold in id order, one batch per database transaction
+     */
+    void sweep() throws IOException {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusSeconds(pendingAgeSeconds));
+        long afterId = 0;
+        int resolved = 0;
+        List<Long> leftPending = new ArrayList<>();
+        while (true) {
+            List<TransactionDto> batch = jdbcTemplate.query(
+                "SELECT id, source_account_id, destination_account_id, type, amount, description, transaction_ref, created_at " +
+                "FROM transactions WHERE status = 'PENDING' AND id > ? AND created_at < ? ORDER BY id LIMIT ?",
+                PENDING_ROW, afterId, cutoff, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+            resolved += resolve(batch, leftPending);
+        }
+        if (resolved > 0 || !leftPending.isEmpty()) {
+            log.info("Pending transaction sweep resolved {} transactions, {} left for manual reconciliation{}",
+                resolved, leftPending.size(), leftPending.isEmpty() ? "" : ", ids " + leftPending.subList(0, Math.min(20, leftPending.size())));
+        }
+    }
+
+    private int resolve(List<TransactionDto> batch, List<Long> leftPending) throws IOException {
+        Set<String> refs = new HashSet<>();
+        for (TransactionDto row : batch) {
+            refs.add(row.getTransactionRef());
+        }
+        Map<String, TransactionStatus> outcomes = journal.findOutcomes(refs);
+
+        Set<Long> accounts = new HashSet<>();
+        for (TransactionDto row : batch) {
+            if (!outcomes.containsKey(row.getTransactionRef())) {
+                addIfPresent(accounts, row.getSourceAccountId());
+                addIfPresent(accounts, row.getDestinationAccountId());
+            }
+        }
+        Map<Long, Integer> pendingPerAccount = pendingCounts(accounts);
+        Map<Long, BigDecimal> differences = reconciliationJob.balanceDifferences(accounts);
+
+        List<TransactionDto> toComplete = new ArrayList<>();
+        List<TransactionDto> toFail = new ArrayList<>();
+        for (TransactionDto row : batch) {
+            TransactionStatus outcome = outcomes.get(row.getTransactionRef());
+            if (outcome == null) {
+                outcome = fromBalances(row, pendingPerAccount, differences);
+            }
+            if (outcome == TransactionStatus.COMPLETED) {
+                toComplete.add(row);
+            } else if (outcome == TransactionStatus.FAILED) {
+                toFail.add(row);
+            } else {
+                leftPending.add(row.getId());
+                unresolved.increment();
+            }
+        }
+        if (toComplete.isEmpty() && toFail.isEmpty()) {
+            return 0;
+        }
+
+        return transactionTemplate.execute(status -> {
+            List<TransactionDto> nowCompleted = markResolved(toComplete, TransactionStatus.COMPLETED);
+            List<TransactionDto> nowFailed = markResolved(toFail, TransactionStatus.FAILED);
+            if (!nowCompleted.isEmpty()) {
+                outboxWriter.recordCompleted(nowCompleted);
+            }
+            completed.increment(nowCompleted.size());
+            failed.increment(nowFailed.size());
+            return nowCompleted.size() + nowFailed.size();
+        });
+    }
+
+    /**
+     * Outcome implied by the balances, or PENDING when they do not decide it
+     */
+    private TransactionStatus fromBalances(TransactionDto row, Map<Long, Integer> pendingPerAccount, Map<Long, BigDecimal> differences) {
+        Map<Long, BigDecimal> effects = new HashMap<>();
+        if (row.getSourceAccountId() != null) {
+            effects.merge(row.getSourceAccountId(), row.getAmount().negate(), BigDecimal::add);
+        }
+        if (row.getDestinationAccountId() != null) {
+            effects.merge(row.getDestinationAccountId(), row.getAmount(), BigDecimal::add);
+        }
+        boolean allApplied = true;
+        boolean noneApplied = true;
+        for (Map.Entry<Long, BigDecimal> effect : effects.entrySet()) {
+            BigDecimal difference = differences.get(effect.getKey());
+            // With several PENDING rows on one account the difference cannot be attributed to a single row
+            if (difference == null || pendingPerAccount.getOrDefault(effect.getKey(), 0) != 1) {
+                return TransactionStatus.PENDING;
+            }
+            allApplied &= difference.compareTo(effect.getValue()) == 0;
+            noneApplied &= difference.signum() == 0;
+        }
+        if (allApplied && !noneApplied) {
+            return TransactionStatus.COMPLETED;
+        }
+        return noneApplied && !allApplied ? TransactionStatus.FAILED : TransactionStatus.PENDING;
+    }
+
+    /**
+     * Applies the status to rows still PENDING and returns the ones that were changed
+     */
+    private List<TransactionDto> markResolved(List<TransactionDto> rows, TransactionStatus status) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        int[][] updated = jdbcTemplate.batchUpdate(
+            "UPDATE transactions SET status = ? WHERE id = ? AND status = 'PENDING'",
+            rows, rows.size(), (ps, row) -> {
+                ps.setString(1, status.name());
+                ps.setLong(2, row.getId());
+            });
+        List<TransactionDto> changed = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            // Batched statements may report SUCCESS_NO_INFO instead of a row count
+            if (updated[0][i] != 0) {
+                rows.get(i).setStatus(status);
+                changed.add(rows.get(i));
+            }
+        }
+        return changed;
+    }
+
+    private Map<Long, Integer> pendingCounts(Set<Long> accounts) {
+        Map<Long, Integer> counts = new HashMap<>();
+        if (accounts.isEmpty()) {
+            return counts;
+        }
+        StringJoiner ids = new StringJoiner(",", "(", ")");
+        for (Long accountId : accounts) {
+            ids.add(Long.toString(accountId));
+        }
+        for (String column : List.of("source_account_id", "destination_account_id")) {
+            jdbcTemplate.query(
+                "SELECT " + column + " AS account_id, COUNT(*) AS pending FROM transactions " +
+                "WHERE " + column + " IN " + ids + " AND status = 'PENDING' GROUP BY " + column,
+                rs -> {
+                    counts.merge(rs.getLong("account_id"), rs.getInt("pending"), Integer::sum);
+                });
+        }
+        return counts;
+    }
+
+    private static void addIfPresent(Set<Long> accounts, Long accountId) {
+        if (accountId != null) {
+            accounts.add(accountId);
+        }
+    }
+}
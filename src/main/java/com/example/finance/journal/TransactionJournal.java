@@ -0,0 +1,316 @@
+package com.example.finance.journal;
+
+import com.example.finance.money.Money;
+import com.example.finance.transactions.Transaction.TransactionStatus;
+import com.example.finance.transactions.Transaction.TransactionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local journal of posting intents and their outcomes, kept in segmented memory-mapped files.
+ * An append is a copy into the mapping under a short lock, so it survives a JVM crash as soon as it returns;
+ * a flusher thread forces new data to disk every flush interval, one fsync covering every append since the last.
+ * The outcome of a posting is appended once its database transaction commits or rolls back, which lets the
+ * {@link PendingTransactionSweeper} tell what happened to a transaction left in PENDING.
+ */
+@Component
+public class TransactionJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionJournal.class);
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d+)\\.log");
+    private static final byte INTENT = 1;
+    private static final byte OUTCOME = 2;
+    // kind, timestamp, transaction id, type or status, source, destination, amount in minor units, ref length
+    private static final int FIXED_PAYLOAD = 1 + 8 + 8 + 1 + 8 + 8 + 8 + 2;
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private final Path directory;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Guarded by appendLock
+    private final CRC32 crc = new CRC32();
+    private final BlockingQueue<JournalSegment> sealed = new LinkedBlockingQueue<>();
+    private final Timer appendTimer;
+    private final Counter fsyncs;
+    private final Counter errors;
+    // Created ahead by the flusher so a roll does not create and map a file on the write path
+    private final AtomicReference<JournalSegment> spare = new AtomicReference<>();
+    private final AtomicLong nextSequence = new AtomicLong();
+    private volatile JournalSegment current;
+    private volatile Thread flusher;
+    // Guarded by flushLock
+    private JournalSegment flushedSegment;
+    private int flushedPosition;
+
+    @Value("${finance.journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${finance.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${finance.journal.flush-interval-ms:10}")
+    private long flushIntervalMillis;
+
+    public TransactionJournal(MeterRegistry meterRegistry, @Value("${finance.journal.directory:./data/journal}") String directory) {
+        this.directory = Path.of(directory);
+        this.appendTimer = Timer.builder("finance.journal.append").register(meterRegistry);
+        this.fsyncs = Counter.builder("finance.journal.fsync").register(meterRegistry);
+        this.errors = Counter.builder("finance.journal.errors").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        nextSequence.set(segmentFiles().stream().mapToLong(SegmentFile::sequence).max().orElse(0) + 1);
+        // Earlier segments stay as they are for the sweeper; appends always continue in a fresh one
+        current = createSegment();
+        flusher = Thread.ofPlatform().name("journal-flusher").daemon(true).start(this::flushLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        Thread thread = flusher;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+            flush();
+        }
+    }
+
+    /**
+     * Appends the intent of a posting whose PENDING row was just inserted, and its outcome once the
+     * surrounding transaction completes
+     */
+    public void recordPosting(long transactionId, String transactionRef, TransactionType type,
+                              Long sourceAccountId, Long destinationAccountId, Money amount) {
+        if (!enabled) {
+            return;
+        }
+        append(INTENT, transactionId, transactionRef, (byte) type.ordinal(), sourceAccountId, destinationAccountId, amount.minorUnits());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // STATUS_UNKNOWN is left without an outcome for the sweeper to work out
+                    if (status == STATUS_COMMITTED || status == STATUS_ROLLED_BACK) {
+                        TransactionStatus outcome = status == STATUS_COMMITTED ? TransactionStatus.COMPLETED : TransactionStatus.FAILED;
+                        append(OUTCOME, transactionId, transactionRef, (byte) outcome.ordinal(), null, null, 0);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Last journaled outcome, COMPLETED or FAILED, of each of the given references that has one
+     */
+    public Map<String, TransactionStatus> findOutcomes(Set<String> transactionRefs) throws IOException {
+        Map<String, TransactionStatus> outcomes = new HashMap<>();
+        if (!enabled || transactionRefs.isEmpty()) {
+            return outcomes;
+        }
+        JournalSegment active;
+        int activeLimit;
+        appendLock.lock();
+        try {
+            active = current;
+            activeLimit = active.getPosition();
+        } finally {
+            appendLock.unlock();
+        }
+        for (SegmentFile file : segmentFiles()) {
+            int limit = file.sequence() == active.getSequence() ? activeLimit : Integer.MAX_VALUE;
+            try {
+                JournalSegment.read(file.path(), limit, payload -> {
+                    byte kind = payload.get();
+                    payload.position(payload.position() + 8 + 8);
+                    byte code = payload.get();
+                    payload.position(payload.position() + 8 + 8 + 8);
+                    byte[] ref = new byte[payload.getShort()];
+                    payload.get(ref);
+                    if (kind == OUTCOME) {
+                        String transactionRef = new String(ref, StandardCharsets.UTF_8);
+                        if (transactionRefs.contains(transactionRef)) {
+                            outcomes.put(transactionRef, STATUSES[code]);
+                        }
+                    }
+                });
+            } catch (NoSuchFileException e) {
+                // Removed by retention while listing
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Deletes segments last written before the retention period, never the active one
+     */
+    public int deleteSegmentsOlderThan(Duration retention) throws IOException {
+        if (!enabled) {
+            return 0;
+        }
+        long cutoff = System.currentTimeMillis() - retention.toMillis();
+        long activeSequence = current.getSequence();
+        int deleted = 0;
+        for (SegmentFile file : segmentFiles()) {
+            if (file.sequence() < activeSequence && Files.getLastModifiedTime(file.path()).toMillis() < cutoff) {
+                Files.deleteIfExists(file.path());
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private void append(byte kind, long transactionId, String transactionRef, byte code,
+                        Long sourceAccountId, Long destinationAccountId, long amountMinor) {
+        long started = System.nanoTime();
+        byte[] ref = transactionRef.getBytes(StandardCharsets.UTF_8);
+        int length = FIXED_PAYLOAD + ref.length;
+        appendLock.lock();
+        try {
+            JournalSegment segment = current;
+            if (!segment.hasRoom(length)) {
+                segment = roll();
+            }
+            segment.reserve(length)
+                .put(kind)
+                .putLong(System.currentTimeMillis())
+                .putLong(transactionId)
+                .put(code)
+                .putLong(sourceAccountId == null ? 0 : sourceAccountId)
+                .putLong(destinationAccountId == null ? 0 : destinationAccountId)
+                .putLong(amountMinor)
+                .putShort((short) ref.length)
+                .put(ref);
+            segment.commit(length, crc);
+        } catch (IOException e) {
+            // The journal backs recovery up, a posting does not fail because of it
+            errors.increment();
+            log.error("Could not append to the transaction journal for {}", transactionRef, e);
+        } finally {
+            appendLock.unlock();
+        }
+        appendTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    private JournalSegment roll() throws IOException {
+        JournalSegment previous = current;
+        JournalSegment next = spare.getAndSet(null);
+        current = next != null ? next : createSegment();
+        sealed.add(previous);
+        return current;
+    }
+
+    private JournalSegment createSegment() throws IOException {
+        // Sequences only grow, a spare created in between just leaves a gap
+        long sequence = nextSequence.getAndIncrement();
+        return JournalSegment.create(segmentPath(sequence), sequence, segmentSizeMb << 20);
+    }
+
+    private void flushLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(flushIntervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                flush();
+                if (spare.get() == null) {
+                    spare.set(createSegment());
+                }
+            } catch (IOException | RuntimeException e) {
+                errors.increment();
+                log.error("Transaction journal flush failed", e);
+            }
+        }
+    }
+
+    /**
+     * Forces everything appended since the last flush, including segments sealed in between
+     */
+    private void flush() {
+        flushLock.lock();
+        try {
+            JournalSegment segment;
+            while ((segment = sealed.poll()) != null) {
+                segment.force(segment == flushedSegment ? flushedPosition : 0, segment.getPosition());
+                fsyncs.increment();
+            }
+            int position;
+            appendLock.lock();
+            try {
+                segment = current;
+                position = segment.getPosition();
+            } finally {
+                appendLock.unlock();
+            }
+            if (segment != flushedSegment) {
+                flushedSegment = segment;
+                flushedPosition = 0;
+            }
+            if (position > flushedPosition) {
+                segment.force(flushedPosition, position);
+                flushedPosition = position;
+                fsyncs.increment();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("journal-%020d.log", sequence));
+    }
+
+    private List<SegmentFile> segmentFiles() throws IOException {
+        List<SegmentFile> files = new ArrayList<>();
+        try (var listing = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) listing::iterator) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    files.add(new SegmentFile(file, Long.parseLong(matcher.group(1))));
+                }
+            }
+        }
+        files.sort(Comparator.comparingLong(SegmentFile::sequence));
+        return files;
+    }
+
+    private record SegmentFile(Path path, long sequence) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.finance.json;
+
+import com.example.finance.accounts.AccountDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Streams an AccountDto field by field, in the same order and format as the default bean serializer
+ */
+public class AccountDtoSerializer extends StdSerializer<AccountDto> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString ACCOUNT_NUMBER = new SerializedString("accountNumber");
+    private static final SerializableString ACCOUNT_TYPE = new SerializedString("accountType");
+    private static final SerializableString ACCOUNT_STATUS = new SerializedString("accountStatus");
+    private static final SerializableString BALANCE = new SerializedString("balance");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializableString USER_ID = new SerializedString("userId");
+
+    public AccountDtoSerializer() {
+        super(AccountDto.class);
+    }
+
+    @Override
+    public void serialize(AccountDto value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        JsonWrites.writeLong(gen, ID, value.getId());
+        JsonWrites.writeString(gen, ACCOUNT_NUMBER, value.getAccountNumber());
+        JsonWrites.writeEnum(gen, ACCOUNT_TYPE, value.getAccountType());
+        JsonWrites.writeEnum(gen, ACCOUNT_STATUS, value.getAccountStatus());
+        JsonWrites.writeDecimal(gen, BALANCE, value.getBalance());
+        JsonWrites.writeDateTime(gen, CREATED_AT, value.getCreatedAt());
+        JsonWrites.writeLong(gen, USER_ID, value.getUserId());
+        gen.writeEndObject();
+    }
+}
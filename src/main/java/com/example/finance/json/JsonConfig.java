@@ -0,0 +1,24 @@
+package com.example.finance.json;
+
+import com.example.finance.accounts.AccountDto;
+import com.example.finance.transactions.TransactionDto;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the hand-written serializers of the DTOs that make up history and account pages with the
+ * application's ObjectMapper, which picks up Module beans
+ */
+@Configuration
+public class JsonConfig {
+
+    @Bean
+    public Module financeDtoModule() {
+        SimpleModule module = new SimpleModule("finance-dto");
+        module.addSerializer(TransactionDto.class, new TransactionDtoSerializer());
+        module.addSerializer(AccountDto.class, new AccountDtoSerializer());
+        return module;
+    }
+}
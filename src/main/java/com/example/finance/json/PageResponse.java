@@ -0,0 +1,28 @@
+package com.example.finance.json;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Page of an offset-paginated listing. Replaces serializing Spring's PageImpl, whose Pageable and Sort
+ * graph made up much of every response and is not a stable JSON format.
+ */
+@Data
+@AllArgsConstructor
+public class PageResponse<T> {
+    private List<T> items;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    // Pass as "page" to fetch the next page, null on the last page
+    private Integer nextPage;
+
+    public static <T> PageResponse<T> of(Page<T> page) {
+        return new PageResponse<>(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(),
+            page.getTotalPages(), page.hasNext() ? page.getNumber() + 1 : null);
+    }
+}
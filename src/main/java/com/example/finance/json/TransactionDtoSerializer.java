@@ -0,0 +1,45 @@
+package com.example.finance.json;
+
+import com.example.finance.transactions.TransactionDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Streams a TransactionDto field by field, in the same order and format as the default bean serializer
+ */
+public class TransactionDtoSerializer extends StdSerializer<TransactionDto> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString SOURCE_ACCOUNT_ID = new SerializedString("sourceAccountId");
+    private static final SerializableString DESTINATION_ACCOUNT_ID = new SerializedString("destinationAccountId");
+    private static final SerializableString TYPE = new SerializedString("type");
+    private static final SerializableString AMOUNT = new SerializedString("amount");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString TRANSACTION_REF = new SerializedString("transactionRef");
+    private static final SerializableString CREATED_AT = new SerializedString("createdAt");
+
+    public TransactionDtoSerializer() {
+        super(TransactionDto.class);
+    }
+
+    @Override
+    public void serialize(TransactionDto value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        JsonWrites.writeLong(gen, ID, value.getId());
+        JsonWrites.writeLong(gen, SOURCE_ACCOUNT_ID, value.getSourceAccountId());
+        JsonWrites.writeLong(gen, DESTINATION_ACCOUNT_ID, value.getDestinationAccountId());
+        JsonWrites.writeEnum(gen, TYPE, value.getType());
+        JsonWrites.writeDecimal(gen, AMOUNT, value.getAmount());
+        JsonWrites.writeString(gen, DESCRIPTION, value.getDescription());
+        JsonWrites.writeEnum(gen, STATUS, value.getStatus());
+        JsonWrites.writeString(gen, TRANSACTION_REF, value.getTransactionRef());
+        JsonWrites.writeDateTime(gen, CREATED_AT, value.getCreatedAt());
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.finance.limits;
+
+import com.example.finance.transactions.Transaction;
+
+import java.util.Map;
+
+/**
+ * Limits an account resolves to after applying its profile and overrides over the configured defaults.
+ * Every transaction type is present.
+ */
+public record EffectiveLimits(String profile, Map<Transaction.TransactionType, TypeLimits> limits) {
+
+    public TypeLimits get(Transaction.TransactionType type) {
+        return limits.get(type);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.finance.limits;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Limits of one transaction type in a profile or override; null fields are inherited
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LimitEntry {
+    private BigDecimal dailyLimit;
+    private Integer dailyCount;
+    private BigDecimal maxPerTransaction;
+}
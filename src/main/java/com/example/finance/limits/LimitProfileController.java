@@ -0,0 +1,107 @@
+package com.example.finance.limits;
+
+import com.example.finance.accounts.Account;
+import com.example.finance.accounts.AccountRepository;
+import com.example.finance.accounts.AccountService;
+import com.example.finance.auth.JwtUtil;
+import com.example.finance.exceptions.AccountNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Profile management and assignment are admin only, see SecurityConfig. Any user may read the profiles
+ * and the effective limits of their own accounts.
+ */
+@RestController
+@RequestMapping("/api/limit-profiles")
+public class LimitProfileController {
+
+    private final LimitProfileService limitProfileService;
+    private final LimitResolver limitResolver;
+    private final AccountRepository accountRepository;
+    private final AccountService accountService;
+    private final JwtUtil jwtUtil;
+
+    public LimitProfileController(LimitProfileService limitProfileService, LimitResolver limitResolver,
+                                  AccountRepository accountRepository, AccountService accountService, JwtUtil jwtUtil) {
+        this.limitProfileService = limitProfileService;
+        this.limitResolver = limitResolver;
+        this.accountRepository = accountRepository;
+        this.accountService = accountService;
+        this.jwtUtil = jwtUtil;
+    }
+
+    private Long getUserIdFromToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            throw new RuntimeException("Missing or invalid Authorization header");
+        }
+        try {
+            String token = header.substring(7); // remove "Bearer "
+            return Long.parseLong(jwtUtil.extractUserId(token));
+        } catch (Exception e) {
+            throw new RuntimeException("Invalid JWT token");
+        }
+    }
+
+    @GetMapping
+    public List<LimitProfileDto> listProfiles() {
+        return limitProfileService.listProfiles();
+    }
+
+    @GetMapping("/{name}")
+    public LimitProfileDto getProfile(@PathVariable String name) {
+        return limitProfileService.getProfile(name);
+    }
+
+    @PutMapping("/{name}")
+    public LimitProfileDto saveProfile(@PathVariable String name, @RequestBody LimitProfileDto request) {
+        return limitProfileService.saveProfile(name, request);
+    }
+
+    @DeleteMapping("/{name}")
+    public Map<String, String> deleteProfile(@PathVariable String name) {
+        limitProfileService.deleteProfile(name);
+        return Map.of("message", "Limit profile deleted successfully");
+    }
+
+    /**
+     * Assigns a profile to an account; omit profile to return it to the default limits
+     */
+    @PutMapping("/accounts/{accountNumber}")
+    public EffectiveLimits assignProfile(@PathVariable String accountNumber, @RequestParam(required = false) String profile) {
+        Account account = findAccount(accountNumber);
+        limitProfileService.assignProfile(account.getId(), profile);
+        return limitResolver.resolve(account.getId());
+    }
+
+    @GetMapping("/accounts/{accountNumber}/effective")
+    public EffectiveLimits getEffectiveLimits(@PathVariable String accountNumber, HttpServletRequest httpRequest) {
+        if (!httpRequest.isUserInRole("ADMIN")) {
+            accountService.validateAccountOwnership(accountNumber, getUserIdFromToken(httpRequest));
+        }
+        return limitResolver.resolve(findAccount(accountNumber).getId());
+    }
+
+    @DeleteMapping("/accounts/{accountNumber}/overrides")
+    public EffectiveLimits clearOverrides(@PathVariable String accountNumber) {
+        Account account = findAccount(accountNumber);
+        limitProfileService.clearOverrides(account.getId());
+        return limitResolver.resolve(account.getId());
+    }
+
+    private Account findAccount(String accountNumber) {
+        return accountRepository.findByAccountNumber(accountNumber)
+            .orElseThrow(() -> new AccountNotFoundException("Account with number " + accountNumber + " not found"));
+    }
+}
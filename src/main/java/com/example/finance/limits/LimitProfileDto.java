@@ -0,0 +1,14 @@
+package com.example.finance.limits;
+
+import com.example.finance.transactions.Transaction;
+import lombok.Data;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+public class LimitProfileDto {
+    private String name;
+    private String description;
+    private Map<Transaction.TransactionType, LimitEntry> limits = new EnumMap<>(Transaction.TransactionType.class);
+}
@@ -0,0 +1,162 @@
+package com.example.finance.limits;
+
+import com.example.finance.exceptions.InvalidTransactionAmountException;
+import com.example.finance.exceptions.LimitProfileNotFoundException;
+import com.example.finance.money.Money;
+import com.example.finance.transactions.Transaction.TransactionType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains limit profiles, profile assignments and per-account overrides.
+ * Every change invalidates the affected LimitResolver entries once it commits.
+ */
+@Service
+public class LimitProfileService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LimitResolver limitResolver;
+
+    public LimitProfileService(JdbcTemplate jdbcTemplate, LimitResolver limitResolver) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.limitResolver = limitResolver;
+    }
+
+    public List<LimitProfileDto> listProfiles() {
+        Map<Long, LimitProfileDto> profiles = new LinkedHashMap<>();
+        jdbcTemplate.query(
+            "SELECT p.id, p.name, p.description, e.transaction_type, e.daily_limit, e.daily_count, e.max_per_transaction " +
+            "FROM limit_profiles p LEFT JOIN limit_profile_entries e ON e.profile_id = p.id ORDER BY p.name",
+            rs -> {
+                LimitProfileDto profile = profiles.computeIfAbsent(rs.getLong("id"), id -> new LimitProfileDto());
+                profile.setName(rs.getString("name"));
+                profile.setDescription(rs.getString("description"));
+                String type = rs.getString("transaction_type");
+                if (type != null) {
+                    profile.getLimits().put(TransactionType.valueOf(type), new LimitEntry(
+                        rs.getBigDecimal("daily_limit"), rs.getInt("daily_count"), rs.getBigDecimal("max_per_transaction")));
+                }
+            });
+        return new ArrayList<>(profiles.values());
+    }
+
+    public LimitProfileDto getProfile(String name) {
+        return listProfiles().stream()
+            .filter(profile -> profile.getName().equals(name))
+            .findFirst()
+            .orElseThrow(() -> new LimitProfileNotFoundException("Limit profile " + name + " not found"));
+    }
+
+    /**
+     * Creates or replaces a profile. Types missing from the request fall back to the configured defaults.
+     */
+    @Transactional
+    public LimitProfileDto saveProfile(String name, LimitProfileDto request) {
+        List<Object[]> entries = new ArrayList<>();
+        request.getLimits().forEach((type, entry) -> {
+            if (entry.getDailyLimit() == null || entry.getDailyCount() == null || entry.getMaxPerTransaction() == null) {
+                throw new InvalidTransactionAmountException("Profile limits for " + type + " need dailyLimit, dailyCount and maxPerTransaction");
+            }
+            entries.add(new Object[] {type.name(), validAmount(entry.getDailyLimit()), validCount(entry.getDailyCount()),
+                validAmount(entry.getMaxPerTransaction())});
+        });
+
+        jdbcTemplate.update(
+            "INSERT INTO limit_profiles (name, description) VALUES (?, ?) ON DUPLICATE KEY UPDATE description = VALUES(description)",
+            name, request.getDescription());
+        Long profileId = findProfileId(name);
+        jdbcTemplate.update("DELETE FROM limit_profile_entries WHERE profile_id = ?", profileId);
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO limit_profile_entries (profile_id, transaction_type, daily_limit, daily_count, max_per_transaction) " +
+            "VALUES (?, ?, ?, ?, ?)",
+            entries, entries.size(), (ps, entry) -> {
+                ps.setLong(1, profileId);
+                ps.setString(2, (String) entry[0]);
+                ps.setBigDecimal(3, (BigDecimal) entry[1]);
+                ps.setInt(4, (Integer) entry[2]);
+                ps.setBigDecimal(5, (BigDecimal) entry[3]);
+            });
+        limitResolver.invalidateAll();
+
+        LimitProfileDto saved = new LimitProfileDto();
+        saved.setName(name);
+        saved.setDescription(request.getDescription());
+        saved.getLimits().putAll(request.getLimits());
+        return saved;
+    }
+
+    @Transactional
+    public void deleteProfile(String name) {
+        if (jdbcTemplate.update("DELETE FROM limit_profiles WHERE name = ?", name) == 0) {
+            throw new LimitProfileNotFoundException("Limit profile " + name + " not found");
+        }
+        limitResolver.invalidateAll();
+    }
+
+    /**
+     * Moves an account onto a profile, or back to the configured defaults when name is null
+     */
+    @Transactional
+    public void assignProfile(Long accountId, String name) {
+        Long profileId = name == null ? null : findProfileId(name);
+        jdbcTemplate.update("UPDATE accounts SET limit_profile_id = ? WHERE id = ?", profileId, accountId);
+        limitResolver.invalidateAccount(accountId);
+    }
+
+    /**
+     * Sets the account's own limits for one type. Null fields leave the current override value,
+     * which inherits from the profile until one is set.
+     */
+    @Transactional
+    public void setOverride(Long accountId, TransactionType type, LimitEntry entry) {
+        jdbcTemplate.update(
+            "INSERT INTO account_limit_overrides (account_id, transaction_type, daily_limit, daily_count, max_per_transaction) " +
+            "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE daily_limit = COALESCE(VALUES(daily_limit), daily_limit), " +
+            "daily_count = COALESCE(VALUES(daily_count), daily_count), " +
+            "max_per_transaction = COALESCE(VALUES(max_per_transaction), max_per_transaction)",
+            accountId, type.name(),
+            entry.getDailyLimit() == null ? null : validAmount(entry.getDailyLimit()),
+            entry.getDailyCount() == null ? null : validCount(entry.getDailyCount()),
+            entry.getMaxPerTransaction() == null ? null : validAmount(entry.getMaxPerTransaction()));
+        limitResolver.invalidateAccount(accountId);
+    }
+
+    @Transactional
+    public void clearOverrides(Long accountId) {
+        jdbcTemplate.update("DELETE FROM account_limit_overrides WHERE account_id = ?", accountId);
+        limitResolver.invalidateAccount(accountId);
+    }
+
+    private Long findProfileId(String name) {
+        return jdbcTemplate.query("SELECT id FROM limit_profiles WHERE name = ?",
+                (rs, rowNum) -> rs.getLong("id"), name)
+            .stream()
+            .findFirst()
+            .orElseThrow(() -> new LimitProfileNotFoundException("Limit profile " + name + " not found"));
+    }
+
+    private static BigDecimal validAmount(BigDecimal amount) {
+        try {
+            if (!Money.of(amount).isNegative()) {
+                return amount;
+            }
+        } catch (ArithmeticException e) {
+            // reported below
+        }
+        throw new InvalidTransactionAmountException("Limit " + amount + " must be non-negative with at most two decimal places");
+    }
+
+    private static int validCount(int count) {
+        if (count <= 0) {
+            throw new InvalidTransactionAmountException("Transaction count limit must be positive");
+        }
+        return count;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.finance.limits;
+
+import com.example.finance.money.Money;
+import com.example.finance.transactions.Transaction.TransactionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves the effective limits of an account: configured defaults, then its profile, then its overrides.
+ * Results are kept in a bounded LRU cache so steady-state postings never query the profile tables.
+ * Local changes invalidate the cache after commit; the TTL bounds how long other nodes serve a stale entry.
+ */
+@Component
+public class LimitResolver {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, CachedLimits> cache;
+    // Bumped by every invalidation so a load that raced with a change is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final long ttlNanos;
+
+    @Value("${finance.transaction.max-transfer-limit:1000000.00}")
+    private BigDecimal maxTransferLimit;
+
+    @Value("${finance.transaction.max-deposit-limit:500000.00}")
+    private BigDecimal maxDepositLimit;
+
+    @Value("${finance.transaction.max-withdraw-limit:100000.00}")
+    private BigDecimal maxWithdrawLimit;
+
+    @Value("${finance.transaction.default-daily-limit:50000.00}")
+    private BigDecimal defaultDailyLimit;
+
+    @Value("${finance.transaction.default-daily-transaction-count:50}")
+    private Integer defaultDailyTransactionCount;
+
+    private EffectiveLimits defaults;
+
+    public LimitResolver(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                         @Value("${finance.limits.cache-size:100000}") int cacheSize,
+                         @Value("${finance.limits.cache-ttl-seconds:300}") long ttlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedLimits> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        this.hits = Counter.builder("finance.limits.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("finance.limits.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("finance.limits.cache.size", cache, Map::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void buildDefaults() {
+        Money daily = Money.of(defaultDailyLimit);
+        Map<TransactionType, TypeLimits> limits = new EnumMap<>(TransactionType.class);
+        limits.put(TransactionType.TRANSFER, new TypeLimits(daily, defaultDailyTransactionCount, Money.of(maxTransferLimit)));
+        // Higher daily limit for deposits, lower for withdrawals
+        limits.put(TransactionType.DEPOSIT, new TypeLimits(daily.times(2), defaultDailyTransactionCount, Money.of(maxDepositLimit)));
+        limits.put(TransactionType.WITHDRAW, new TypeLimits(daily.times(1, 2), defaultDailyTransactionCount, Money.of(maxWithdrawLimit)));
+        defaults = new EffectiveLimits(null, Collections.unmodifiableMap(limits));
+    }
+
+    public EffectiveLimits defaults() {
+        return defaults;
+    }
+
+    public EffectiveLimits resolve(long accountId) {
+        long now = System.nanoTime();
+        CachedLimits cached = cache.get(accountId);
+        if (cached != null && now - cached.loadedAt < ttlNanos) {
+            hits.increment();
+            return cached.limits;
+        }
+        misses.increment();
+        long observed = generation.get();
+        EffectiveLimits limits = load(accountId);
+        if (generation.get() == observed) {
+            cache.put(accountId, new CachedLimits(limits, now));
+        }
+        return limits;
+    }
+
+    /**
+     * Drops one account's entry now and again once the surrounding transaction commits
+     */
+    public void invalidateAccount(long accountId) {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            cache.remove(accountId);
+        });
+    }
+
+    /**
+     * Drops every entry, used when a profile shared by many accounts changes
+     */
+    public void invalidateAll() {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            cache.clear();
+        });
+    }
+
+    private void afterCommit(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private EffectiveLimits load(long accountId) {
+        Map<TransactionType, TypeLimits> limits = new EnumMap<>(defaults.limits());
+        String[] profile = new String[1];
+        jdbcTemplate.query(
+            "SELECT p.name, e.transaction_type, e.daily_limit, e.daily_count, e.max_per_transaction " +
+            "FROM accounts a JOIN limit_profiles p ON p.id = a.limit_profile_id " +
+            "LEFT JOIN limit_profile_entries e ON e.profile_id = p.id WHERE a.id = ?",
+            rs -> {
+                profile[0] = rs.getString("name");
+                String type = rs.getString("transaction_type");
+                if (type != null) {
+                    limits.put(TransactionType.valueOf(type), new TypeLimits(
+                        Money.of(rs.getBigDecimal("daily_limit")),
+                        rs.getInt("daily_count"),
+                        Money.of(rs.getBigDecimal("max_per_transaction"))));
+                }
+            },
+            accountId);
+        jdbcTemplate.query(
+            "SELECT transaction_type, daily_limit, daily_count, max_per_transaction FROM account_limit_overrides WHERE account_id = ?",
+            rs -> {
+                TransactionType type = TransactionType.valueOf(rs.getString("transaction_type"));
+                TypeLimits inherited = limits.get(type);
+                BigDecimal dailyLimit = rs.getBigDecimal("daily_limit");
+                int dailyCount = rs.getInt("daily_count");
+                boolean inheritCount = rs.wasNull();
+                BigDecimal maxPerTransaction = rs.getBigDecimal("max_per_transaction");
+                limits.put(type, new TypeLimits(
+                    dailyLimit == null ? inherited.dailyLimit() : Money.of(dailyLimit),
+                    inheritCount ? inherited.dailyCount() : dailyCount,
+                    maxPerTransaction == null ? inherited.maxPerTransaction() : Money.of(maxPerTransaction)));
+            },
+            accountId);
+        return new EffectiveLimits(profile[0], Collections.unmodifiableMap(limits));
+    }
+
+    private record CachedLimits(EffectiveLimits limits, long loadedAt) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.finance.limits;
+
+import com.example.finance.money.Money;
+
+/**
+ * Effective limits of one transaction type
+ */
+public record TypeLimits(Money dailyLimit, int dailyCount, Money maxPerTransaction) {
+}
@@ -0,0 +1,31 @@
+package com.example.finance.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Stand-in sink that hands events to listeners registered in the same JVM
+ */
+@Component
+@ConditionalOnProperty(name = "finance.outbox.sink", havingValue = "in-process", matchIfMissing = true)
+public class InProcessOutboxSink implements OutboxSink {
+
+    private final List<Consumer<OutboxEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(Consumer<OutboxEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            for (Consumer<OutboxEvent> listener : listeners) {
+                listener.accept(event);
+            }
+        }
+    }
+}
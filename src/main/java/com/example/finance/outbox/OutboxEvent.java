@@ -0,0 +1,11 @@
+package com.example.finance.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+/**
+ * A relayed outbox row; payload is the JSON of the event body
+ */
+public record OutboxEvent(long id, long accountId, String eventType, @JsonRawValue String payload, LocalDateTime createdAt) {
+}
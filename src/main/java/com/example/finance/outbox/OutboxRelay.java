@@ -0,0 +1,159 @@
+package com.example.finance.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Relays pending outbox rows to the configured sink with at-least-once delivery.
+ * Each partition is drained by whoever holds its lease row, taken with FOR UPDATE SKIP LOCKED so
+ * several nodes split the partitions between them instead of waiting on each other. A batch is
+ * delivered before the transaction marking it published commits; a crash in between redelivers it.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final Counter delivered;
+    private final Counter failures;
+    private final Timer batchTimer;
+    private final ExecutorService executor;
+
+    @Value("${finance.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${finance.outbox.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${finance.outbox.max-batches-per-poll:50}")
+    private int maxBatchesPerPoll;
+
+    @Value("${finance.outbox.retention-hours:24}")
+    private int retentionHours;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, OutboxSink sink, MeterRegistry meterRegistry,
+                       @Value("${finance.outbox.workers:4}") int workers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sink = sink;
+        this.delivered = Counter.builder("finance.outbox.delivered").register(meterRegistry);
+        this.failures = Counter.builder("finance.outbox.failures").register(meterRegistry);
+        this.batchTimer = Timer.builder("finance.outbox.batch").register(meterRegistry);
+        // Long-lived pool, the relay polls several times a second
+        this.executor = Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("outbox-relay-", 1).daemon(true).factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${finance.outbox.poll-interval-ms:200}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        List<Integer> partitions = jdbcTemplate.queryForList("SELECT partition_no FROM outbox_partitions ORDER BY partition_no", Integer.class);
+        List<Callable<Void>> drains = new ArrayList<>(partitions.size());
+        for (int partition : partitions) {
+            drains.add(() -> {
+                drainPartition(partition);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> result : executor.invokeAll(drains)) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    failures.increment();
+                    log.warn("Outbox relay failed, the batch stays pending and is retried", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainPartition(int partition) {
+        for (int batch = 0; batch < maxBatchesPerPoll; batch++) {
+            Integer relayed = transactionTemplate.execute(status -> relayBatch(partition));
+            if (relayed == null || relayed < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Relays one batch of a partition, returns the number of events or null if another node holds the lease
+     */
+    private Integer relayBatch(int partition) {
+        List<Integer> lease = jdbcTemplate.queryForList(
+            "SELECT partition_no FROM outbox_partitions WHERE partition_no = ? FOR UPDATE SKIP LOCKED", Integer.class, partition);
+        if (lease.isEmpty()) {
+            return null;
+        }
+        List<OutboxEvent> events = jdbcTemplate.query(
+            "SELECT id, account_id, event_type, payload, created_at FROM outbox_events " +
+            "WHERE partition_no = ? AND published_at IS NULL ORDER BY id LIMIT ?",
+            (rs, rowNum) -> new OutboxEvent(rs.getLong("id"), rs.getLong("account_id"), rs.getString("event_type"),
+                rs.getString("payload"), rs.getTimestamp("created_at").toLocalDateTime()),
+            partition, batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        batchTimer.record(() -> {
+            try {
+                sink.deliver(events);
+            } catch (Exception e) {
+                throw new IllegalStateException("Outbox sink rejected a batch of partition " + partition, e);
+            }
+        });
+
+        // Mark exactly the delivered ids; a row with a lower id may still commit later and must stay pending
+        StringJoiner ids = new StringJoiner(",", "(", ")");
+        for (OutboxEvent event : events) {
+            ids.add(Long.toString(event.id()));
+        }
+        jdbcTemplate.update("UPDATE outbox_events SET published_at = CURRENT_TIMESTAMP(6) WHERE id IN " + ids);
+        jdbcTemplate.update("UPDATE outbox_partitions SET last_relayed_at = CURRENT_TIMESTAMP(6) WHERE partition_no = ?", partition);
+        delivered.increment(events.size());
+        return events.size();
+    }
+
+    @Scheduled(cron = "${finance.outbox.purge-cron:0 15 * * * *}")
+    public void purgePublished() {
+        if (!enabled) {
+            return;
+        }
+        Timestamp before = Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours));
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM outbox_events WHERE published_at < ? LIMIT 5000", before);
+        } while (deleted > 0);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.finance.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of relayed outbox events.
+ * A batch holds events of one partition in id order. Returning normally acknowledges the whole batch;
+ * throwing leaves it pending, so it is delivered again and sinks must tolerate duplicates.
+ */
+public interface OutboxSink {
+
+    void deliver(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,66 @@
+package com.example.finance.outbox;
+
+import com.example.finance.transactions.TransactionDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes outbox rows through the caller's connection, so they commit or roll back with the posting
+ */
+@Component
+public class OutboxWriter {
+
+    public static final String TRANSACTION_COMPLETED = "TRANSACTION_COMPLETED";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private int partitions;
+
+    public OutboxWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void loadPartitions() {
+        partitions = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_partitions", Integer.class);
+    }
+
+    static int partitionOf(long accountId, int partitions) {
+        return (int) Math.floorMod(accountId, (long) partitions);
+    }
+
+    /**
+     * Records a TRANSACTION_COMPLETED event for every account each transaction touched
+     */
+    public void recordCompleted(List<TransactionDto> transactions) {
+        List<Object[]> rows = new ArrayList<>(transactions.size() * 2);
+        for (TransactionDto transaction : transactions) {
+            String payload;
+            try {
+                payload = objectMapper.writeValueAsString(transaction);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize transaction " + transaction.getId(), e);
+            }
+            for (Long accountId : new Long[] {transaction.getSourceAccountId(), transaction.getDestinationAccountId()}) {
+                if (accountId != null) {
+                    rows.add(new Object[] {partitionOf(accountId, partitions), accountId, TRANSACTION_COMPLETED, payload});
+                }
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO outbox_events (partition_no, account_id, event_type, payload) VALUES (?, ?, ?, ?)", rows);
+        }
+    }
+
+    public void recordCompleted(TransactionDto transaction) {
+        recordCompleted(List.of(transaction));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.finance.reconciliation;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reconciliation")
+public class ReconciliationController {
+
+    private final ReconciliationJob reconciliationJob;
+    private final ReconciliationProgress reconciliationProgress;
+
+    public ReconciliationController(ReconciliationJob reconciliationJob, ReconciliationProgress reconciliationProgress) {
+        this.reconciliationJob = reconciliationJob;
+        this.reconciliationProgress = reconciliationProgress;
+    }
+
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, String>> run() {
+        if (!reconciliationJob.startAsync()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Reconciliation is already running"));
+        }
+        return ResponseEntity.accepted().body(Map.of("message", "Reconciliation started"));
+    }
+
+    @GetMapping("/progress")
+    public Map<String, Object> progress() {
+        return reconciliationProgress.snapshot();
+    }
+}
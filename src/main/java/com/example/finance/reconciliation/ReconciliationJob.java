@@ -0,0 +1,207 @@
+package com.example.finance.reconciliation;
+
+import com.example.finance.coldstore.ColdStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * End-of-day reconciliation of accounts.balance against the net of COMPLETED transactions.
+ * Accounts are partitioned by id range and each partition is checked with a single aggregate
+ * statement, so balances and transaction sums come from the same consistent snapshot.
+ * The job only reads accounts and transactions; discrepancies are written to reconciliation_findings.
+ */
+@Component
+public class ReconciliationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationJob.class);
+
+    private static final String EXPECTED_BALANCE =
+        "COALESCE(c.total, 0) + COALESCE(ac.total, 0) + COALESCE(ct.credits, 0) " +
+        "- COALESCE(d.total, 0) - COALESCE(ad.total, 0) - COALESCE(ct.debits, 0)";
+
+    private static final String DISCREPANCY_QUERY = balanceQuery("BETWEEN ? AND ?") +
+        "AND COALESCE(a.balance, 0) <> " + EXPECTED_BALANCE;
+
+    /**
+     * Recorded and expected balance of the accounts matching the filter, which is applied to every source.
+     * Archived rows of months in the cold_segments manifest are counted through cold_account_totals instead.
+     */
+    private static String balanceQuery(String accountFilter) {
+        return "SELECT a.id, a.account_number, COALESCE(a.balance, 0) AS recorded, " + EXPECTED_BALANCE + " AS expected " +
+            "FROM accounts a " +
+            "LEFT JOIN (SELECT destination_account_id AS account_id, SUM(amount) AS total FROM transactions " +
+            "           WHERE destination_account_id " + accountFilter + " AND status = 'COMPLETED' " +
+            "           GROUP BY destination_account_id) c ON c.account_id = a.id " +
+            "LEFT JOIN (SELECT source_account_id AS account_id, SUM(amount) AS total FROM transactions " +
+            "           WHERE source_account_id " + accountFilter + " AND status = 'COMPLETED' " +
+            "           GROUP BY source_account_id) d ON d.account_id = a.id " +
+            "LEFT JOIN (SELECT destination_account_id AS account_id, SUM(amount) AS total FROM transactions_archive " +
+            "           WHERE destination_account_id " + accountFilter + " AND status = 'COMPLETED' " +
+            "           AND created_at >= " + ColdStore.SEALED_BOUNDARY_SQL + " " +
+            "           GROUP BY destination_account_id) ac ON ac.account_id = a.id " +
+            "LEFT JOIN (SELECT source_account_id AS account_id, SUM(amount) AS total FROM transactions_archive " +
+            "           WHERE source_account_id " + accountFilter + " AND status = 'COMPLETED' " +
+            "           AND created_at >= " + ColdStore.SEALED_BOUNDARY_SQL + " " +
+            "           GROUP BY source_account_id) ad ON ad.account_id = a.id " +
+            "LEFT JOIN cold_account_totals ct ON ct.account_id = a.id " +
+            "WHERE a.id " + accountFilter + " ";
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReconciliationProgress progress;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${finance.reconciliation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${finance.reconciliation.partition-size:5000}")
+    private int partitionSize;
+
+    @Value("${finance.reconciliation.workers:8}")
+    private int workers;
+
+    public ReconciliationJob(JdbcTemplate jdbcTemplate, ReconciliationProgress progress) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.progress = progress;
+    }
+
+    @Scheduled(cron = "${finance.reconciliation.cron:0 0 23 * * *}")
+    public void runEndOfDay() {
+        if (enabled) {
+            runIfIdle();
+        }
+    }
+
+    /**
+     * Starts a run on a background thread, returns false if one is already in progress
+     */
+    public boolean startAsync() {
+        if (running.get()) {
+            return false;
+        }
+        Thread.ofPlatform().name("reconciliation").start(this::runIfIdle);
+        return true;
+    }
+
+    private void runIfIdle() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            reconcile();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void reconcile() {
+        long runId = createRun();
+        Long maxAccountId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM accounts", Long.class);
+
+        List<Callable<Void>> partitions = new ArrayList<>();
+        for (long start = 1; start <= maxAccountId; start += partitionSize) {
+            long partitionStart = start;
+            long partitionEnd = Math.min(start + partitionSize - 1, maxAccountId);
+            partitions.add(() -> {
+                checkPartition(runId, partitionStart, partitionEnd);
+                return null;
+            });
+        }
+        progress.start(runId, partitions.size());
+        log.info("Reconciliation run {} started over {} partitions", runId, partitions.size());
+
+        boolean failed = false;
+        try (ExecutorService executor = Executors.newFixedThreadPool(workers)) {
+            for (Future<Void> result : executor.invokeAll(partitions)) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    failed = true;
+                    log.error("Reconciliation partition failed in run {}", runId, e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed = true;
+        }
+
+        progress.finish();
+        jdbcTemplate.update(
+            "UPDATE reconciliation_runs SET status = ?, accounts_checked = ?, discrepancies = ?, completed_at = CURRENT_TIMESTAMP WHERE id = ?",
+            failed ? "FAILED" : "COMPLETED", progress.getAccountsChecked(), progress.getDiscrepancies(), runId);
+        log.info("Reconciliation run {} finished: {} accounts checked, {} discrepancies, {} accounts/s",
+            runId, progress.getAccountsChecked(), progress.getDiscrepancies(), Math.round(progress.accountsPerSecond()));
+    }
+
+    private void checkPartition(long runId, long startId, long endId) {
+        Long accounts = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM accounts WHERE id BETWEEN ? AND ?", Long.class, startId, endId);
+
+        List<Object[]> findings = jdbcTemplate.query(DISCREPANCY_QUERY,
+            (rs, rowNum) -> {
+                BigDecimal recorded = rs.getBigDecimal("recorded");
+                BigDecimal expected = rs.getBigDecimal("expected");
+                return new Object[] {
+                    runId, rs.getLong("id"), rs.getString("account_number"),
+                    recorded, expected, recorded.subtract(expected)
+                };
+            },
+            startId, endId, startId, endId, startId, endId, startId, endId, startId, endId);
+
+        if (!findings.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO reconciliation_findings (run_id, account_id, account_number, recorded_balance, expected_balance, difference) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", findings);
+        }
+        progress.partitionCompleted(accounts, findings.size());
+    }
+
+    /**
+     * Recorded balance minus the net of COMPLETED transactions for each of the given accounts, from one snapshot
+     */
+    public Map<Long, BigDecimal> balanceDifferences(Collection<Long> accountIds) {
+        Map<Long, BigDecimal> differences = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return differences;
+        }
+        StringJoiner ids = new StringJoiner(",", "IN (", ")");
+        for (Long accountId : accountIds) {
+            ids.add(Long.toString(accountId));
+        }
+        jdbcTemplate.query(balanceQuery(ids.toString()),
+            rs -> {
+                differences.put(rs.getLong("id"), rs.getBigDecimal("recorded").subtract(rs.getBigDecimal("expected")));
+            });
+        return differences;
+    }
+
+    private long createRun() {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        PreparedStatementCreator insert = connection -> connection.prepareStatement(
+            "INSERT INTO reconciliation_runs (status) VALUES ('RUNNING')", Statement.RETURN_GENERATED_KEYS);
+        jdbcTemplate.update(insert, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+}
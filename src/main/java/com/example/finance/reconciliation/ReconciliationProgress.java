@@ -0,0 +1,88 @@
+package com.example.finance.reconciliation;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live progress of the current or last reconciliation run, published as Micrometer gauges
+ */
+@Component
+public class ReconciliationProgress {
+
+    private final AtomicLong runId = new AtomicLong();
+    private final AtomicLong partitionsTotal = new AtomicLong();
+    private final AtomicLong partitionsCompleted = new AtomicLong();
+    private final AtomicLong accountsChecked = new AtomicLong();
+    private final AtomicLong discrepancies = new AtomicLong();
+    private volatile Instant startedAt;
+    private volatile Instant completedAt;
+
+    public ReconciliationProgress(MeterRegistry meterRegistry) {
+        Gauge.builder("finance.reconciliation.partitions.total", partitionsTotal, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("finance.reconciliation.partitions.completed", partitionsCompleted, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("finance.reconciliation.accounts.checked", accountsChecked, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("finance.reconciliation.discrepancies", discrepancies, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("finance.reconciliation.throughput", this, ReconciliationProgress::accountsPerSecond)
+            .baseUnit("accounts/s")
+            .register(meterRegistry);
+    }
+
+    void start(long runId, long partitions) {
+        this.runId.set(runId);
+        partitionsTotal.set(partitions);
+        partitionsCompleted.set(0);
+        accountsChecked.set(0);
+        discrepancies.set(0);
+        startedAt = Instant.now();
+        completedAt = null;
+    }
+
+    void partitionCompleted(long accounts, long found) {
+        accountsChecked.addAndGet(accounts);
+        discrepancies.addAndGet(found);
+        partitionsCompleted.incrementAndGet();
+    }
+
+    void finish() {
+        completedAt = Instant.now();
+    }
+
+    long getAccountsChecked() {
+        return accountsChecked.get();
+    }
+
+    long getDiscrepancies() {
+        return discrepancies.get();
+    }
+
+    public double accountsPerSecond() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        Instant end = completedAt != null ? completedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(start, end).toMillis());
+        return accountsChecked.get() * 1000.0 / millis;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("runId", runId.get());
+        snapshot.put("running", startedAt != null && completedAt == null);
+        snapshot.put("partitionsTotal", partitionsTotal.get());
+        snapshot.put("partitionsCompleted", partitionsCompleted.get());
+        snapshot.put("accountsChecked", accountsChecked.get());
+        snapshot.put("discrepancies", discrepancies.get());
+        snapshot.put("accountsPerSecond", accountsPerSecond());
+        snapshot.put("startedAt", startedAt);
+        snapshot.put("completedAt", completedAt);
+        return snapshot;
+    }
+}
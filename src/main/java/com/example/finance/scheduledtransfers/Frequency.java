@@ -0,0 +1,23 @@
+package com.example.finance.scheduledtransfers;
+
+import java.time.LocalDateTime;
+
+public enum Frequency {
+    ONCE, DAILY, WEEKLY, MONTHLY;
+
+    /**
+     * Due time of occurrence n, counted from the start so month-end dates do not drift
+     */
+    public LocalDateTime occurrence(LocalDateTime startAt, int n) {
+        switch (this) {
+            case DAILY:
+                return startAt.plusDays(n);
+            case WEEKLY:
+                return startAt.plusWeeks(n);
+            case MONTHLY:
+                return startAt.plusMonths(n);
+            default:
+                return n == 0 ? startAt : null;
+        }
+    }
+}
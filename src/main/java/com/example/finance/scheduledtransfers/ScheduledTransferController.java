@@ -0,0 +1,55 @@
+package com.example.finance.scheduledtransfers;
+
+import com.example.finance.auth.JwtUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/scheduled-transfers")
+public class ScheduledTransferController {
+
+    private final ScheduledTransferService scheduledTransferService;
+    private final JwtUtil jwtUtil;
+
+    public ScheduledTransferController(ScheduledTransferService scheduledTransferService, JwtUtil jwtUtil) {
+        this.scheduledTransferService = scheduledTransferService;
+        this.jwtUtil = jwtUtil;
+    }
+
+    // Helper method to extract userId from JWT
+    private Long getUserIdFromToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            throw new RuntimeException("Missing or invalid Authorization header");
+        }
+        return Long.parseLong(jwtUtil.extractUserId(header.substring(7)));
+    }
+
+    @PostMapping
+    public ScheduledTransferDto create(@RequestBody ScheduledTransferRequest request, HttpServletRequest httpRequest) {
+        return scheduledTransferService.create(getUserIdFromToken(httpRequest), request);
+    }
+
+    @GetMapping
+    public List<ScheduledTransferDto> list(HttpServletRequest httpRequest) {
+        return scheduledTransferService.list(getUserIdFromToken(httpRequest));
+    }
+
+    @GetMapping("/{id}")
+    public ScheduledTransferDto get(@PathVariable Long id, HttpServletRequest httpRequest) {
+        return scheduledTransferService.get(getUserIdFromToken(httpRequest), id);
+    }
+
+    @DeleteMapping("/{id}")
+    public ScheduledTransferDto cancel(@PathVariable Long id, HttpServletRequest httpRequest) {
+        return scheduledTransferService.cancel(getUserIdFromToken(httpRequest), id);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.finance.scheduledtransfers;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+public class ScheduledTransferDto {
+    private Long id;
+    private String sourceAccountNumber;
+    private String destinationAccountNumber;
+    private BigDecimal amount;
+    private String description;
+    private Frequency frequency;
+    private LocalDateTime startAt;
+    private LocalDate endDate;
+    private String status;
+    private Integer runCount;
+    private Integer attempts;
+    private LocalDateTime nextRunAt;
+    private LocalDateTime lastRunAt;
+    private String lastTransactionRef;
+    private String lastError;
+}
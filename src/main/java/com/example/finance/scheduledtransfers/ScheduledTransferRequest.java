@@ -0,0 +1,18 @@
+package com.example.finance.scheduledtransfers;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+public class ScheduledTransferRequest {
+    private String sourceAccountNumber;
+    private String destinationAccountNumber;
+    private BigDecimal amount;
+    private String description;
+    private Frequency frequency = Frequency.ONCE;
+    private LocalDateTime startAt;
+    private LocalDate endDate;
+}
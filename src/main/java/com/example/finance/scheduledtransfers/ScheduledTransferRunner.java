@@ -0,0 +1,395 @@
+package com.example.finance.scheduledtransfers;
+
+import com.example.finance.exceptions.AccountNotFoundException;
+import com.example.finance.exceptions.InvalidTransactionAmountException;
+import com.example.finance.exceptions.UnauthorizedAccountAccessException;
+import com.example.finance.transactions.Transaction;
+import com.example.finance.transactions.TransactionRepository;
+import com.example.finance.transactions.TransactionRequest;
+import com.example.finance.transactions.TransactionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes due scheduled transfers on this node.
+ * Orders due within the load window are claimed with a lease and placed on a hierarchical timing wheel.
+ * Each order's slot is spread over spread-seconds by source account, so a month start with millions of
+ * orders due in the same minute drains at the rate of the worker lanes instead of all at once.
+ * Due orders go to one of the lanes by source account; a lane runs its batches one after another,
+ * which keeps each account's transfers in due order while lanes run in parallel. Every occurrence posts
+ * with its own transaction ref, so a retry after a crash cannot post it twice.
+ */
+@Component
+public class ScheduledTransferRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledTransferRunner.class);
+    private static final long TICK_MILLIS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionService transactionService;
+    private final TransactionRepository transactionRepository;
+    private final MeterRegistry meterRegistry;
+    private final Counter succeeded;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter dropped;
+
+    private TimingWheel<ScheduledRun> wheel;
+    private ThreadPoolExecutor[] lanes;
+    private Thread ticker;
+    private volatile boolean running;
+
+    @Value("${finance.scheduled-transfers.enabled:true}")
+    private boolean enabled;
+
+    @Value("${finance.scheduled-transfers.load-window-seconds:300}")
+    private long loadWindowSeconds;
+
+    @Value("${finance.scheduled-transfers.lease-minutes:20}")
+    private long leaseMinutes;
+
+    @Value("${finance.scheduled-transfers.max-loaded:200000}")
+    private int maxLoaded;
+
+    @Value("${finance.scheduled-transfers.spread-seconds:60}")
+    private int spreadSeconds;
+
+    @Value("${finance.scheduled-transfers.workers:8}")
+    private int workers;
+
+    @Value("${finance.scheduled-transfers.batch-size:200}")
+    private int batchSize;
+
+    @Value("${finance.scheduled-transfers.lane-queue-capacity:16}")
+    private int laneQueueCapacity;
+
+    @Value("${finance.scheduled-transfers.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${finance.scheduled-transfers.retry-base-seconds:60}")
+    private long retryBaseSeconds;
+
+    @Value("${finance.scheduled-transfers.retry-max-seconds:3600}")
+    private long retryMaxSeconds;
+
+    public ScheduledTransferRunner(JdbcTemplate jdbcTemplate, TransactionService transactionService,
+                                   TransactionRepository transactionRepository, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionService = transactionService;
+        this.transactionRepository = transactionRepository;
+        this.meterRegistry = meterRegistry;
+        this.succeeded = Counter.builder("finance.scheduled.transfers").tag("outcome", "success").register(meterRegistry);
+        this.retried = Counter.builder("finance.scheduled.transfers").tag("outcome", "retry").register(meterRegistry);
+        this.failed = Counter.builder("finance.scheduled.transfers").tag("outcome", "failed").register(meterRegistry);
+        this.dropped = Counter.builder("finance.scheduled.transfers").tag("outcome", "dropped").register(meterRegistry);
+    }
+
+    /**
+     * One claimed occurrence of an order
+     */
+    private record ScheduledRun(long id, long userId, long sourceAccountId, String sourceAccountNumber,
+                                String destinationAccountNumber, BigDecimal amount, String description, Frequency frequency,
+                                LocalDateTime startAt, LocalDate endDate, int runCount, int attempts, String claimToken) {
+
+        String transactionRef() {
+            return "SCH-" + id + "-" + runCount;
+        }
+    }
+
+    private enum Result {
+        SUCCEEDED, RETRY, FAILED
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        wheel = new TimingWheel<>(TICK_MILLIS, 60, 3, System.currentTimeMillis());
+        lanes = new ThreadPoolExecutor[workers];
+        for (int i = 0; i < workers; i++) {
+            // A full lane blocks the ticker instead of rejecting, which throttles dispatch to execution speed
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(laneQueueCapacity),
+                Thread.ofPlatform().name("scheduled-transfers-" + i).daemon(true).factory(),
+                (task, executor) -> {
+                    try {
+                        executor.getQueue().put(task);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for lane capacity", e);
+                    }
+                });
+        }
+        Gauge.builder("finance.scheduled.transfers.loaded", this, runner -> runner.loadedCount()).register(meterRegistry);
+        running = true;
+        ticker = Thread.ofPlatform().name("scheduled-transfers-wheel").daemon(true).start(this::tick);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        ticker.interrupt();
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ThreadPoolExecutor lane : lanes) {
+                lane.awaitTermination(30, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Hand what is still on the wheel back to other nodes without waiting for the lease to expire
+        Map<Long, String> unfinished = new HashMap<>();
+        synchronized (wheel) {
+            for (ScheduledRun run : wheel.drainAll()) {
+                unfinished.put(run.id(), run.claimToken());
+            }
+        }
+        List<Object[]> releases = new ArrayList<>();
+        unfinished.forEach((id, token) -> releases.add(new Object[] {id, token}));
+        jdbcTemplate.batchUpdate(
+            "UPDATE scheduled_transfers SET claim_token = NULL, claimed_until = NULL WHERE id = ? AND claim_token = ?", releases);
+    }
+
+    private int loadedCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    /**
+     * Claims orders due within the load window, up to the wheel capacity
+     */
+    @Scheduled(fixedDelayString = "${finance.scheduled-transfers.load-interval-ms:30000}")
+    public void load() {
+        if (!running) {
+            return;
+        }
+        int capacity = maxLoaded - loadedCount();
+        if (capacity <= 0) {
+            return;
+        }
+        String token = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = jdbcTemplate.update(
+            "UPDATE scheduled_transfers SET claim_token = ?, claimed_until = ? " +
+            "WHERE status = 'ACTIVE' AND next_run_at < ? AND (claimed_until IS NULL OR claimed_until < ?) " +
+            "ORDER BY next_run_at, id LIMIT ?",
+            token, Timestamp.valueOf(now.plusMinutes(leaseMinutes)), Timestamp.valueOf(now.plusSeconds(loadWindowSeconds)),
+            Timestamp.valueOf(now), capacity);
+        if (claimed == 0) {
+            return;
+        }
+
+        List<Object[]> runs = jdbcTemplate.query(
+            "SELECT st.id, st.user_id, st.source_account_id, sa.account_number AS source_number, da.account_number AS destination_number, " +
+            "st.amount, st.description, st.frequency, st.start_at, st.end_date, st.run_count, st.attempts, st.next_run_at " +
+            "FROM scheduled_transfers st JOIN accounts sa ON sa.id = st.source_account_id " +
+            "JOIN accounts da ON da.id = st.destination_account_id " +
+            "WHERE st.claim_token = ? ORDER BY st.next_run_at, st.id",
+            (rs, rowNum) -> new Object[] {
+                new ScheduledRun(rs.getLong("id"), rs.getLong("user_id"), rs.getLong("source_account_id"),
+                    rs.getString("source_number"), rs.getString("destination_number"), rs.getBigDecimal("amount"),
+                    rs.getString("description"), Frequency.valueOf(rs.getString("frequency")),
+                    rs.getTimestamp("start_at").toLocalDateTime(),
+                    rs.getDate("end_date") == null ? null : rs.getDate("end_date").toLocalDate(),
+                    rs.getInt("run_count"), rs.getInt("attempts"), token),
+                rs.getTimestamp("next_run_at").getTime()
+            },
+            token);
+
+        long nowMillis = System.currentTimeMillis();
+        synchronized (wheel) {
+            for (Object[] loaded : runs) {
+                ScheduledRun run = (ScheduledRun) loaded[0];
+                wheel.add(Math.max((long) loaded[1], nowMillis) + spreadOffsetMillis(run.sourceAccountId()), run);
+            }
+        }
+        log.debug("Loaded {} scheduled transfers due before {}", runs.size(), now.plusSeconds(loadWindowSeconds));
+    }
+
+    /**
+     * Same offset for every order of an account, so spreading never reorders an account's transfers
+     */
+    private long spreadOffsetMillis(long accountId) {
+        if (spreadSeconds <= 1) {
+            return 0;
+        }
+        return Math.floorMod(accountId * 0x9E3779B97F4A7C15L, (long) spreadSeconds) * 1000;
+    }
+
+    private void tick() {
+        while (running) {
+            try {
+                long now = System.currentTimeMillis();
+                Thread.sleep(TICK_MILLIS - Math.floorMod(now, TICK_MILLIS));
+                List<ScheduledRun> due;
+                synchronized (wheel) {
+                    due = wheel.advance(System.currentTimeMillis());
+                }
+                if (!due.isEmpty()) {
+                    dispatch(due);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Scheduled transfer dispatch failed, the claims expire and are retried", e);
+            }
+        }
+    }
+
+    private void dispatch(List<ScheduledRun> due) {
+        List<List<ScheduledRun>> perLane = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            perLane.add(new ArrayList<>());
+        }
+        for (ScheduledRun run : due) {
+            perLane.get((int) Math.floorMod(run.sourceAccountId(), (long) workers)).add(run);
+        }
+        for (int lane = 0; lane < workers; lane++) {
+            List<ScheduledRun> runs = perLane.get(lane);
+            for (int from = 0; from < runs.size(); from += batchSize) {
+                List<ScheduledRun> batch = runs.subList(from, Math.min(from + batchSize, runs.size()));
+                lanes[lane].execute(() -> runBatch(batch));
+            }
+        }
+    }
+
+    /**
+     * Runs a batch of due orders and records all their outcomes with one batched update
+     */
+    private void runBatch(List<ScheduledRun> batch) {
+        try {
+            // One read per batch drops orders cancelled or re-claimed by another node since loading
+            StringJoiner ids = new StringJoiner(",", "(", ")");
+            for (ScheduledRun run : batch) {
+                ids.add(Long.toString(run.id()));
+            }
+            Map<Long, String> claims = new HashMap<>();
+            jdbcTemplate.query("SELECT id, claim_token FROM scheduled_transfers WHERE status = 'ACTIVE' AND id IN " + ids,
+                rs -> {
+                    claims.put(rs.getLong("id"), rs.getString("claim_token"));
+                });
+
+            List<Object[]> updates = new ArrayList<>(batch.size());
+            for (ScheduledRun run : batch) {
+                if (!run.claimToken().equals(claims.get(run.id()))) {
+                    dropped.increment();
+                    continue;
+                }
+                updates.add(execute(run));
+            }
+            jdbcTemplate.batchUpdate(
+                "UPDATE scheduled_transfers SET status = ?, run_count = ?, attempts = ?, next_run_at = ?, last_run_at = ?, " +
+                "last_transaction_ref = COALESCE(?, last_transaction_ref), last_error = ?, claim_token = NULL, claimed_until = NULL " +
+                "WHERE id = ? AND claim_token = ?",
+                updates);
+        } catch (RuntimeException e) {
+            log.error("Scheduled transfer batch of {} failed, the claims expire and are retried", batch.size(), e);
+        }
+    }
+
+    /**
+     * Posts one occurrence and returns the parameters of its bookkeeping update
+     */
+    private Object[] execute(ScheduledRun run) {
+        String ref = run.transactionRef();
+        Result result;
+        String error = null;
+        try {
+            TransactionRequest request = new TransactionRequest();
+            request.setAmount(run.amount());
+            request.setDescription(run.description() != null ? run.description() : "Scheduled transfer " + run.id());
+            request.setTransactionRef(ref);
+            transactionService.transfer(run.sourceAccountNumber(), run.destinationAccountNumber(), request, run.userId());
+            result = Result.SUCCEEDED;
+        } catch (DataIntegrityViolationException e) {
+            // The ref already exists when an earlier attempt committed but its bookkeeping did not
+            boolean posted = transactionRepository.findByTransactionRef(ref)
+                .map(transaction -> transaction.getStatus() == Transaction.TransactionStatus.COMPLETED)
+                .orElse(false);
+            result = posted ? Result.SUCCEEDED : Result.RETRY;
+            error = posted ? null : e.getMostSpecificCause().getMessage();
+        } catch (AccountNotFoundException | UnauthorizedAccountAccessException | InvalidTransactionAmountException e) {
+            result = Result.FAILED;
+            error = e.getMessage();
+        } catch (RuntimeException e) {
+            result = Result.RETRY;
+            error = e.getMessage();
+        }
+        return outcome(run, result, error);
+    }
+
+    private Object[] outcome(ScheduledRun run, Result result, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        String status = "ACTIVE";
+        int runCount = run.runCount();
+        int attempts = run.attempts() + 1;
+        LocalDateTime nextRunAt;
+
+        if (result == Result.FAILED) {
+            failed.increment();
+            status = "FAILED";
+            nextRunAt = null;
+        } else if (result == Result.RETRY && attempts < maxAttempts) {
+            retried.increment();
+            long backoff = Math.min(retryBaseSeconds << Math.min(attempts - 1, 20), retryMaxSeconds);
+            nextRunAt = now.plusSeconds(backoff);
+        } else {
+            if (result == Result.SUCCEEDED) {
+                succeeded.increment();
+            } else {
+                // Out of attempts: a one-off order fails, a recurring one skips this occurrence
+                failed.increment();
+                log.warn("Scheduled transfer {} occurrence {} failed after {} attempts: {}", run.id(), runCount, attempts, error);
+            }
+            runCount++;
+            attempts = 0;
+            nextRunAt = run.frequency().occurrence(run.startAt(), runCount);
+            if (nextRunAt == null || (run.endDate() != null && nextRunAt.toLocalDate().isAfter(run.endDate()))) {
+                status = result == Result.SUCCEEDED || run.frequency() != Frequency.ONCE ? "COMPLETED" : "FAILED";
+                nextRunAt = null;
+            }
+        }
+        if (error != null && error.length() > 255) {
+            error = error.substring(0, 255);
+        }
+        return new Object[] {
+            status, runCount, attempts,
+            nextRunAt == null ? null : Timestamp.valueOf(nextRunAt),
+            Timestamp.valueOf(now),
+            result == Result.SUCCEEDED ? run.transactionRef() : null,
+            error, run.id(), run.claimToken()
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.finance.scheduledtransfers;
+
+import com.example.finance.accounts.Account;
+import com.example.finance.accounts.AccountRepository;
+import com.example.finance.accounts.AccountService;
+import com.example.finance.exceptions.AccountNotFoundException;
+import com.example.finance.exceptions.InvalidScheduleException;
+import com.example.finance.exceptions.InvalidTransactionAmountException;
+import com.example.finance.exceptions.ScheduledTransferNotFoundException;
+import com.example.finance.money.Money;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Creates, lists and cancels scheduled transfers; ScheduledTransferRunner executes them
+ */
+@Service
+public class ScheduledTransferService {
+
+    private static final String SELECT_DTO =
+        "SELECT st.*, sa.account_number AS source_account_number, da.account_number AS destination_account_number " +
+        "FROM scheduled_transfers st JOIN accounts sa ON sa.id = st.source_account_id " +
+        "JOIN accounts da ON da.id = st.destination_account_id ";
+
+    private static final RowMapper<ScheduledTransferDto> DTO_MAPPER = (rs, rowNum) -> {
+        ScheduledTransferDto dto = new ScheduledTransferDto();
+        dto.setId(rs.getLong("id"));
+        dto.setSourceAccountNumber(rs.getString("source_account_number"));
+        dto.setDestinationAccountNumber(rs.getString("destination_account_number"));
+        dto.setAmount(rs.getBigDecimal("amount"));
+        dto.setDescription(rs.getString("description"));
+        dto.setFrequency(Frequency.valueOf(rs.getString("frequency")));
+        dto.setStartAt(rs.getTimestamp("start_at").toLocalDateTime());
+        dto.setEndDate(rs.getDate("end_date") == null ? null : rs.getDate("end_date").toLocalDate());
+        dto.setStatus(rs.getString("status"));
+        dto.setRunCount(rs.getInt("run_count"));
+        dto.setAttempts(rs.getInt("attempts"));
+        dto.setNextRunAt(rs.getTimestamp("next_run_at") == null ? null : rs.getTimestamp("next_run_at").toLocalDateTime());
+        dto.setLastRunAt(rs.getTimestamp("last_run_at") == null ? null : rs.getTimestamp("last_run_at").toLocalDateTime());
+        dto.setLastTransactionRef(rs.getString("last_transaction_ref"));
+        dto.setLastError(rs.getString("last_error"));
+        return dto;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountRepository accountRepository;
+    private final AccountService accountService;
+
+    public ScheduledTransferService(JdbcTemplate jdbcTemplate, AccountRepository accountRepository, AccountService accountService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.accountRepository = accountRepository;
+        this.accountService = accountService;
+    }
+
+    @Transactional
+    public ScheduledTransferDto create(Long userId, ScheduledTransferRequest request) {
+        Money amount;
+        try {
+            amount = Money.of(request.getAmount());
+        } catch (ArithmeticException | NullPointerException e) {
+            throw new InvalidTransactionAmountException("Amount must be given with at most two decimal places");
+        }
+        if (!amount.isPositive()) {
+            throw new InvalidTransactionAmountException("Transfer amount must be positive");
+        }
+        if (request.getFrequency() == null) {
+            throw new InvalidScheduleException("Frequency is required");
+        }
+        LocalDateTime startAt = request.getStartAt() != null ? request.getStartAt() : LocalDateTime.now();
+        if (startAt.isBefore(LocalDateTime.now().minusMinutes(1))) {
+            throw new InvalidScheduleException("Start time " + startAt + " is in the past");
+        }
+        if (request.getEndDate() != null && request.getEndDate().isBefore(startAt.toLocalDate())) {
+            throw new InvalidScheduleException("End date " + request.getEndDate() + " is before the start time");
+        }
+
+        Account source = accountRepository.findByAccountNumber(request.getSourceAccountNumber())
+            .orElseThrow(() -> new AccountNotFoundException("Source account with number " + request.getSourceAccountNumber() + " not found"));
+        accountService.validateAccountOwnership(source.getAccountNumber(), userId);
+        Account destination = accountRepository.findByAccountNumber(request.getDestinationAccountNumber())
+            .orElseThrow(() -> new AccountNotFoundException("Destination account with number " + request.getDestinationAccountNumber() + " not found"));
+        if (source.getId().equals(destination.getId())) {
+            throw new InvalidScheduleException("Source and destination accounts must differ");
+        }
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO scheduled_transfers (user_id, source_account_id, destination_account_id, amount, description, " +
+                "frequency, start_at, end_date, next_run_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, userId);
+            ps.setLong(2, source.getId());
+            ps.setLong(3, destination.getId());
+            ps.setBigDecimal(4, amount.toBigDecimal());
+            ps.setString(5, request.getDescription());
+            ps.setString(6, request.getFrequency().name());
+            ps.setTimestamp(7, Timestamp.valueOf(startAt));
+            ps.setDate(8, request.getEndDate() == null ? null : Date.valueOf(request.getEndDate()));
+            ps.setTimestamp(9, Timestamp.valueOf(startAt));
+            return ps;
+        }, keys);
+        return get(userId, keys.getKey().longValue());
+    }
+
+    public List<ScheduledTransferDto> list(Long userId) {
+        return jdbcTemplate.query(SELECT_DTO + "WHERE st.user_id = ? ORDER BY st.id", DTO_MAPPER, userId);
+    }
+
+    public ScheduledTransferDto get(Long userId, Long id) {
+        return jdbcTemplate.query(SELECT_DTO + "WHERE st.id = ? AND st.user_id = ?", DTO_MAPPER, id, userId)
+            .stream()
+            .findFirst()
+            .orElseThrow(() -> new ScheduledTransferNotFoundException("Scheduled transfer " + id + " not found"));
+    }
+
+    /**
+     * Cancels an active order. An occurrence already loaded by a runner is dropped when its batch starts.
+     */
+    @Transactional
+    public ScheduledTransferDto cancel(Long userId, Long id) {
+        int updated = jdbcTemplate.update(
+            "UPDATE scheduled_transfers SET status = 'CANCELLED', next_run_at = NULL WHERE id = ? AND user_id = ? AND status = 'ACTIVE'",
+            id, userId);
+        if (updated == 0) {
+            get(userId, id);
+            throw new InvalidScheduleException("Scheduled transfer " + id + " is no longer active");
+        }
+        return get(userId, id);
+    }
+}
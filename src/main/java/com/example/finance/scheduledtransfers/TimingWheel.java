@@ -0,0 +1,120 @@
+package com.example.finance.scheduledtransfers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel. Level 0 has one bucket per tick; each higher level has buckets as wide as
+ * the whole level below. When time reaches a higher level bucket its entries cascade down, so adding
+ * and expiring an entry is O(1) however many entries share a due time. Not thread-safe.
+ */
+final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelTicks;
+    private final List<List<Entry<T>>[]> levels = new ArrayList<>();
+    private long currentTime;
+    private int size;
+
+    private record Entry<T>(long dueMillis, T item) {
+    }
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelTicks = new long[levelCount];
+        for (int level = 0; level < levelCount; level++) {
+            levelTicks[level] = level == 0 ? tickMillis : levelTicks[level - 1] * wheelSize;
+            List<Entry<T>>[] buckets = new List[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayList<>();
+            }
+            levels.add(buckets);
+        }
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+    }
+
+    /**
+     * Span covered from the current time; later entries are rejected
+     */
+    long horizonMillis() {
+        return levelTicks[levelTicks.length - 1] * wheelSize;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds an entry; one that is already due expires on the next advance
+     */
+    void add(long dueMillis, T item) {
+        if (dueMillis - currentTime >= horizonMillis()) {
+            throw new IllegalArgumentException("Due time " + dueMillis + " is beyond the wheel horizon");
+        }
+        place(new Entry<>(Math.max(dueMillis, currentTime), item));
+        size++;
+    }
+
+    /**
+     * Moves the wheel to now and returns the entries that became due, in due order per tick
+     */
+    List<T> advance(long nowMillis) {
+        List<T> due = new ArrayList<>();
+        while (currentTime + tickMillis <= nowMillis) {
+            List<Entry<T>> expired = takeBucket(0);
+            for (Entry<T> entry : expired) {
+                due.add(entry.item());
+            }
+            size -= expired.size();
+            currentTime += tickMillis;
+            // Cascade from the top so entries can fall through several levels at once
+            for (int level = levelTicks.length - 1; level > 0; level--) {
+                if (currentTime % levelTicks[level] == 0) {
+                    List<Entry<T>> bucket = takeBucket(level);
+                    for (Entry<T> entry : bucket) {
+                        place(entry);
+                    }
+                }
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Removes and returns every entry regardless of due time
+     */
+    List<T> drainAll() {
+        List<T> all = new ArrayList<>(size);
+        for (List<Entry<T>>[] buckets : levels) {
+            for (int i = 0; i < wheelSize; i++) {
+                for (Entry<T> entry : buckets[i]) {
+                    all.add(entry.item());
+                }
+                buckets[i] = new ArrayList<>();
+            }
+        }
+        size = 0;
+        return all;
+    }
+
+    private List<Entry<T>> takeBucket(int level) {
+        List<Entry<T>>[] buckets = levels.get(level);
+        int index = (int) Math.floorMod(currentTime / levelTicks[level], (long) wheelSize);
+        List<Entry<T>> bucket = buckets[index];
+        buckets[index] = new ArrayList<>();
+        return bucket;
+    }
+
+    private void place(Entry<T> entry) {
+        long delay = entry.dueMillis() - currentTime;
+        int level = 0;
+        while (level < levelTicks.length - 1 && delay >= levelTicks[level] * wheelSize) {
+            level++;
+        }
+        int index = (int) Math.floorMod(entry.dueMillis() / levelTicks[level], (long) wheelSize);
+        levels.get(level)[index].add(entry);
+    }
+}
@@ -0,0 +1,432 @@
+package com.example.finance.textsearch;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over transaction descriptions, keyed by account and term.
+ * New postings go to an in-memory table that is flushed to an immutable memory-mapped segment once it
+ * grows past a threshold or on a timer; small segments are merged in the background. The index is
+ * derived data: on startup it catches up from the transactions table and it can be rebuilt at any time.
+ */
+@Component
+public class DescriptionIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DescriptionIndex.class);
+    private static final Pattern SEGMENT_NAME = Pattern.compile("descriptions-(\\d+)\\.idx");
+
+    // Ids are allocated before commit, so a late committer can sit below the highest indexed id
+    private static final long CATCH_UP_MARGIN = 10_000;
+
+    private static final String HOT_ROWS_QUERY =
+        "SELECT id, source_account_id, destination_account_id, description FROM transactions " +
+        "WHERE id > ? AND description IS NOT NULL AND description <> ''";
+    private static final String ARCHIVE_ROWS_QUERY =
+        "SELECT id, source_account_id, destination_account_id, description FROM transactions_archive " +
+        "WHERE description IS NOT NULL AND description <> ''";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final Path directory;
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    // A lock rather than a monitor: flushes run on virtual threads and write files while holding it
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+    private final AtomicLong nextSequence = new AtomicLong(1);
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
+    private volatile State state = new State(new MemoryIndex(), List.of(), List.of());
+
+    @Value("${finance.description-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${finance.description-index.flush-postings:200000}")
+    private long flushPostings;
+
+    @Value("${finance.description-index.max-segments:8}")
+    private int maxSegments;
+
+    public DescriptionIndex(DataSource dataSource, @Value("${finance.description-index.directory:./data/description-index}") String directory) {
+        // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole table
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.directory = Path.of(directory);
+    }
+
+    /**
+     * Memtable being written, memtables being flushed and segments newest first, replaced as a whole
+     */
+    private record State(MemoryIndex active, List<MemoryIndex> flushing, List<IndexSegment> segments) {
+    }
+
+    @PostConstruct
+    void load() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        List<IndexSegment> loaded = new ArrayList<>();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    long sequence = Long.parseLong(matcher.group(1));
+                    loaded.add(new IndexSegment(file, sequence));
+                    nextSequence.accumulateAndGet(sequence + 1, Math::max);
+                } else if (file.getFileName().toString().endsWith(".tmp")) {
+                    // Leftovers of a flush or merge that did not finish
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        loaded.sort(Comparator.comparingLong(IndexSegment::getSequence).reversed());
+        state = new State(new MemoryIndex(), List.of(), List.copyOf(loaded));
+
+        long indexedUpTo = loaded.stream().mapToLong(IndexSegment::getMaxTransactionId).max().orElse(0);
+        Thread.ofPlatform().name("description-index-catch-up").start(() -> {
+            if (indexedUpTo == 0) {
+                rebuild();
+            } else {
+                catchUp(Math.max(0, indexedUpTo - CATCH_UP_MARGIN));
+            }
+        });
+    }
+
+    /**
+     * Indexes a transaction once the surrounding transaction commits, or right away if there is none
+     */
+    public void indexAfterCommit(long transactionId, Long sourceAccountId, Long destinationAccountId, String description) {
+        if (!enabled || description == null || description.isBlank()) {
+            return;
+        }
+        Runnable index = () -> index(transactionId, sourceAccountId, destinationAccountId, description);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index.run();
+                }
+            });
+        } else {
+            index.run();
+        }
+    }
+
+    void index(long transactionId, Long sourceAccountId, Long destinationAccountId, String description) {
+        Set<String> terms = DescriptionTokenizer.tokenize(description);
+        if (terms.isEmpty()) {
+            return;
+        }
+        MemoryIndex memtable;
+        swapLock.readLock().lock();
+        try {
+            memtable = state.active();
+            if (sourceAccountId != null) {
+                memtable.add(sourceAccountId, transactionId, terms);
+            }
+            if (destinationAccountId != null && !destinationAccountId.equals(sourceAccountId)) {
+                memtable.add(destinationAccountId, transactionId, terms);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        if (memtable.getPostingCount() >= flushPostings && !rebuilding.get() && flushRequested.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("description-index-flush").start(() -> {
+                try {
+                    flush();
+                } finally {
+                    flushRequested.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Ids of the account's transactions whose description contains every term of the query, newest first.
+     * With prefix set the last term also matches longer terms starting with it.
+     */
+    public List<Long> search(long accountId, String query, boolean prefix, int limit) {
+        List<String> terms = new ArrayList<>(DescriptionTokenizer.tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        State current = state;
+        long[] matches = null;
+        for (int i = 0; i < terms.size() && (matches == null || matches.length > 0); i++) {
+            boolean termPrefix = prefix && i == terms.size() - 1;
+            List<long[]> postings = new ArrayList<>();
+            current.active().collect(accountId, terms.get(i), termPrefix, postings);
+            for (MemoryIndex memtable : current.flushing()) {
+                memtable.collect(accountId, terms.get(i), termPrefix, postings);
+            }
+            for (IndexSegment segment : current.segments()) {
+                segment.collect(accountId, terms.get(i), termPrefix, postings);
+            }
+            long[] termMatches = PostingsMath.union(postings);
+            matches = matches == null ? termMatches : PostingsMath.intersect(matches, termMatches);
+        }
+
+        List<Long> newestFirst = new ArrayList<>(Math.min(limit, matches.length));
+        for (int i = matches.length - 1; i >= 0 && newestFirst.size() < limit; i--) {
+            newestFirst.add(matches[i]);
+        }
+        return newestFirst;
+    }
+
+    public Map<String, Object> getStats() {
+        State current = state;
+        long memoryPostings = current.active().getPostingCount();
+        for (MemoryIndex memtable : current.flushing()) {
+            memoryPostings += memtable.getPostingCount();
+        }
+        long segmentKeys = current.segments().stream().mapToLong(IndexSegment::getKeyCount).sum();
+        return Map.of(
+            "segments", current.segments().size(),
+            "segmentKeys", segmentKeys,
+            "memoryPostings", memoryPostings,
+            "rebuilding", rebuilding.get());
+    }
+
+    @Scheduled(fixedDelayString = "${finance.description-index.flush-interval-ms:60000}")
+    public void flushAndMerge() {
+        if (!enabled || rebuilding.get()) {
+            return;
+        }
+        flush();
+        merge();
+    }
+
+    /**
+     * Freezes the active memtable and writes it out as a new segment
+     */
+    void flush() {
+        maintenanceLock.lock();
+        try {
+            MemoryIndex frozen;
+            swapLock.writeLock().lock();
+            try {
+                frozen = state.active();
+                if (frozen.getPostingCount() == 0) {
+                    return;
+                }
+                List<MemoryIndex> flushing = new ArrayList<>(state.flushing());
+                flushing.add(frozen);
+                state = new State(new MemoryIndex(), List.copyOf(flushing), state.segments());
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+
+            IndexSegment segment = writeSegment(frozen);
+            swapLock.writeLock().lock();
+            try {
+                List<MemoryIndex> flushing = new ArrayList<>(state.flushing());
+                flushing.remove(frozen);
+                List<IndexSegment> segments = new ArrayList<>(state.segments());
+                segments.add(0, segment);
+                state = new State(state.active(), List.copyOf(flushing), List.copyOf(segments));
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /**
+     * Merges all segments into one once there are more than max-segments of them
+     */
+    void merge() {
+        maintenanceLock.lock();
+        try {
+            List<IndexSegment> inputs = state.segments();
+            if (inputs.size() <= maxSegments) {
+                return;
+            }
+            IndexSegment merged = mergeSegments(inputs);
+            swapLock.writeLock().lock();
+            try {
+                List<IndexSegment> segments = new ArrayList<>(state.segments());
+                segments.removeAll(inputs);
+                segments.add(merged);
+                segments.sort(Comparator.comparingLong(IndexSegment::getSequence).reversed());
+                state = new State(state.active(), state.flushing(), List.copyOf(segments));
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            deleteFiles(inputs);
+            log.info("Merged {} description index segments into {}", inputs.size(), merged.getPath().getFileName());
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    /**
+     * Starts a rebuild on a background thread, returns false if one is already in progress
+     */
+    public boolean rebuildAsync() {
+        if (!enabled || rebuilding.get()) {
+            return false;
+        }
+        Thread.ofPlatform().name("description-index-rebuild").start(this::rebuild);
+        return true;
+    }
+
+    /**
+     * Rebuilds the index from transactions and transactions_archive, returns false if a rebuild is running.
+     * Postings recorded by live writes meanwhile stay in the memtable and are flushed afterwards.
+     */
+    public boolean rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            maintenanceLock.lock();
+            try {
+                List<IndexSegment> rebuilt = new ArrayList<>();
+                MemoryIndex[] batch = {new MemoryIndex()};
+                RowCallbackHandler collect = rs -> {
+                    Set<String> terms = DescriptionTokenizer.tokenize(rs.getString("description"));
+                    long id = rs.getLong("id");
+                    long sourceAccountId = rs.getLong("source_account_id");
+                    if (!rs.wasNull()) {
+                        batch[0].add(sourceAccountId, id, terms);
+                    }
+                    long destinationAccountId = rs.getLong("destination_account_id");
+                    if (!rs.wasNull()) {
+                        batch[0].add(destinationAccountId, id, terms);
+                    }
+                    if (batch[0].getPostingCount() >= flushPostings) {
+                        rebuilt.add(writeSegment(batch[0]));
+                        batch[0] = new MemoryIndex();
+                    }
+                };
+                streamingJdbcTemplate.query(HOT_ROWS_QUERY, collect, 0L);
+                streamingJdbcTemplate.query(ARCHIVE_ROWS_QUERY, collect);
+                if (batch[0].getPostingCount() > 0) {
+                    rebuilt.add(writeSegment(batch[0]));
+                }
+
+                List<IndexSegment> replaced;
+                swapLock.writeLock().lock();
+                try {
+                    replaced = state.segments();
+                    rebuilt.sort(Comparator.comparingLong(IndexSegment::getSequence).reversed());
+                    state = new State(state.active(), state.flushing(), List.copyOf(rebuilt));
+                } finally {
+                    swapLock.writeLock().unlock();
+                }
+                deleteFiles(replaced);
+                log.info("Rebuilt description index into {} segments", rebuilt.size());
+            } finally {
+                maintenanceLock.unlock();
+            }
+            flush();
+            merge();
+            return true;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void catchUp(long afterId) {
+        streamingJdbcTemplate.query(HOT_ROWS_QUERY, rs -> {
+            index(rs.getLong("id"), rs.getObject("source_account_id", Long.class),
+                rs.getObject("destination_account_id", Long.class), rs.getString("description"));
+        }, afterId);
+        log.info("Description index caught up from transaction id {}", afterId);
+    }
+
+    private IndexSegment writeSegment(MemoryIndex memtable) {
+        long sequence = nextSequence.getAndIncrement();
+        String name = "descriptions-" + sequence + ".idx";
+        Path target = directory.resolve(name);
+        try (IndexSegment.Writer writer = new IndexSegment.Writer(directory, name)) {
+            for (Map.Entry<Long, ConcurrentSkipListMap<String, LongPostings>> account : memtable.getAccounts().entrySet()) {
+                for (Map.Entry<String, LongPostings> term : account.getValue().entrySet()) {
+                    writer.add(account.getKey(), term.getKey(), term.getValue().toSortedArray());
+                }
+            }
+            writer.finish(target, memtable.getMaxTransactionId());
+            return new IndexSegment(target, sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private IndexSegment mergeSegments(List<IndexSegment> inputs) {
+        long sequence = nextSequence.getAndIncrement();
+        String name = "descriptions-" + sequence + ".idx";
+        Path target = directory.resolve(name);
+        long maxTransactionId = inputs.stream().mapToLong(IndexSegment::getMaxTransactionId).max().orElse(0);
+
+        PriorityQueue<IndexSegment.Cursor> queue = new PriorityQueue<>(
+            (a, b) -> IndexSegment.compareKey(a.accountId(), a.term(), b.accountId(), b.term()));
+        for (IndexSegment input : inputs) {
+            IndexSegment.Cursor cursor = input.cursor();
+            if (cursor.next()) {
+                queue.add(cursor);
+            }
+        }
+        try (IndexSegment.Writer writer = new IndexSegment.Writer(directory, name)) {
+            while (!queue.isEmpty()) {
+                IndexSegment.Cursor head = queue.poll();
+                long accountId = head.accountId();
+                String term = head.term();
+                List<long[]> postings = new ArrayList<>();
+                postings.add(head.postings());
+                if (head.next()) {
+                    queue.add(head);
+                }
+                while (!queue.isEmpty() && queue.peek().accountId() == accountId && queue.peek().term().equals(term)) {
+                    IndexSegment.Cursor same = queue.poll();
+                    postings.add(same.postings());
+                    if (same.next()) {
+                        queue.add(same);
+                    }
+                }
+                writer.add(accountId, term, PostingsMath.union(postings));
+            }
+            writer.finish(target, maxTransactionId);
+            return new IndexSegment(target, sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteFiles(List<IndexSegment> segments) {
+        for (IndexSegment segment : segments) {
+            try {
+                // Readers still holding the old state keep their mapping after the file is unlinked
+                Files.deleteIfExists(segment.getPath());
+            } catch (IOException e) {
+                log.warn("Could not delete description index segment {}", segment.getPath(), e);
+            }
+        }
+    }
+}
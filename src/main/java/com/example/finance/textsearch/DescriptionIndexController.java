@@ -0,0 +1,34 @@
+package com.example.finance.textsearch;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/description-index")
+public class DescriptionIndexController {
+
+    private final DescriptionIndex descriptionIndex;
+
+    public DescriptionIndexController(DescriptionIndex descriptionIndex) {
+        this.descriptionIndex = descriptionIndex;
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, String>> rebuild() {
+        if (!descriptionIndex.rebuildAsync()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Description index rebuild is already running or the index is disabled"));
+        }
+        return ResponseEntity.accepted().body(Map.of("message", "Description index rebuild started"));
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return descriptionIndex.getStats();
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.finance.textsearch;
+
+import com.example.finance.coldstore.VarInts;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable on-disk part of the description index, mapped into memory.
+ * Keys are (account id, term) pairs sorted ascending, each pointing at a postings list of
+ * transaction ids stored as varint deltas. A fixed-width offset table allows binary search over the keys.
+ * <pre>
+ * header   magic, version, keyCount, maxTransactionId, keys offset, postings offset
+ * offsets  int per key, relative to the keys section
+ * keys     accountId long, term length short, term UTF-8, postings offset int, posting count int
+ * postings varint deltas of ascending transaction ids
+ * </pre>
+ */
+final class IndexSegment {
+
+    static final int MAGIC = 0x44494458; // "DIDX"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 36;
+
+    private final Path path;
+    private final long sequence;
+    private final MappedByteBuffer buffer;
+    private final int keyCount;
+    private final long maxTransactionId;
+    private final int keysOffset;
+    private final int postingsOffset;
+
+    IndexSegment(Path path, long sequence) throws IOException {
+        this.path = path;
+        this.sequence = sequence;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Index segment " + path + " exceeds the 2 GB mapping limit");
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a version " + VERSION + " description index segment: " + path);
+        }
+        this.keyCount = buffer.getInt(8);
+        this.maxTransactionId = buffer.getLong(12);
+        this.keysOffset = (int) buffer.getLong(20);
+        this.postingsOffset = (int) buffer.getLong(28);
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    int getKeyCount() {
+        return keyCount;
+    }
+
+    long getMaxTransactionId() {
+        return maxTransactionId;
+    }
+
+    /**
+     * Adds the postings of an exact term, or of every term starting with it, to out
+     */
+    void collect(long accountId, String term, boolean prefix, List<long[]> out) {
+        for (int key = lowerBound(accountId, term); key < keyCount; key++) {
+            int position = keyPosition(key);
+            String candidate = termAt(position);
+            if (buffer.getLong(position) != accountId
+                || (prefix ? !candidate.startsWith(term) : !candidate.equals(term))) {
+                return;
+            }
+            out.add(postingsAt(position));
+            if (!prefix) {
+                return;
+            }
+        }
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Walks every key of the segment in order, used when merging segments
+     */
+    final class Cursor {
+        private int key = -1;
+        private long accountId;
+        private String term;
+
+        boolean next() {
+            if (++key >= keyCount) {
+                return false;
+            }
+            int position = keyPosition(key);
+            accountId = buffer.getLong(position);
+            term = termAt(position);
+            return true;
+        }
+
+        long accountId() {
+            return accountId;
+        }
+
+        String term() {
+            return term;
+        }
+
+        long[] postings() {
+            return postingsAt(keyPosition(key));
+        }
+    }
+
+    private int lowerBound(long accountId, String term) {
+        int lo = 0;
+        int hi = keyCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int position = keyPosition(mid);
+            if (compareKey(buffer.getLong(position), termAt(position), accountId, term) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int keyPosition(int key) {
+        return keysOffset + buffer.getInt(HEADER_SIZE + key * Integer.BYTES);
+    }
+
+    private String termAt(int position) {
+        short length = buffer.getShort(position + Long.BYTES);
+        byte[] bytes = new byte[length];
+        buffer.get(position + Long.BYTES + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long[] postingsAt(int position) {
+        int termEnd = position + Long.BYTES + Short.BYTES + buffer.getShort(position + Long.BYTES);
+        long[] cursor = {postingsOffset + buffer.getInt(termEnd)};
+        long[] ids = new long[buffer.getInt(termEnd + Integer.BYTES)];
+        long id = 0;
+        for (int i = 0; i < ids.length; i++) {
+            id += VarInts.readUnsigned(buffer, cursor);
+            ids[i] = id;
+        }
+        return ids;
+    }
+
+    static int compareKey(long accountA, String termA, long accountB, String termB) {
+        int byAccount = Long.compare(accountA, accountB);
+        return byAccount != 0 ? byAccount : termA.compareTo(termB);
+    }
+
+    /**
+     * Writes keys in ascending (account id, term) order into a new segment file.
+     * Keys and postings are spooled to temp files next to the target and assembled on finish.
+     */
+    static final class Writer implements Closeable {
+        private final Path keysFile;
+        private final Path postingsFile;
+        private final DataOutputStream keys;
+        private final DataOutputStream postings;
+        private int[] keyOffsets = new int[1024];
+        private int keyCount;
+        private long lastAccountId = Long.MIN_VALUE;
+        private String lastTerm = "";
+
+        Writer(Path directory, String name) throws IOException {
+            this.keysFile = directory.resolve(name + ".keys.tmp");
+            this.postingsFile = directory.resolve(name + ".postings.tmp");
+            this.keys = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(keysFile), 1 << 16));
+            this.postings = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(postingsFile), 1 << 16));
+        }
+
+        void add(long accountId, String term, long[] sortedIds) throws IOException {
+            if (sortedIds.length == 0) {
+                return;
+            }
+            if (keyCount > 0 && compareKey(accountId, term, lastAccountId, lastTerm) <= 0) {
+                throw new IllegalStateException("Index keys must be written in ascending order");
+            }
+            if (keyCount == keyOffsets.length) {
+                keyOffsets = Arrays.copyOf(keyOffsets, keyCount * 2);
+            }
+            keyOffsets[keyCount++] = keys.size();
+
+            byte[] termBytes = term.getBytes(StandardCharsets.UTF_8);
+            keys.writeLong(accountId);
+            keys.writeShort(termBytes.length);
+            keys.write(termBytes);
+            keys.writeInt(postings.size());
+            keys.writeInt(sortedIds.length);
+
+            long previous = 0;
+            for (long id : sortedIds) {
+                VarInts.writeUnsigned(postings, id - previous);
+                previous = id;
+            }
+            lastAccountId = accountId;
+            lastTerm = term;
+        }
+
+        int getKeyCount() {
+            return keyCount;
+        }
+
+        void finish(Path target, long maxTransactionId) throws IOException {
+            keys.close();
+            postings.close();
+            Path assembling = target.resolveSibling(target.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(assembling, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                long keysOffset = HEADER_SIZE + (long) keyCount * Integer.BYTES;
+                ByteBuffer header = ByteBuffer.allocate((int) keysOffset);
+                header.putInt(MAGIC).putInt(VERSION).putInt(keyCount).putLong(maxTransactionId)
+                    .putLong(keysOffset).putLong(keysOffset + Files.size(keysFile));
+                for (int i = 0; i < keyCount; i++) {
+                    header.putInt(keyOffsets[i]);
+                }
+                header.flip();
+                while (header.hasRemaining()) {
+                    out.write(header);
+                }
+                for (Path section : List.of(keysFile, postingsFile)) {
+                    try (FileChannel in = FileChannel.open(section, StandardOpenOption.READ)) {
+                        long size = in.size();
+                        long copied = 0;
+                        while (copied < size) {
+                            copied += in.transferTo(copied, size - copied, out);
+                        }
+                    }
+                }
+                out.force(true);
+            }
+            Files.move(assembling, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        @Override
+        public void close() throws IOException {
+            keys.close();
+            postings.close();
+            Files.deleteIfExists(keysFile);
+            Files.deleteIfExists(postingsFile);
+        }
+    }
+}
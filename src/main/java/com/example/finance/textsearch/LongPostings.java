@@ -0,0 +1,28 @@
+package com.example.finance.textsearch;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive list of transaction ids for one term of one account
+ */
+final class LongPostings {
+
+    private long[] ids = new long[4];
+    private int size;
+
+    synchronized void add(long id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = id;
+    }
+
+    /**
+     * Sorted, de-duplicated copy of the ids
+     */
+    synchronized long[] toSortedArray() {
+        long[] copy = Arrays.copyOf(ids, size);
+        Arrays.sort(copy);
+        return PostingsMath.distinct(copy);
+    }
+}
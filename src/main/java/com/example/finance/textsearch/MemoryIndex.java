@@ -0,0 +1,58 @@
+package com.example.finance.textsearch;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mutable in-memory part of the index that receives new postings until it is flushed to a segment
+ */
+final class MemoryIndex {
+
+    private final ConcurrentSkipListMap<Long, ConcurrentSkipListMap<String, LongPostings>> accounts = new ConcurrentSkipListMap<>();
+    private final AtomicLong postingCount = new AtomicLong();
+    private final AtomicLong maxTransactionId = new AtomicLong();
+
+    void add(long accountId, long transactionId, Iterable<String> terms) {
+        ConcurrentSkipListMap<String, LongPostings> termMap = accounts.computeIfAbsent(accountId, id -> new ConcurrentSkipListMap<>());
+        for (String term : terms) {
+            termMap.computeIfAbsent(term, t -> new LongPostings()).add(transactionId);
+            postingCount.incrementAndGet();
+        }
+        maxTransactionId.accumulateAndGet(transactionId, Math::max);
+    }
+
+    long getPostingCount() {
+        return postingCount.get();
+    }
+
+    long getMaxTransactionId() {
+        return maxTransactionId.get();
+    }
+
+    NavigableMap<Long, ConcurrentSkipListMap<String, LongPostings>> getAccounts() {
+        return accounts;
+    }
+
+    void collect(long accountId, String term, boolean prefix, List<long[]> out) {
+        ConcurrentSkipListMap<String, LongPostings> termMap = accounts.get(accountId);
+        if (termMap == null) {
+            return;
+        }
+        if (!prefix) {
+            LongPostings postings = termMap.get(term);
+            if (postings != null) {
+                out.add(postings.toSortedArray());
+            }
+            return;
+        }
+        for (Map.Entry<String, LongPostings> entry : termMap.tailMap(term, true).entrySet()) {
+            if (!entry.getKey().startsWith(term)) {
+                break;
+            }
+            out.add(entry.getValue().toSortedArray());
+        }
+    }
+}
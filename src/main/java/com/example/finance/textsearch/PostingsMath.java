@@ -0,0 +1,68 @@
+package com.example.finance.textsearch;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Set operations over sorted arrays of transaction ids
+ */
+final class PostingsMath {
+
+    static final long[] EMPTY = new long[0];
+
+    private PostingsMath() {
+    }
+
+    static long[] distinct(long[] sorted) {
+        if (sorted.length < 2) {
+            return sorted;
+        }
+        int write = 1;
+        for (int read = 1; read < sorted.length; read++) {
+            if (sorted[read] != sorted[write - 1]) {
+                sorted[write++] = sorted[read];
+            }
+        }
+        return write == sorted.length ? sorted : Arrays.copyOf(sorted, write);
+    }
+
+    static long[] union(List<long[]> lists) {
+        int total = 0;
+        for (long[] list : lists) {
+            total += list.length;
+        }
+        if (total == 0) {
+            return EMPTY;
+        }
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        long[] all = new long[total];
+        int position = 0;
+        for (long[] list : lists) {
+            System.arraycopy(list, 0, all, position, list.length);
+            position += list.length;
+        }
+        Arrays.sort(all);
+        return distinct(all);
+    }
+
+    static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.finance.threads;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Watches for virtual threads pinned to their carrier while blocking, typically inside a synchronized
+ * block or a native frame. The JDK's own jdk.VirtualThreadPinned JFR events are consumed in process and
+ * turned into a timer tagged with the first application frame; each new pinning site is logged once with
+ * its stack. The events stay in JFR as well, so a JFR.dump taken with jcmd shows them too.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String SUBMIT_FAILED_EVENT = "jdk.VirtualThreadSubmitFailed";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter submitFailed;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private volatile RecordingStream stream;
+
+    @Value("${finance.virtual-threads.pinned-threshold-ms:20}")
+    private long pinnedThresholdMillis;
+
+    @Value("${finance.virtual-threads.max-reported-sites:200}")
+    private int maxReportedSites;
+
+    public VirtualThreadMonitor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.submitFailed = Counter.builder("finance.virtual-threads.submit-failed").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(pinnedThresholdMillis)).withStackTrace();
+        recording.enable(SUBMIT_FAILED_EVENT);
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.onEvent(SUBMIT_FAILED_EVENT, event -> {
+            submitFailed.increment();
+            log.warn("Virtual thread could not be scheduled on a carrier: {}", event.getString("exceptionMessage"));
+        });
+        recording.startAsync();
+        stream = recording;
+        log.info("Watching for virtual threads pinned longer than {} ms", pinnedThresholdMillis);
+    }
+
+    @PreDestroy
+    void stop() {
+        RecordingStream recording = stream;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        String site = pinningSite(event.getStackTrace());
+        Timer.builder("finance.virtual-threads.pinned")
+            .tag("site", site)
+            .register(meterRegistry)
+            .record(event.getDuration());
+
+        // Sites are bounded by the code base, the cap only guards the log against generated frames
+        if (reportedSites.size() < maxReportedSites && reportedSites.add(site)) {
+            log.warn("Virtual thread pinned for {} ms at {}:{}", event.getDuration().toMillis(), site,
+                formatStack(event.getStackTrace()));
+        }
+    }
+
+    /**
+     * First frame outside the JDK, where the application or a library entered the pinning call
+     */
+    static String pinningSite(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return "jdk";
+    }
+
+    private static String formatStack(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "";
+        }
+        StringBuilder formatted = new StringBuilder();
+        int frames = 0;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frames++ == LOGGED_FRAMES) {
+                formatted.append("\n\t...");
+                break;
+            }
+            formatted.append("\n\tat ").append(frame.getMethod().getType().getName())
+                .append('.').append(frame.getMethod().getName())
+                .append(':').append(frame.getLineNumber());
+        }
+        return formatted.toString();
+    }
+}
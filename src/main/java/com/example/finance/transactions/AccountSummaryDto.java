@@ -0,0 +1,29 @@
+package com.example.finance.transactions;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+public class AccountSummaryDto {
+    private String accountNumber;
+    private String period;
+    private LocalDate periodStart;
+    private BigDecimal depositAmount = BigDecimal.ZERO;
+    private int depositCount;
+    private BigDecimal withdrawAmount = BigDecimal.ZERO;
+    private int withdrawCount;
+    private BigDecimal transferInAmount = BigDecimal.ZERO;
+    private int transferInCount;
+    private BigDecimal transferOutAmount = BigDecimal.ZERO;
+    private int transferOutCount;
+    
+    public BigDecimal getTotalIn() {
+        return depositAmount.add(transferInAmount);
+    }
+    
+    public BigDecimal getTotalSpent() {
+        return withdrawAmount.add(transferOutAmount);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.finance.transactions;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Immutable
+@Table(name = "transactions_archive")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedTransaction {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "source_account_id")
+    private Long sourceAccountId;
+    
+    @Column(name = "destination_account_id")
+    private Long destinationAccountId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", length = 20)
+    private Transaction.TransactionType type;
+    
+    @Column(name = "amount", precision = 15, scale = 2)
+    private BigDecimal amount;
+    
+    @Column(name = "description", length = 255)
+    private String description;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20)
+    private Transaction.TransactionStatus status;
+    
+    @Column(name = "transaction_ref", length = 50)
+    private String transactionRef;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+}
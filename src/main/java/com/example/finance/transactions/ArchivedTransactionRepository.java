@@ -0,0 +1,25 @@
+package com.example.finance.transactions;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedTransactionRepository extends JpaRepository<ArchivedTransaction, Long> {
+    Optional<ArchivedTransaction> findByTransactionRef(String transactionRef);
+    
+    // Rows created before the cold store boundary are served from cold segments and may be mid-deletion here
+    @Query("SELECT t FROM ArchivedTransaction t WHERE (t.sourceAccountId = :accountId OR t.destinationAccountId = :accountId) AND t.createdAt >= :since")
+    List<ArchivedTransaction> findByAccountId(@Param("accountId") Long accountId, @Param("since") LocalDateTime since);
+    
+    @Query("SELECT t FROM ArchivedTransaction t WHERE (t.sourceAccountId = :accountId OR t.destinationAccountId = :accountId) AND t.createdAt >= :since")
+    Page<ArchivedTransaction> findByAccountId(@Param("accountId") Long accountId, @Param("since") LocalDateTime since, Pageable pageable);
+    
+    @Query("SELECT COUNT(t) FROM ArchivedTransaction t WHERE (t.sourceAccountId = :accountId OR t.destinationAccountId = :accountId) AND t.createdAt >= :since")
+    long countByAccountId(@Param("accountId") Long accountId, @Param("since") LocalDateTime since);
+}
@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
+import com.example.finance.money.Money;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
@@ -42,10 +42,10 @@ public class DailyTransactionLimit {
     
     @Column(name = "daily_limit", precision = 15, scale = 2, nullable = false)
     @NotNull(message = "Daily limit is required")
-    private BigDecimal dailyLimit;
+    private Money dailyLimit;
     
     @Column(name = "used_amount", precision = 15, scale = 2, nullable = false)
-    private BigDecimal usedAmount = BigDecimal.ZERO;
+    private Money usedAmount = Money.ZERO;
     
     @Column(name = "transaction_count", nullable = false)
     private Integer transactionCount = 0;
@@ -61,20 +61,22 @@ public class DailyTransactionLimit {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
-    public BigDecimal getRemainingLimit() {
-        return dailyLimit.subtract(usedAmount);
+    public Money getRemainingLimit() {
+        return dailyLimit.minus(usedAmount);
     }
     
     public Integer getRemainingTransactionCount() {
         return maxTransactionCount - transactionCount;
     }
     
-    public boolean canAccommodateTransaction(BigDecimal amount) {
-        return getRemainingLimit().compareTo(amount) >= 0 && getRemainingTransactionCount() > 0;
+    public boolean canAccommodateTransaction(Money amount) {
+        // Compared as used + amount <= limit on the raw minor units, no intermediate Money is allocated
+        return Math.addExact(usedAmount.minorUnits(), amount.minorUnits()) <= dailyLimit.minorUnits()
+            && transactionCount < maxTransactionCount;
     }
     
-    public void addTransaction(BigDecimal amount) {
-        this.usedAmount = this.usedAmount.add(amount);
+    public void addTransaction(Money amount) {
+        this.usedAmount = this.usedAmount.plus(amount);
         this.transactionCount++;
     }
 }
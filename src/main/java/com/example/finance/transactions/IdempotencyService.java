@@ -0,0 +1,194 @@
+package com.example.finance.transactions;
+
+import com.example.finance.accounts.Account;
+import com.example.finance.accounts.AccountRepository;
+import com.example.finance.coldstore.ColdStore;
+import com.example.finance.exceptions.DuplicateTransactionException;
+import com.example.finance.transactions.Transaction.TransactionStatus;
+import com.example.finance.transactions.Transaction.TransactionType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Makes money-movement requests idempotent on their client supplied transactionRef.
+ * Completed results are kept in a bounded LRU backed by the transactions table, the archive and the
+ * cold store, and concurrent requests with the same ref wait for the first execution instead of racing it.
+ */
+@Service
+public class IdempotencyService {
+
+    private final TransactionRepository transactionRepository;
+    private final ArchivedTransactionRepository archivedTransactionRepository;
+    private final ColdStore coldStore;
+    private final AccountRepository accountRepository;
+    private final TransactionMapper transactionMapper;
+    private final Map<String, CompletedRequest> completed;
+    private final ConcurrentHashMap<String, CompletableFuture<CompletedRequest>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(TransactionRepository transactionRepository,
+                              ArchivedTransactionRepository archivedTransactionRepository, ColdStore coldStore,
+                              AccountRepository accountRepository, TransactionMapper transactionMapper,
+                              @Value("${finance.idempotency.cache-size:10000}") int cacheSize) {
+        this.transactionRepository = transactionRepository;
+        this.archivedTransactionRepository = archivedTransactionRepository;
+        this.coldStore = coldStore;
+        this.accountRepository = accountRepository;
+        this.transactionMapper = transactionMapper;
+        this.completed = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletedRequest> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Runs the posting once per transactionRef and replays the original response for retries.
+     * Requests without a ref are executed as is.
+     */
+    public TransactionDto execute(String transactionRef, Long userId, TransactionType type,
+                                  String sourceAccountNumber, String destinationAccountNumber, BigDecimal amount,
+                                  Supplier<TransactionDto> posting) {
+        if (transactionRef == null || transactionRef.isBlank()) {
+            return posting.get();
+        }
+
+        RequestKey request = new RequestKey(userId, type, sourceAccountNumber, destinationAccountNumber, amount);
+        CompletedRequest cached = completed.get(transactionRef);
+        if (cached != null) {
+            return cached.replay(transactionRef, request);
+        }
+
+        CompletableFuture<CompletedRequest> future = new CompletableFuture<>();
+        CompletableFuture<CompletedRequest> existing = inFlight.putIfAbsent(transactionRef, future);
+        if (existing != null) {
+            // Another thread is executing the same ref, wait for its outcome
+            return awaitInFlight(existing).replay(transactionRef, request);
+        }
+
+        try {
+            CompletedRequest result = loadCompleted(transactionRef).orElse(null);
+            if (result == null) {
+                result = post(transactionRef, request, posting);
+            }
+            completed.put(transactionRef, result);
+            future.complete(result);
+            return result.replay(transactionRef, request);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(transactionRef, future);
+        }
+    }
+
+    private CompletedRequest post(String transactionRef, RequestKey request, Supplier<TransactionDto> posting) {
+        try {
+            TransactionDto transaction = posting.get();
+            return new CompletedRequest(request.userId(), request.sourceAccountNumber(), request.destinationAccountNumber(),
+                transaction);
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race on the transaction_ref unique constraint against another instance
+            return loadCompleted(transactionRef)
+                .orElseThrow(() -> new DuplicateTransactionException(
+                    "Transaction with reference " + transactionRef + " already exists"));
+        }
+    }
+
+    /**
+     * The posting already made under the ref, wherever it lives now. The archive keeps its own unique
+     * constraint, so without the archive and cold store lookups a ref could be posted again once archived.
+     */
+    private Optional<CompletedRequest> loadCompleted(String transactionRef) {
+        Optional<Transaction> hot = transactionRepository.findWithAccountsByTransactionRef(transactionRef);
+        if (hot.isPresent()) {
+            Transaction transaction = hot.get();
+            return Optional.of(completed(transactionRef, transactionMapper.toDto(transaction),
+                transaction.getSourceAccount(), transaction.getDestinationAccount()));
+        }
+        return archivedTransactionRepository.findByTransactionRef(transactionRef)
+            .map(transactionMapper::toDto)
+            .or(() -> coldStore.findByRef(transactionRef))
+            .map(transaction -> completed(transactionRef, transaction,
+                account(transaction.getSourceAccountId()), account(transaction.getDestinationAccountId())));
+    }
+
+    private CompletedRequest completed(String transactionRef, TransactionDto transaction, Account source, Account destination) {
+        if (transaction.getStatus() != TransactionStatus.COMPLETED) {
+            throw new DuplicateTransactionException(
+                "Transaction with reference " + transactionRef + " is " + transaction.getStatus());
+        }
+        Account owner = transaction.getType() == TransactionType.DEPOSIT ? destination : source;
+        if (owner == null) {
+            throw new DuplicateTransactionException("Transaction reference " + transactionRef + " was already used");
+        }
+        return new CompletedRequest(owner.getUser().getId(), accountNumber(source), accountNumber(destination), transaction);
+    }
+
+    private Account account(Long accountId) {
+        return accountId == null ? null : accountRepository.findById(accountId).orElse(null);
+    }
+
+    private static String accountNumber(Account account) {
+        return account == null ? null : account.getAccountNumber();
+    }
+
+    private CompletedRequest awaitInFlight(CompletableFuture<CompletedRequest> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * What a request asks for, compared against the completed posting before it is replayed
+     */
+    private record RequestKey(Long userId, TransactionType type, String sourceAccountNumber,
+                              String destinationAccountNumber, BigDecimal amount) {
+    }
+
+    private static final class CompletedRequest {
+        private final Long userId;
+        private final String sourceAccountNumber;
+        private final String destinationAccountNumber;
+        private final TransactionDto transaction;
+
+        private CompletedRequest(Long userId, String sourceAccountNumber, String destinationAccountNumber,
+                                 TransactionDto transaction) {
+            this.userId = userId;
+            this.sourceAccountNumber = sourceAccountNumber;
+            this.destinationAccountNumber = destinationAccountNumber;
+            this.transaction = transaction;
+        }
+
+        // A ref may only be replayed by its owner for the same operation on the same accounts
+        private TransactionDto replay(String transactionRef, RequestKey request) {
+            if (!userId.equals(request.userId())
+                    || transaction.getType() != request.type()
+                    || !Objects.equals(sourceAccountNumber, request.sourceAccountNumber())
+                    || !Objects.equals(destinationAccountNumber, request.destinationAccountNumber())
+                    || request.amount() == null
+                    || transaction.getAmount().compareTo(request.amount()) != 0) {
+                throw new DuplicateTransactionException(
+                    "Transaction reference " + transactionRef + " was already used for a different request");
+            }
+            return transaction;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.finance.transactions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Moves closed months of transactions into transactions_archive in small batches.
+ * Each batch is one short transaction and the archiver sleeps in proportion to how long the batch took,
+ * so it backs off automatically when the database is busy. PENDING rows stay in the hot table.
+ */
+@Component
+public class TransactionArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionArchiver.class);
+
+    private static final String ARCHIVE_COLUMNS =
+        "id, source_account_id, destination_account_id, type, amount, description, status, transaction_ref, created_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${finance.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${finance.archive.retain-months:3}")
+    private int retainMonths;
+
+    @Value("${finance.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${finance.archive.throttle-ratio:1.0}")
+    private double throttleRatio;
+
+    public TransactionArchiver(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(cron = "${finance.archive.cron:0 0 2 * * *}")
+    public void archiveClosedMonths() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(retainMonths);
+        archiveBefore(cutoff);
+    }
+
+    /**
+     * Archives every non-PENDING transaction created before the cutoff date
+     */
+    public long archiveBefore(LocalDate cutoff) {
+        // Ids grow with created_at, so the first id at or after the cutoff bounds the batches to a primary key range
+        Long cutoffId = jdbcTemplate.queryForObject(
+            "SELECT COALESCE((SELECT MIN(id) FROM transactions WHERE created_at >= ?), (SELECT COALESCE(MAX(id), 0) + 1 FROM transactions))",
+            Long.class, Timestamp.valueOf(cutoff.atStartOfDay()));
+
+        long lastId = 0;
+        long archived = 0;
+        while (true) {
+            long startNanos = System.nanoTime();
+            List<Long> batch = moveBatch(lastId, cutoffId);
+            if (batch.isEmpty()) {
+                break;
+            }
+            archived += batch.size();
+            lastId = batch.get(batch.size() - 1);
+
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            if (!pause((long) (elapsedMillis * throttleRatio))) {
+                break;
+            }
+        }
+        log.info("Archived {} transactions created before {}", archived, cutoff);
+        return archived;
+    }
+
+    private List<Long> moveBatch(long afterId, long beforeId) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM transactions WHERE id > ? AND id < ? AND status <> 'PENDING' ORDER BY id LIMIT ? FOR UPDATE",
+                Long.class, afterId, beforeId, batchSize);
+            if (ids.isEmpty()) {
+                return ids;
+            }
+            String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+            Object[] args = ids.toArray();
+            jdbcTemplate.update(
+                "INSERT INTO transactions_archive (" + ARCHIVE_COLUMNS + ") SELECT " + ARCHIVE_COLUMNS +
+                " FROM transactions WHERE id IN (" + placeholders + ")", args);
+            jdbcTemplate.update("DELETE FROM transactions WHERE id IN (" + placeholders + ")", args);
+            return ids;
+        });
+    }
+
+    private boolean pause(long millis) {
+        if (millis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -8,35 +8,48 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.math.BigDecimal;
 import com.example.finance.auth.JwtUtil;
 import com.example.finance.accounts.AccountRepository;
 import com.example.finance.accounts.Account;
 import com.example.finance.exceptions.AccountNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.WebRequest;
 import com.example.finance.accounts.AccountService;
+import com.example.finance.cluster.AccountSerializer;
+import com.example.finance.json.PageResponse;
 
 @RestController
 @RequestMapping("/api/transactions")
 public class TransactionController {
     private final TransactionService transactionService;
     private final TransactionLimitService transactionLimitService;
+    private final IdempotencyService idempotencyService;
+    private final TransactionSearchService transactionSearchService;
     private final AccountRepository accountRepository;
     private final JwtUtil jwtUtil;
     private final AccountService accountService;
+    private final AccountSerializer accountSerializer;
     public TransactionController(TransactionService transactionService, TransactionLimitService transactionLimitService,
-                               AccountRepository accountRepository, JwtUtil jwtUtil, AccountService accountService) {
+                               IdempotencyService idempotencyService, TransactionSearchService transactionSearchService,
+                               AccountRepository accountRepository, JwtUtil jwtUtil, AccountService accountService,
+                               AccountSerializer accountSerializer) {
         this.transactionService = transactionService;
         this.transactionLimitService = transactionLimitService;
+        this.idempotencyService = idempotencyService;
+        this.transactionSearchService = transactionSearchService;
         this.accountRepository = accountRepository;
         this.jwtUtil = jwtUtil;
         this.accountService = accountService;
+        this.accountSerializer = accountSerializer;
     }
 
     // Helper method to extract userId from JWT
@@ -56,19 +69,26 @@ public class TransactionController {
     @PostMapping("/deposit/{accountNumber}")
     public TransactionDto deposit(@RequestBody TransactionRequest request, @PathVariable String accountNumber, HttpServletRequest httpRequest) {
         Long userId = getUserIdFromToken(httpRequest);
-        return transactionService.deposit(accountNumber, request, userId);
+        return idempotencyService.execute(request.getTransactionRef(), userId, Transaction.TransactionType.DEPOSIT,
+            null, accountNumber, request.getAmount(),
+            () -> accountSerializer.serialize(accountNumber, () -> transactionService.deposit(accountNumber, request, userId)));
     }
 
     @PostMapping("/withdraw/{accountNumber}")
     public TransactionDto withdraw(@RequestBody TransactionRequest request, @PathVariable String accountNumber, HttpServletRequest httpRequest) {
         Long userId = getUserIdFromToken(httpRequest);
-        return transactionService.withdraw(accountNumber, request, userId);
+        return idempotencyService.execute(request.getTransactionRef(), userId, Transaction.TransactionType.WITHDRAW,
+            accountNumber, null, request.getAmount(),
+            () -> accountSerializer.serialize(accountNumber, () -> transactionService.withdraw(accountNumber, request, userId)));
     }
     
     @PostMapping("/transfer/{sourceAccountNumber}/to/{destinationAccountNumber}")
     public TransactionDto transfer(@RequestBody TransactionRequest request, @PathVariable String sourceAccountNumber, @PathVariable String destinationAccountNumber, HttpServletRequest httpRequest) {
         Long userId = getUserIdFromToken(httpRequest);
-        return transactionService.transfer(sourceAccountNumber, destinationAccountNumber, request, userId);
+        return idempotencyService.execute(request.getTransactionRef(), userId, Transaction.TransactionType.TRANSFER,
+            sourceAccountNumber, destinationAccountNumber, request.getAmount(),
+            () -> accountSerializer.serialize(sourceAccountNumber, destinationAccountNumber,
+                () -> transactionService.transfer(sourceAccountNumber, destinationAccountNumber, request, userId)));
     }
 
     @GetMapping("/account/{accountNumber}")
@@ -78,21 +98,67 @@ public class TransactionController {
     }
     
     @GetMapping("/account/{accountNumber}/paginated")
-    public Page<TransactionDto> getTransactionsPaginated(
+    public PageResponse<TransactionDto> getTransactionsPaginated(
             @PathVariable String accountNumber,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir,
-            HttpServletRequest httpRequest) {
+            HttpServletRequest httpRequest,
+            WebRequest webRequest) {
         Long userId = getUserIdFromToken(httpRequest);
         
+        // Every posting moves the balance and so bumps the account version. The tag is weak because
+        // Tomcat only gzips responses without a strong ETag, and history pages are the large ones.
+        Optional<String> versionTag = accountService.getAccountVersionTag(accountNumber, userId);
+        if (versionTag.isPresent() && webRequest.checkNotModified(
+                "W/\"" + versionTag.get() + "-" + page + "-" + size + "-" + sortBy + "-" + sortDir + "\"")) {
+            return null;
+        }
+        
         Sort sort = sortDir.equalsIgnoreCase("desc") 
             ? Sort.by(sortBy).descending() 
             : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        return transactionService.getTransactionsPaginated(accountNumber, userId, pageable);
+        return PageResponse.of(transactionService.getTransactionsPaginated(accountNumber, userId, pageable));
+    }
+    
+    @GetMapping("/account/{accountNumber}/search")
+    public TransactionSearchResult searchTransactions(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) Transaction.TransactionType type,
+            @RequestParam(required = false) Transaction.TransactionStatus status,
+            @RequestParam(required = false) String description,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest httpRequest) {
+        Long userId = getUserIdFromToken(httpRequest);
+        
+        TransactionSearchCriteria criteria = new TransactionSearchCriteria();
+        criteria.setFrom(from);
+        criteria.setTo(to);
+        criteria.setMinAmount(minAmount);
+        criteria.setMaxAmount(maxAmount);
+        criteria.setType(type);
+        criteria.setStatus(status);
+        criteria.setDescription(description);
+        return transactionSearchService.search(accountNumber, userId, httpRequest.isUserInRole("ADMIN"), criteria, cursor, size);
+    }
+    
+    @GetMapping("/account/{accountNumber}/text-search")
+    public List<TransactionDto> searchDescriptions(
+            @PathVariable String accountNumber,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "false") boolean prefix,
+            @RequestParam(defaultValue = "20") int limit,
+            HttpServletRequest httpRequest) {
+        Long userId = getUserIdFromToken(httpRequest);
+        return transactionService.searchDescriptions(accountNumber, userId, q, prefix, limit);
     }
     
     @GetMapping("/ref/{transactionRef}")
@@ -129,11 +195,9 @@ public class TransactionController {
             @PathVariable String accountNumber,
             @RequestParam String transactionType,
             @RequestParam BigDecimal newLimit,
-            @RequestParam(required = false) Integer newTransactionCountLimit,
-            HttpServletRequest httpRequest) {
-        
-        Long userId = getUserIdFromToken(httpRequest);
+            @RequestParam(required = false) Integer newTransactionCountLimit) {
         
+        // Admin only, see SecurityConfig: the new limits are stored as a permanent account override
         Account account = accountRepository.findByAccountNumber(accountNumber)
             .orElseThrow(() -> new AccountNotFoundException("Account with number " + accountNumber + " not found"));
         
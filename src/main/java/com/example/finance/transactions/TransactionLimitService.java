@@ -2,8 +2,13 @@ package com.example.finance.transactions;
 
 import com.example.finance.accounts.Account;
 import com.example.finance.exceptions.DailyLimitExceededException;
+import com.example.finance.exceptions.InvalidTransactionAmountException;
 import com.example.finance.exceptions.MaximumTransferLimitExceededException;
-import org.springframework.beans.factory.annotation.Value;
+import com.example.finance.limits.LimitEntry;
+import com.example.finance.limits.LimitProfileService;
+import com.example.finance.limits.LimitResolver;
+import com.example.finance.limits.TypeLimits;
+import com.example.finance.money.Money;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,52 +20,37 @@ import java.util.Optional;
 public class TransactionLimitService {
     
     private final DailyTransactionLimitRepository dailyTransactionLimitRepository;
+    private final LimitResolver limitResolver;
+    private final LimitProfileService limitProfileService;
     
-    @Value("${finance.transaction.max-transfer-limit:1000000.00}")
-    private BigDecimal maxTransferLimit;
-    
-    @Value("${finance.transaction.max-deposit-limit:500000.00}")
-    private BigDecimal maxDepositLimit;
-    
-    @Value("${finance.transaction.max-withdraw-limit:100000.00}")
-    private BigDecimal maxWithdrawLimit;
-    
-    @Value("${finance.transaction.default-daily-limit:50000.00}")
-    private BigDecimal defaultDailyLimit;
-    
-    @Value("${finance.transaction.default-daily-transaction-count:50}")
-    private Integer defaultDailyTransactionCount;
-    
-    public TransactionLimitService(DailyTransactionLimitRepository dailyTransactionLimitRepository) {
+    public TransactionLimitService(DailyTransactionLimitRepository dailyTransactionLimitRepository, LimitResolver limitResolver,
+                                   LimitProfileService limitProfileService) {
         this.dailyTransactionLimitRepository = dailyTransactionLimitRepository;
+        this.limitResolver = limitResolver;
+        this.limitProfileService = limitProfileService;
     }
     
     /**
-     * Validates if a transaction can be performed based on system-wide maximum limits
+     * Validates a transaction against the account's maximum per-transaction limit
      */
-    public void validateMaximumTransactionLimits(Transaction.TransactionType transactionType, BigDecimal amount) {
+    public void validateMaximumTransactionLimits(Account account, Transaction.TransactionType transactionType, Money amount) {
+        Money maximum = limitResolver.resolve(account.getId()).get(transactionType).maxPerTransaction();
+        if (!amount.isGreaterThan(maximum)) {
+            return;
+        }
         switch (transactionType) {
             case TRANSFER:
-                if (amount.compareTo(maxTransferLimit) > 0) {
-                    throw new MaximumTransferLimitExceededException(
-                        "Transfer amount " + amount + " exceeds maximum allowed limit of " + maxTransferLimit
-                    );
-                }
-                break;
+                throw new MaximumTransferLimitExceededException(
+                    "Transfer amount " + amount + " exceeds maximum allowed limit of " + maximum
+                );
             case DEPOSIT:
-                if (amount.compareTo(maxDepositLimit) > 0) {
-                    throw new MaximumTransferLimitExceededException(
-                        "Deposit amount " + amount + " exceeds maximum allowed limit of " + maxDepositLimit
-                    );
-                }
-                break;
-            case WITHDRAW:
-                if (amount.compareTo(maxWithdrawLimit) > 0) {
-                    throw new MaximumTransferLimitExceededException(
-                        "Withdrawal amount " + amount + " exceeds maximum allowed limit of " + maxWithdrawLimit
-                    );
-                }
-                break;
+                throw new MaximumTransferLimitExceededException(
+                    "Deposit amount " + amount + " exceeds maximum allowed limit of " + maximum
+                );
+            default:
+                throw new MaximumTransferLimitExceededException(
+                    "Withdrawal amount " + amount + " exceeds maximum allowed limit of " + maximum
+                );
         }
     }
     
@@ -68,13 +58,13 @@ public class TransactionLimitService {
      * Validates if a transaction can be performed based on daily limits
      */
     @Transactional
-    public void validateDailyLimit(Account account, Transaction.TransactionType transactionType, BigDecimal amount) {
+    public void validateDailyLimit(Account account, Transaction.TransactionType transactionType, Money amount) {
         LocalDate today = LocalDate.now();
         
         DailyTransactionLimit dailyLimit = getOrCreateDailyLimit(account, transactionType, today);
         
         if (!dailyLimit.canAccommodateTransaction(amount)) {
-            if (dailyLimit.getRemainingLimit().compareTo(amount) < 0) {
+            if (dailyLimit.getRemainingLimit().isLessThan(amount)) {
                 throw new DailyLimitExceededException(
                     "Transaction amount " + amount + " exceeds daily remaining limit of " + 
                     dailyLimit.getRemainingLimit() + " for " + transactionType + " transactions"
@@ -92,7 +82,7 @@ public class TransactionLimitService {
      * Records a successful transaction against daily limits
      */
     @Transactional
-    public void recordTransaction(Account account, Transaction.TransactionType transactionType, BigDecimal amount) {
+    public void recordTransaction(Account account, Transaction.TransactionType transactionType, Money amount) {
         LocalDate today = LocalDate.now();
         
         DailyTransactionLimit dailyLimit = getOrCreateDailyLimit(account, transactionType, today);
@@ -101,7 +91,8 @@ public class TransactionLimitService {
     }
     
     /**
-     * Gets or creates a daily limit record for the given account, transaction type, and date
+     * Gets or creates a daily limit record for the given account, transaction type, and date.
+     * New records are seeded from the account's resolved limit profile.
      */
     private DailyTransactionLimit getOrCreateDailyLimit(Account account, Transaction.TransactionType transactionType, LocalDate date) {
         Optional<DailyTransactionLimit> existingLimit = dailyTransactionLimitRepository
@@ -111,45 +102,37 @@ public class TransactionLimitService {
             return existingLimit.get();
         }
         
-        // Create new daily limit record with default values
+        TypeLimits limits = limitResolver.resolve(account.getId()).get(transactionType);
         DailyTransactionLimit newLimit = new DailyTransactionLimit();
         newLimit.setAccount(account);
         newLimit.setTransactionType(transactionType);
         newLimit.setDate(date);
-        newLimit.setDailyLimit(getDefaultDailyLimitForType(transactionType));
-        newLimit.setUsedAmount(BigDecimal.ZERO);
+        newLimit.setDailyLimit(limits.dailyLimit());
+        newLimit.setUsedAmount(Money.ZERO);
         newLimit.setTransactionCount(0);
-        newLimit.setMaxTransactionCount(defaultDailyTransactionCount);
+        newLimit.setMaxTransactionCount(limits.dailyCount());
         
         return dailyTransactionLimitRepository.save(newLimit);
     }
     
     /**
-     * Gets default daily limit based on transaction type
-     */
-    private BigDecimal getDefaultDailyLimitForType(Transaction.TransactionType transactionType) {
-        switch (transactionType) {
-            case TRANSFER:
-                return defaultDailyLimit;
-            case DEPOSIT:
-                return defaultDailyLimit.multiply(BigDecimal.valueOf(2)); // Higher limit for deposits
-            case WITHDRAW:
-                return defaultDailyLimit.multiply(BigDecimal.valueOf(0.5)); // Lower limit for withdrawals
-            default:
-                return defaultDailyLimit;
-        }
-    }
-    
-    /**
-     * Updates daily limit for a specific account and transaction type
+     * Updates the daily limit of an account and transaction type. The change is stored as an account
+     * override, so it also applies to the daily records of the following days.
      */
     @Transactional
     public void updateDailyLimit(Account account, Transaction.TransactionType transactionType, 
                                 BigDecimal newLimit, Integer newTransactionCountLimit) {
+        Money limit;
+        try {
+            limit = Money.of(newLimit);
+        } catch (ArithmeticException e) {
+            throw new InvalidTransactionAmountException("Daily limit " + newLimit + " must have at most two decimal places");
+        }
+        limitProfileService.setOverride(account.getId(), transactionType, new LimitEntry(newLimit, newTransactionCountLimit, null));
         LocalDate today = LocalDate.now();
         
         DailyTransactionLimit dailyLimit = getOrCreateDailyLimit(account, transactionType, today);
-        dailyLimit.setDailyLimit(newLimit);
+        dailyLimit.setDailyLimit(limit);
         if (newTransactionCountLimit != null) {
             dailyLimit.setMaxTransactionCount(newTransactionCountLimit);
         }
@@ -159,7 +142,7 @@ public class TransactionLimitService {
     /**
      * Gets remaining daily limit for an account and transaction type
      */
-    public BigDecimal getRemainingDailyLimit(Account account, Transaction.TransactionType transactionType) {
+    public Money getRemainingDailyLimit(Account account, Transaction.TransactionType transactionType) {
         LocalDate today = LocalDate.now();
         
           // Check if there's already a daily limit record for today
@@ -170,6 +153,6 @@ public class TransactionLimitService {
             return dailyLimit.get().getRemainingLimit();
         }
         
-        return getDefaultDailyLimitForType(transactionType);
+        return limitResolver.resolve(account.getId()).get(transactionType).dailyLimit();
     }
 }
@@ -10,6 +10,8 @@ public interface TransactionMapper {
     @Mapping(source = "sourceAccount.id", target = "sourceAccountId")
     @Mapping(source = "destinationAccount.id", target = "destinationAccountId")
     TransactionDto toDto(Transaction transaction);
+    
+    TransactionDto toDto(ArchivedTransaction transaction);
     void updateEntity(TransactionRequest request, @MappingTarget Transaction transaction);
 
 }
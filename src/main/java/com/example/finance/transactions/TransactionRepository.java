@@ -1,6 +1,8 @@
 package com.example.finance.transactions;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import java.util.List;
@@ -11,4 +13,7 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     List<Transaction> findBySourceAccountOrDestinationAccount(Account sourceAccount, Account destinationAccount);
     Page<Transaction> findBySourceAccountOrDestinationAccount(Account sourceAccount, Account destinationAccount, Pageable pageable);
     Optional<Transaction> findByTransactionRef(String transactionRef);
+    
+    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.sourceAccount LEFT JOIN FETCH t.destinationAccount WHERE t.transactionRef = :transactionRef")
+    Optional<Transaction> findWithAccountsByTransactionRef(@Param("transactionRef") String transactionRef);
 }
@@ -0,0 +1,134 @@
+package com.example.finance.transactions;
+
+import com.example.finance.exceptions.InvalidSummaryPeriodException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Maintains account_daily_totals and account_monthly_totals by delta.
+ * Callers invoke it inside the transaction that posts the money movement, so the totals commit
+ * or roll back together with the posting. Only COMPLETED postings are ever recorded.
+ */
+@Service
+public class TransactionRollupService {
+    
+    private static final String TOTAL_COLUMNS =
+        "deposit_amount, deposit_count, withdraw_amount, withdraw_count, " +
+        "transfer_in_amount, transfer_in_count, transfer_out_amount, transfer_out_count";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    public TransactionRollupService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    /**
+     * Which side of a transaction an account is on, mapped to its rollup columns
+     */
+    public enum PostingLeg {
+        DEPOSIT("deposit"), WITHDRAW("withdraw"), TRANSFER_IN("transfer_in"), TRANSFER_OUT("transfer_out");
+        
+        private final String column;
+        
+        PostingLeg(String column) {
+            this.column = column;
+        }
+        
+        public static PostingLeg of(Transaction.TransactionType type, boolean incoming) {
+            switch (type) {
+                case DEPOSIT:
+                    return DEPOSIT;
+                case WITHDRAW:
+                    return WITHDRAW;
+                default:
+                    return incoming ? TRANSFER_IN : TRANSFER_OUT;
+            }
+        }
+    }
+    
+    public void recordPosting(Long accountId, PostingLeg leg, BigDecimal amount) {
+        LocalDate today = LocalDate.now();
+        jdbcTemplate.update(upsert("account_daily_totals", "day", leg), accountId, Date.valueOf(today), amount);
+        jdbcTemplate.update(upsert("account_monthly_totals", "month", leg), accountId, Date.valueOf(today.withDayOfMonth(1)), amount);
+    }
+    
+    /**
+     * Batch variant for jobs that post many rows of the same leg, each entry is {accountId, amount}
+     */
+    public void recordPostings(PostingLeg leg, List<Object[]> accountAmounts) {
+        LocalDate today = LocalDate.now();
+        jdbcTemplate.batchUpdate(upsert("account_daily_totals", "day", leg), accountAmounts, accountAmounts.size(), (ps, entry) -> {
+            ps.setLong(1, (Long) entry[0]);
+            ps.setDate(2, Date.valueOf(today));
+            ps.setBigDecimal(3, (BigDecimal) entry[1]);
+        });
+        jdbcTemplate.batchUpdate(upsert("account_monthly_totals", "month", leg), accountAmounts, accountAmounts.size(), (ps, entry) -> {
+            ps.setLong(1, (Long) entry[0]);
+            ps.setDate(2, Date.valueOf(today.withDayOfMonth(1)));
+            ps.setBigDecimal(3, (BigDecimal) entry[1]);
+        });
+    }
+    
+    /**
+     * Totals for the current day, week or month. Day and month are single primary key reads,
+     * a week reads at most seven daily rows of the same key prefix.
+     */
+    public AccountSummaryDto getSummary(Long accountId, String accountNumber, String period) {
+        LocalDate today = LocalDate.now();
+        AccountSummaryDto summary = new AccountSummaryDto();
+        summary.setAccountNumber(accountNumber);
+        summary.setPeriod(period.toLowerCase());
+        
+        String sql;
+        Object[] args;
+        switch (summary.getPeriod()) {
+            case "day":
+                summary.setPeriodStart(today);
+                sql = "SELECT " + TOTAL_COLUMNS + " FROM account_daily_totals WHERE account_id = ? AND day = ?";
+                args = new Object[] {accountId, Date.valueOf(today)};
+                break;
+            case "week":
+                LocalDate monday = today.with(DayOfWeek.MONDAY);
+                summary.setPeriodStart(monday);
+                sql = "SELECT SUM(deposit_amount) AS deposit_amount, SUM(deposit_count) AS deposit_count, " +
+                      "SUM(withdraw_amount) AS withdraw_amount, SUM(withdraw_count) AS withdraw_count, " +
+                      "SUM(transfer_in_amount) AS transfer_in_amount, SUM(transfer_in_count) AS transfer_in_count, " +
+                      "SUM(transfer_out_amount) AS transfer_out_amount, SUM(transfer_out_count) AS transfer_out_count " +
+                      "FROM account_daily_totals WHERE account_id = ? AND day BETWEEN ? AND ? HAVING COUNT(*) > 0";
+                args = new Object[] {accountId, Date.valueOf(monday), Date.valueOf(today)};
+                break;
+            case "month":
+                summary.setPeriodStart(today.withDayOfMonth(1));
+                sql = "SELECT " + TOTAL_COLUMNS + " FROM account_monthly_totals WHERE account_id = ? AND month = ?";
+                args = new Object[] {accountId, Date.valueOf(today.withDayOfMonth(1))};
+                break;
+            default:
+                throw new InvalidSummaryPeriodException("Unsupported summary period " + period + ", use day, week or month");
+        }
+        
+        jdbcTemplate.query(sql, rs -> {
+            summary.setDepositAmount(rs.getBigDecimal("deposit_amount"));
+            summary.setDepositCount(rs.getInt("deposit_count"));
+            summary.setWithdrawAmount(rs.getBigDecimal("withdraw_amount"));
+            summary.setWithdrawCount(rs.getInt("withdraw_count"));
+            summary.setTransferInAmount(rs.getBigDecimal("transfer_in_amount"));
+            summary.setTransferInCount(rs.getInt("transfer_in_count"));
+            summary.setTransferOutAmount(rs.getBigDecimal("transfer_out_amount"));
+            summary.setTransferOutCount(rs.getInt("transfer_out_count"));
+        }, args);
+        return summary;
+    }
+    
+    private static String upsert(String table, String periodColumn, PostingLeg leg) {
+        return "INSERT INTO " + table + " (account_id, " + periodColumn + ", " + leg.column + "_amount, " + leg.column + "_count) " +
+               "VALUES (?, ?, ?, 1) ON DUPLICATE KEY UPDATE " +
+               leg.column + "_amount = " + leg.column + "_amount + VALUES(" + leg.column + "_amount), " +
+               leg.column + "_count = " + leg.column + "_count + 1";
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.finance.transactions;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class TransactionSearchCriteria {
+    private Long accountId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private Transaction.TransactionType type;
+    private Transaction.TransactionStatus status;
+    private String description;
+    
+    // Keyset position of the last row already returned, rows strictly older are searched
+    private LocalDateTime afterCreatedAt;
+    private Long afterId;
+}
@@ -0,0 +1,127 @@
+package com.example.finance.transactions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the SQL for one side (source or destination) of an account's transaction search, on the hot
+ * transactions table or on transactions_archive.
+ * Only the predicates that were supplied are emitted, results are always in (created_at, id) descending
+ * keyset order, and the index is chosen explicitly so each filter combination is a range scan:
+ * an equality on type or status narrows the matching composite index, everything else filters
+ * rows while walking the (account, created_at) range. The archive only has the (account, created_at) indexes,
+ * so there every filter is applied while walking that range.
+ */
+public final class TransactionSearchQueryBuilder {
+    
+    private static final String COLUMNS =
+        "id, source_account_id, destination_account_id, type, amount, description, status, transaction_ref, created_at";
+    
+    public enum Side {
+        SOURCE("transactions", "source_account_id", "idx_transactions_source_created",
+            "idx_transactions_source_type_created", "idx_transactions_source_status_created"),
+        DESTINATION("transactions", "destination_account_id", "idx_transactions_dest_created",
+            "idx_transactions_dest_type_created", "idx_transactions_dest_status_created"),
+        ARCHIVED_SOURCE("transactions_archive", "source_account_id", "idx_transactions_archive_source_created",
+            "idx_transactions_archive_source_created", "idx_transactions_archive_source_created"),
+        ARCHIVED_DESTINATION("transactions_archive", "destination_account_id", "idx_transactions_archive_dest_created",
+            "idx_transactions_archive_dest_created", "idx_transactions_archive_dest_created");
+        
+        private final String table;
+        private final String column;
+        private final String createdIndex;
+        private final String typeIndex;
+        private final String statusIndex;
+        
+        Side(String table, String column, String createdIndex, String typeIndex, String statusIndex) {
+            this.table = table;
+            this.column = column;
+            this.createdIndex = createdIndex;
+            this.typeIndex = typeIndex;
+            this.statusIndex = statusIndex;
+        }
+        
+        String table() {
+            return table;
+        }
+        
+        String column() {
+            return column;
+        }
+    }
+    
+    private final String sql;
+    private final List<Object> args;
+    
+    private TransactionSearchQueryBuilder(String sql, List<Object> args) {
+        this.sql = sql;
+        this.args = args;
+    }
+    
+    public String getSql() {
+        return sql;
+    }
+    
+    public Object[] getArgs() {
+        return args.toArray();
+    }
+    
+    public static TransactionSearchQueryBuilder build(TransactionSearchCriteria criteria, Side side, int limit) {
+        List<String> predicates = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        
+        predicates.add(side.column + " = ?");
+        args.add(criteria.getAccountId());
+        
+        // Type is usually the more selective equality, so it wins when both are supplied
+        String index = side.createdIndex;
+        if (criteria.getType() != null) {
+            index = side.typeIndex;
+            predicates.add("type = ?");
+            args.add(criteria.getType().name());
+        } else if (criteria.getStatus() != null) {
+            index = side.statusIndex;
+        }
+        if (criteria.getStatus() != null) {
+            predicates.add("status = ?");
+            args.add(criteria.getStatus().name());
+        }
+        
+        if (criteria.getFrom() != null) {
+            predicates.add("created_at >= ?");
+            args.add(criteria.getFrom());
+        }
+        if (criteria.getTo() != null) {
+            predicates.add("created_at < ?");
+            args.add(criteria.getTo());
+        }
+        if (criteria.getAfterCreatedAt() != null && criteria.getAfterId() != null) {
+            predicates.add("(created_at < ? OR (created_at = ? AND id < ?))");
+            args.add(criteria.getAfterCreatedAt());
+            args.add(criteria.getAfterCreatedAt());
+            args.add(criteria.getAfterId());
+        }
+        if (criteria.getMinAmount() != null) {
+            predicates.add("amount >= ?");
+            args.add(criteria.getMinAmount());
+        }
+        if (criteria.getMaxAmount() != null) {
+            predicates.add("amount <= ?");
+            args.add(criteria.getMaxAmount());
+        }
+        if (criteria.getDescription() != null && !criteria.getDescription().isBlank()) {
+            predicates.add("description LIKE ? ESCAPE '\\\\'");
+            args.add("%" + escapeLike(criteria.getDescription()) + "%");
+        }
+        
+        String sql = "SELECT " + COLUMNS + " FROM " + side.table + " FORCE INDEX (" + index + ")" +
+                     " WHERE " + String.join(" AND ", predicates) +
+                     " ORDER BY created_at DESC, id DESC LIMIT ?";
+        args.add(limit);
+        return new TransactionSearchQueryBuilder(sql, args);
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.finance.transactions;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TransactionSearchResult {
+    private List<TransactionDto> items;
+    private String nextCursor;
+}
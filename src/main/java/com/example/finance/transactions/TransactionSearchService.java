@@ -0,0 +1,109 @@
+package com.example.finance.transactions;
+
+import com.example.finance.accounts.Account;
+import com.example.finance.accounts.AccountRepository;
+import com.example.finance.accounts.AccountService;
+import com.example.finance.exceptions.AccountNotFoundException;
+import com.example.finance.exceptions.InvalidSearchCursorException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-field search over an account's transactions with keyset pagination.
+ * Each side of the account is queried separately so both stay index range scans,
+ * and the two ordered results are merged.
+ */
+@Service
+public class TransactionSearchService {
+    
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    private static final RowMapper<TransactionDto> ROW_MAPPER = (rs, rowNum) -> {
+        TransactionDto dto = new TransactionDto();
+        dto.setId(rs.getLong("id"));
+        dto.setSourceAccountId(rs.getObject("source_account_id", Long.class));
+        dto.setDestinationAccountId(rs.getObject("destination_account_id", Long.class));
+        dto.setType(Transaction.TransactionType.valueOf(rs.getString("type")));
+        dto.setAmount(rs.getBigDecimal("amount"));
+        dto.setDescription(rs.getString("description"));
+        dto.setStatus(Transaction.TransactionStatus.valueOf(rs.getString("status")));
+        dto.setTransactionRef(rs.getString("transaction_ref"));
+        dto.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        return dto;
+    };
+    
+    private static final Comparator<TransactionDto> KEYSET_ORDER = Comparator
+        .comparing(TransactionDto::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(TransactionDto::getId, Comparator.reverseOrder());
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountRepository accountRepository;
+    private final AccountService accountService;
+    
+    public TransactionSearchService(JdbcTemplate jdbcTemplate, AccountRepository accountRepository, AccountService accountService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.accountRepository = accountRepository;
+        this.accountService = accountService;
+    }
+    
+    /**
+     * One page of an account's transactions matching the criteria, hot and archived rows merged.
+     * Admins may search any account, other callers only their own.
+     */
+    public TransactionSearchResult search(String accountNumber, Long userId, boolean admin, TransactionSearchCriteria criteria,
+                                          String cursor, int size) {
+        if (!admin) {
+            accountService.validateAccountOwnership(accountNumber, userId);
+        }
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+            .orElseThrow(() -> new AccountNotFoundException("Account with number " + accountNumber + " not found"));
+        
+        criteria.setAccountId(account.getId());
+        if (cursor != null && !cursor.isBlank()) {
+            decodeCursor(cursor, criteria);
+        }
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        
+        // A self transfer shows up on both sides, and a row being archived may briefly be in both tables, keep one copy
+        Map<Long, TransactionDto> merged = new LinkedHashMap<>();
+        for (TransactionSearchQueryBuilder.Side side : TransactionSearchQueryBuilder.Side.values()) {
+            TransactionSearchQueryBuilder query = TransactionSearchQueryBuilder.build(criteria, side, limit + 1);
+            for (TransactionDto row : jdbcTemplate.query(query.getSql(), ROW_MAPPER, query.getArgs())) {
+                merged.putIfAbsent(row.getId(), row);
+            }
+        }
+        
+        List<TransactionDto> rows = new ArrayList<>(merged.values());
+        rows.sort(KEYSET_ORDER);
+        if (rows.size() <= limit) {
+            return new TransactionSearchResult(rows, null);
+        }
+        List<TransactionDto> page = new ArrayList<>(rows.subList(0, limit));
+        return new TransactionSearchResult(page, encodeCursor(page.get(limit - 1)));
+    }
+    
+    private static String encodeCursor(TransactionDto last) {
+        String position = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static void decodeCursor(String cursor, TransactionSearchCriteria criteria) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            criteria.setAfterCreatedAt(LocalDateTime.parse(position[0]));
+            criteria.setAfterId(Long.parseLong(position[1]));
+        } catch (RuntimeException e) {
+            throw new InvalidSearchCursorException("Invalid search cursor");
+        }
+    }
+}
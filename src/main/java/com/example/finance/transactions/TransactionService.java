@@ -7,37 +7,74 @@ import com.example.finance.accounts.AccountService;
 import com.example.finance.transactions.Transaction.TransactionType;
 import com.example.finance.transactions.Transaction.TransactionStatus;
 import com.example.finance.accounts.Account;
+import com.example.finance.coldstore.ColdStore;
+import com.example.finance.events.AccountEventPublisher;
+import com.example.finance.journal.TransactionJournal;
+import com.example.finance.money.Money;
+import com.example.finance.outbox.OutboxWriter;
+import com.example.finance.velocity.VelocityEngine;
 import com.example.finance.exceptions.AccountNotFoundException;
 import com.example.finance.exceptions.AccountSuspendedException;
 import com.example.finance.exceptions.InsufficientBalanceException;
 import com.example.finance.exceptions.InvalidTransactionAmountException;
+import com.example.finance.textsearch.DescriptionIndex;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TransactionService {
     private final TransactionRepository transactionRepository;
+    private final ArchivedTransactionRepository archivedTransactionRepository;
+    private final ColdStore coldStore;
     private final AccountRepository accountRepository;
     private final TransactionMapper transactionMapper;
     private final AccountService accountService;
     private final TransactionLimitService transactionLimitService;
+    private final TransactionRollupService transactionRollupService;
+    private final DescriptionIndex descriptionIndex;
+    private final AccountEventPublisher accountEventPublisher;
+    private final OutboxWriter outboxWriter;
+    private final VelocityEngine velocityEngine;
+    private final TransactionJournal transactionJournal;
     
-    public TransactionService(TransactionRepository transactionRepository, AccountRepository accountRepository, 
-                            TransactionMapper transactionMapper, AccountService accountService,
-                            TransactionLimitService transactionLimitService) {
+    public TransactionService(TransactionRepository transactionRepository, ArchivedTransactionRepository archivedTransactionRepository,
+                            ColdStore coldStore, AccountRepository accountRepository, TransactionMapper transactionMapper,
+                            AccountService accountService, TransactionLimitService transactionLimitService,
+                            TransactionRollupService transactionRollupService, DescriptionIndex descriptionIndex,
+                            AccountEventPublisher accountEventPublisher, OutboxWriter outboxWriter,
+                            VelocityEngine velocityEngine, TransactionJournal transactionJournal) {
         this.transactionRepository = transactionRepository;
+        this.archivedTransactionRepository = archivedTransactionRepository;
+        this.coldStore = coldStore;
         this.accountRepository = accountRepository;
         this.transactionMapper = transactionMapper;
         this.accountService = accountService;
         this.transactionLimitService = transactionLimitService;
+        this.transactionRollupService = transactionRollupService;
+        this.descriptionIndex = descriptionIndex;
+        this.accountEventPublisher = accountEventPublisher;
+        this.outboxWriter = outboxWriter;
+        this.velocityEngine = velocityEngine;
+        this.transactionJournal = transactionJournal;
     }
     
     private void validateAccountStatus(Account account) {
@@ -46,6 +83,17 @@ public class TransactionService {
         }
     }
     
+    private Money toMoney(BigDecimal amount) {
+        if (amount == null) {
+            throw new InvalidTransactionAmountException("Amount is required");
+        }
+        try {
+            return Money.of(amount);
+        } catch (ArithmeticException e) {
+            throw new InvalidTransactionAmountException("Amount " + amount + " must have at most two decimal places");
+        }
+    }
+    
     private String generateTransactionRef() {
         // Generate a unique transaction reference ID Format: TXN-{UUID first 8 chars}-{timestamp last 6 digits}
         String uuid = UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
@@ -61,36 +109,37 @@ public class TransactionService {
         
         // Validate account ownership
         accountService.validateAccountOwnership(account.getAccountNumber(), userId);
-        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        Money amount = toMoney(request.getAmount());
+        if (!amount.isPositive()) {
             throw new InvalidTransactionAmountException("Deposit amount must be positive");
         }
         validateAccountStatus(account);
         
         // Validate transaction limits
-        transactionLimitService.validateMaximumTransactionLimits(TransactionType.DEPOSIT, request.getAmount());
-        transactionLimitService.validateDailyLimit(account, TransactionType.DEPOSIT, request.getAmount());
+        transactionLimitService.validateMaximumTransactionLimits(account, TransactionType.DEPOSIT, amount);
+        transactionLimitService.validateDailyLimit(account, TransactionType.DEPOSIT, amount);
         
         // Create transaction with PENDING status first
         String transactionRef = request.getTransactionRef() != null ? request.getTransactionRef() : generateTransactionRef();
         Transaction transaction = new Transaction(null, null, account, TransactionType.DEPOSIT, request.getAmount(), request.getDescription(), TransactionStatus.PENDING, transactionRef, null);
         Transaction savedTransaction = transactionRepository.save(transaction);
+        transactionJournal.recordPosting(savedTransaction.getId(), transactionRef, TransactionType.DEPOSIT, null, account.getId(), amount);
         
-        try {
-            // Process the deposit
-            account.setBalance(account.getBalance().add(request.getAmount()));
-            accountRepository.save(account);
-            savedTransaction.setStatus(TransactionStatus.COMPLETED);
-            savedTransaction = transactionRepository.save(savedTransaction);
-            
-            // Record transaction for limit tracking
-            transactionLimitService.recordTransaction(account, TransactionType.DEPOSIT, request.getAmount());
-            
-            return transactionMapper.toDto(savedTransaction);
-        } catch (Exception e) {
-            savedTransaction.setStatus(TransactionStatus.FAILED);
-            transactionRepository.save(savedTransaction);
-            throw e; // Re-throw the exception
-        }
+        // Process the deposit
+        account.setBalance(account.getBalance().plus(amount));
+        accountRepository.save(account);
+        savedTransaction.setStatus(TransactionStatus.COMPLETED);
+        savedTransaction = transactionRepository.save(savedTransaction);
+        
+        // Record transaction for limit tracking
+        transactionLimitService.recordTransaction(account, TransactionType.DEPOSIT, amount);
+        transactionRollupService.recordPosting(account.getId(), TransactionRollupService.PostingLeg.DEPOSIT, request.getAmount());
+        descriptionIndex.indexAfterCommit(savedTransaction.getId(), null, account.getId(), request.getDescription());
+        
+        TransactionDto result = transactionMapper.toDto(savedTransaction);
+        outboxWriter.recordCompleted(result);
+        accountEventPublisher.publishPostingAfterCommit(result, account);
+        return result;
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -102,39 +151,41 @@ public class TransactionService {
         // Validate account ownership
         accountService.validateAccountOwnership(account.getAccountNumber(), userId);
         
-        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        Money amount = toMoney(request.getAmount());
+        if (!amount.isPositive()) {
             throw new InvalidTransactionAmountException("Withdrawal amount must be positive");
         }
         validateAccountStatus(account);
-        if (account.getBalance().compareTo(request.getAmount()) < 0) {
+        if (account.getBalance().isLessThan(amount)) {
             throw new InsufficientBalanceException("Insufficient balance for withdrawal. Available: " + account.getBalance() + ", Requested: " + request.getAmount());
         }
         
         // Validate transaction limits
-        transactionLimitService.validateMaximumTransactionLimits(TransactionType.WITHDRAW, request.getAmount());
-        transactionLimitService.validateDailyLimit(account, TransactionType.WITHDRAW, request.getAmount());
+        transactionLimitService.validateMaximumTransactionLimits(account, TransactionType.WITHDRAW, amount);
+        transactionLimitService.validateDailyLimit(account, TransactionType.WITHDRAW, amount);
+        velocityEngine.checkAndReserve(account.getId(), null, TransactionType.WITHDRAW, amount);
         
         // Create transaction with PENDING status first
         String transactionRef = request.getTransactionRef() != null ? request.getTransactionRef() : generateTransactionRef();
         Transaction transaction = new Transaction(null, account, null, TransactionType.WITHDRAW, request.getAmount(), request.getDescription(), TransactionStatus.PENDING, transactionRef, null);
         Transaction savedTransaction = transactionRepository.save(transaction);
+        transactionJournal.recordPosting(savedTransaction.getId(), transactionRef, TransactionType.WITHDRAW, account.getId(), null, amount);
         
-        try {
-            // Process the withdrawal
-            account.setBalance(account.getBalance().subtract(request.getAmount()));
-            accountRepository.save(account);
-            savedTransaction.setStatus(TransactionStatus.COMPLETED);
-            savedTransaction = transactionRepository.save(savedTransaction);
-            
-            // Record transaction for limit tracking
-            transactionLimitService.recordTransaction(account, TransactionType.WITHDRAW, request.getAmount());
-            
-            return transactionMapper.toDto(savedTransaction);
-        } catch (Exception e) {
-            savedTransaction.setStatus(TransactionStatus.FAILED);
-            transactionRepository.save(savedTransaction);
-            throw e; // Re-throw the exception
-        }
+        // Process the withdrawal
+        account.setBalance(account.getBalance().minus(amount));
+        accountRepository.save(account);
+        savedTransaction.setStatus(TransactionStatus.COMPLETED);
+        savedTransaction = transactionRepository.save(savedTransaction);
+        
+        // Record transaction for limit tracking
+        transactionLimitService.recordTransaction(account, TransactionType.WITHDRAW, amount);
+        transactionRollupService.recordPosting(account.getId(), TransactionRollupService.PostingLeg.WITHDRAW, request.getAmount());
+        descriptionIndex.indexAfterCommit(savedTransaction.getId(), account.getId(), null, request.getDescription());
+        
+        TransactionDto result = transactionMapper.toDto(savedTransaction);
+        outboxWriter.recordCompleted(result);
+        accountEventPublisher.publishPostingAfterCommit(result, account);
+        return result;
     }
 
     @Transactional(
@@ -151,52 +202,56 @@ public class TransactionService {
         
         accountService.validateAccountOwnership(sourceAccount.getAccountNumber(), userId);
         
-        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        Money amount = toMoney(request.getAmount());
+        if (!amount.isPositive()) {
             throw new InvalidTransactionAmountException("Transfer amount must be positive");
         }
         
         validateAccountStatus(sourceAccount);
         validateAccountStatus(destinationAccount);
         
-        if (sourceAccount.getBalance().compareTo(request.getAmount()) < 0) {
+        if (sourceAccount.getBalance().isLessThan(amount)) {
             throw new InsufficientBalanceException("Insufficient balance for transfer. Available: " + sourceAccount.getBalance() + ", Requested: " + request.getAmount());
         }
         
         // Validate transaction limits
-        transactionLimitService.validateMaximumTransactionLimits(TransactionType.TRANSFER, request.getAmount());
-        transactionLimitService.validateDailyLimit(sourceAccount, TransactionType.TRANSFER, request.getAmount());
+        transactionLimitService.validateMaximumTransactionLimits(sourceAccount, TransactionType.TRANSFER, amount);
+        transactionLimitService.validateDailyLimit(sourceAccount, TransactionType.TRANSFER, amount);
+        velocityEngine.checkAndReserve(sourceAccount.getId(), destinationAccount.getId(), TransactionType.TRANSFER, amount);
         
         // Create transaction with PENDING status first
         String transactionRef = request.getTransactionRef() != null ? request.getTransactionRef() : generateTransactionRef();
         Transaction transaction = new Transaction(null, sourceAccount, destinationAccount, 
             TransactionType.TRANSFER, request.getAmount(), request.getDescription(), TransactionStatus.PENDING, transactionRef, null);
         Transaction savedTransaction = transactionRepository.save(transaction);
+        transactionJournal.recordPosting(savedTransaction.getId(), transactionRef, TransactionType.TRANSFER,
+            sourceAccount.getId(), destinationAccount.getId(), amount);
         
-        try {
-            // Perform atomic balance updates
-            BigDecimal sourceNewBalance = sourceAccount.getBalance().subtract(request.getAmount());
-            BigDecimal destinationNewBalance = destinationAccount.getBalance().add(request.getAmount());
-            
-            sourceAccount.setBalance(sourceNewBalance);
-            destinationAccount.setBalance(destinationNewBalance);
-            
-            // Save both accounts - if either fails, transaction will rollback
-            accountRepository.save(sourceAccount);
-            accountRepository.save(destinationAccount);
-            
-            // Update transaction status to COMPLETED
-            savedTransaction.setStatus(TransactionStatus.COMPLETED);
-            savedTransaction = transactionRepository.save(savedTransaction);
-            
-            // Record transaction for limit tracking
-            transactionLimitService.recordTransaction(sourceAccount, TransactionType.TRANSFER, request.getAmount());
-            
-            return transactionMapper.toDto(savedTransaction);
-        } catch (Exception e) {
-            savedTransaction.setStatus(TransactionStatus.FAILED);
-            transactionRepository.save(savedTransaction);
-            throw e; // Re-throw the exception
-        }
+        // Perform atomic balance updates
+        Money sourceNewBalance = sourceAccount.getBalance().minus(amount);
+        Money destinationNewBalance = destinationAccount.getBalance().plus(amount);
+        
+        sourceAccount.setBalance(sourceNewBalance);
+        destinationAccount.setBalance(destinationNewBalance);
+        
+        // Save both accounts - if either fails, transaction will rollback
+        accountRepository.save(sourceAccount);
+        accountRepository.save(destinationAccount);
+        
+        // Update transaction status to COMPLETED
+        savedTransaction.setStatus(TransactionStatus.COMPLETED);
+        savedTransaction = transactionRepository.save(savedTransaction);
+        
+        // Record transaction for limit tracking
+        transactionLimitService.recordTransaction(sourceAccount, TransactionType.TRANSFER, amount);
+        transactionRollupService.recordPosting(sourceAccount.getId(), TransactionRollupService.PostingLeg.TRANSFER_OUT, request.getAmount());
+        transactionRollupService.recordPosting(destinationAccount.getId(), TransactionRollupService.PostingLeg.TRANSFER_IN, request.getAmount());
+        descriptionIndex.indexAfterCommit(savedTransaction.getId(), sourceAccount.getId(), destinationAccount.getId(), request.getDescription());
+        
+        TransactionDto result = transactionMapper.toDto(savedTransaction);
+        outboxWriter.recordCompleted(result);
+        accountEventPublisher.publishPostingAfterCommit(result, sourceAccount, destinationAccount);
+        return result;
     }
 
     public List<TransactionDto> getTransactions(String accountNumber, Long userId) {
@@ -205,7 +260,12 @@ public class TransactionService {
         
         Account account = accountRepository.findByAccountNumber(accountNumber)
             .orElseThrow(() -> new AccountNotFoundException("Account with number " + accountNumber + " not found"));
-        return transactionRepository.findBySourceAccountOrDestinationAccount(account, account).stream().map(transactionMapper::toDto).collect(Collectors.toList());
+        return Stream.of(
+                transactionRepository.findBySourceAccountOrDestinationAccount(account, account).stream().map(transactionMapper::toDto),
+                archivedTransactionRepository.findByAccountId(account.getId(), coldStore.getBoundary()).stream().map(transactionMapper::toDto),
+                coldStore.findByAccountId(account.getId()).stream())
+            .flatMap(Function.identity())
+            .collect(Collectors.toList());
     }
     
     public Page<TransactionDto> getTransactionsPaginated(String accountNumber, Long userId, Pageable pageable) {
@@ -215,14 +275,154 @@ public class TransactionService {
         Account account = accountRepository.findByAccountNumber(accountNumber)
             .orElseThrow(() -> new AccountNotFoundException("Account with number " + accountNumber + " not found"));
             
-        Page<Transaction> transactionPage = transactionRepository.findBySourceAccountOrDestinationAccount(account, account, pageable);
-        return transactionPage.map(transactionMapper::toDto);
+        Page<TransactionDto> hotPage = transactionRepository.findBySourceAccountOrDestinationAccount(account, account, pageable)
+            .map(transactionMapper::toDto);
+        LocalDateTime coldBoundary = coldStore.getBoundary();
+        long archivedTotal = archivedTransactionRepository.countByAccountId(account.getId(), coldBoundary);
+        long coldTotal = coldStore.countByAccountId(account.getId());
+        if (archivedTotal == 0 && coldTotal == 0) {
+            return hotPage;
+        }
+        
+        // Tiers from newest to oldest: hot rows in transactions, the MySQL archive, then sealed cold segments
+        List<HistoryTier> tiers = List.of(
+            new HistoryTier(hotPage.getTotalElements(), p -> transactionRepository
+                .findBySourceAccountOrDestinationAccount(account, account, p).map(transactionMapper::toDto).getContent()),
+            new HistoryTier(archivedTotal, p -> archivedTransactionRepository
+                .findByAccountId(account.getId(), coldBoundary, p).map(transactionMapper::toDto).getContent()),
+            new HistoryTier(coldTotal, p -> pageOf(coldStore.findByAccountId(account.getId()), p)));
+        long total = hotPage.getTotalElements() + archivedTotal + coldTotal;
+        
+        Sort.Order createdAtOrder = pageable.getSort().getOrderFor("createdAt");
+        if (createdAtOrder == null || pageable.getSort().stream().count() > 1) {
+            return new PageImpl<>(mergeSorted(tiers, pageable), pageable, total);
+        }
+        
+        // Each tier is strictly older than the one before it, so the page just continues from tier to tier
+        List<HistoryTier> ordered = new ArrayList<>(tiers);
+        if (createdAtOrder.isAscending()) {
+            Collections.reverse(ordered);
+        }
+        return new PageImpl<>(concatTiers(ordered, pageable), pageable, total);
+    }
+    
+    private static final class HistoryTier {
+        private final long total;
+        private final Function<Pageable, List<TransactionDto>> rows;
+        
+        private HistoryTier(long total, Function<Pageable, List<TransactionDto>> rows) {
+            this.total = total;
+            this.rows = rows;
+        }
+    }
+    
+    /**
+     * Builds a page spanning tiers where every row of a tier sorts before the rows of the next one
+     */
+    private List<TransactionDto> concatTiers(List<HistoryTier> tiers, Pageable pageable) {
+        long offset = pageable.getOffset();
+        int remaining = pageable.getPageSize();
+        List<TransactionDto> content = new ArrayList<>(remaining);
+        for (HistoryTier tier : tiers) {
+            if (remaining == 0) {
+                break;
+            }
+            if (offset >= tier.total) {
+                offset -= tier.total;
+                continue;
+            }
+            List<TransactionDto> rows = slice(tier.rows, offset, remaining, pageable.getSort());
+            content.addAll(rows);
+            remaining -= rows.size();
+            offset = 0;
+        }
+        return content;
+    }
+    
+    /**
+     * Reads rows [offset, offset + limit) of a source using at most two page-aligned queries
+     */
+    private List<TransactionDto> slice(Function<Pageable, List<TransactionDto>> source, long offset, int limit, Sort sort) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        int pageIndex = (int) (offset / limit);
+        int skip = (int) (offset % limit);
+        List<TransactionDto> rows = new ArrayList<>(source.apply(PageRequest.of(pageIndex, limit, sort)));
+        if (skip > 0 && rows.size() == limit) {
+            rows.addAll(source.apply(PageRequest.of(pageIndex + 1, limit, sort)));
+        }
+        return rows.subList(Math.min(skip, rows.size()), Math.min(skip + limit, rows.size()));
+    }
+    
+    /**
+     * Merges all tiers for orderings that interleave them
+     */
+    private List<TransactionDto> mergeSorted(List<HistoryTier> tiers, Pageable pageable) {
+        int window = (int) pageable.getOffset() + pageable.getPageSize();
+        Pageable head = PageRequest.of(0, window, pageable.getSort());
+        List<TransactionDto> merged = new ArrayList<>();
+        for (HistoryTier tier : tiers) {
+            if (tier.total > 0) {
+                merged.addAll(tier.rows.apply(head));
+            }
+        }
+        merged.sort(comparatorFor(pageable.getSort()));
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        return merged.subList(from, Math.min(window, merged.size()));
+    }
+    
+    private List<TransactionDto> pageOf(List<TransactionDto> rows, Pageable pageable) {
+        List<TransactionDto> sorted = new ArrayList<>(rows);
+        sorted.sort(comparatorFor(pageable.getSort()));
+        int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        return sorted.subList(from, (int) Math.min(pageable.getOffset() + pageable.getPageSize(), sorted.size()));
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Comparator<TransactionDto> comparatorFor(Sort sort) {
+        Comparator<TransactionDto> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<TransactionDto> byProperty = Comparator.comparing(
+                dto -> (Comparable) new BeanWrapperImpl(dto).getPropertyValue(order.getProperty()),
+                Comparator.nullsLast(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+        
+    /**
+     * Full-text match on descriptions through the in-process index, newest first
+     */
+    public List<TransactionDto> searchDescriptions(String accountNumber, Long userId, String query, boolean prefix, int limit) {
+        accountService.validateAccountOwnership(accountNumber, userId);
+        
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+            .orElseThrow(() -> new AccountNotFoundException("Account with number " + accountNumber + " not found"));
+        List<Long> ids = descriptionIndex.search(account.getId(), query, prefix, Math.min(Math.max(limit, 1), 100));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        
+        // Rows may have moved to the archive since they were indexed; ids sealed into cold segments are dropped
+        Map<Long, TransactionDto> found = transactionRepository.findAllById(ids).stream()
+            .map(transactionMapper::toDto)
+            .collect(Collectors.toMap(TransactionDto::getId, Function.identity()));
+        List<Long> missing = ids.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            archivedTransactionRepository.findAllById(missing).stream()
+                .map(transactionMapper::toDto)
+                .forEach(dto -> found.put(dto.getId(), dto));
+        }
+        return ids.stream().map(found::get).filter(dto -> dto != null).toList();
     }
         
     public TransactionDto getTransactionByRef(String transactionRef) {
-        Transaction transaction = transactionRepository.findByTransactionRef(transactionRef)
+        return transactionRepository.findByTransactionRef(transactionRef)
+            .map(transactionMapper::toDto)
+            .or(() -> archivedTransactionRepository.findByTransactionRef(transactionRef).map(transactionMapper::toDto))
+            .or(() -> coldStore.findByRef(transactionRef))
             .orElseThrow(() -> new RuntimeException("Transaction with reference " + transactionRef + " not found"));
-        return transactionMapper.toDto(transaction);
     }
 
 }
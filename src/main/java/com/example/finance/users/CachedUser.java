@@ -0,0 +1,26 @@
+package com.example.finance.users;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of a users row as held by {@link UserCache}. Deliberately not an entity and without
+ * accounts, so nothing money-bearing can be served from the cache.
+ */
+public record CachedUser(Long id, String name, String email, String passwordHash, String phoneNumber,
+                         String role, LocalDateTime createdAt) {
+
+    public UserDto toDto() {
+        UserDto dto = new UserDto();
+        dto.setId(id);
+        dto.setName(name);
+        dto.setEmail(email);
+        dto.setPhoneNumber(phoneNumber);
+        return dto;
+    }
+
+    @Override
+    public String toString() {
+        // Keeps the password hash out of logs
+        return "CachedUser[id=" + id + ", email=" + email + "]";
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.finance.users;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of users by id and by email, for login, profile reads and account creation.
+ * The email index only maps to ids, so an entry is held once and one invalidation covers both keys.
+ * Local changes invalidate after commit; the TTL bounds how long other nodes serve a stale entry.
+ */
+@Component
+public class UserCache {
+
+    private static final RowMapper<CachedUser> CACHED_USER = (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new CachedUser(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getString("email"),
+            rs.getString("password_hash"),
+            rs.getString("phone_number"),
+            rs.getString("role"),
+            createdAt == null ? null : createdAt.toLocalDateTime());
+    };
+    private static final String SELECT_USER =
+        "SELECT id, name, email, password_hash, phone_number, role, created_at FROM users WHERE ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, Entry> byId;
+    // Lower-cased like the column's case-insensitive collation compares
+    private final Map<String, Long> idByEmail;
+    // Bumped by every invalidation so a load that raced with a change is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter idHits;
+    private final Counter idMisses;
+    private final Counter emailHits;
+    private final Counter emailMisses;
+    private final long ttlNanos;
+
+    public UserCache(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                     @Value("${finance.users.cache-size:100000}") int cacheSize,
+                     @Value("${finance.users.cache-ttl-seconds:600}") long ttlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.byId = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        this.idByEmail = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        this.idHits = Counter.builder("finance.users.cache").tag("key", "id").tag("result", "hit").register(meterRegistry);
+        this.idMisses = Counter.builder("finance.users.cache").tag("key", "id").tag("result", "miss").register(meterRegistry);
+        this.emailHits = Counter.builder("finance.users.cache").tag("key", "email").tag("result", "hit").register(meterRegistry);
+        this.emailMisses = Counter.builder("finance.users.cache").tag("key", "email").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("finance.users.cache.size", byId, Map::size).register(meterRegistry);
+        Gauge.builder("finance.users.cache.hit-ratio", this, cache -> ratio(cache.idHits, cache.idMisses))
+            .tag("key", "id").register(meterRegistry);
+        Gauge.builder("finance.users.cache.hit-ratio", this, cache -> ratio(cache.emailHits, cache.emailMisses))
+            .tag("key", "email").register(meterRegistry);
+    }
+
+    public Optional<CachedUser> findById(long id) {
+        long now = System.nanoTime();
+        Entry cached = byId.get(id);
+        if (cached != null && now - cached.loadedAt < ttlNanos) {
+            idHits.increment();
+            return Optional.of(cached.user);
+        }
+        idMisses.increment();
+        return load("id = ?", id, now);
+    }
+
+    public Optional<CachedUser> findByEmail(String email) {
+        long now = System.nanoTime();
+        String key = email.toLowerCase(Locale.ROOT);
+        Long id = idByEmail.get(key);
+        Entry cached = id == null ? null : byId.get(id);
+        if (cached != null && now - cached.loadedAt < ttlNanos && cached.user.email().equalsIgnoreCase(email)) {
+            emailHits.increment();
+            return Optional.of(cached.user);
+        }
+        emailMisses.increment();
+        return load("email = ?", email, now);
+    }
+
+    /**
+     * Drops one user now and again once the surrounding transaction commits
+     */
+    public void invalidate(long id) {
+        Runnable invalidation = () -> {
+            generation.incrementAndGet();
+            Entry removed = byId.remove(id);
+            if (removed != null) {
+                idByEmail.remove(removed.user.email().toLowerCase(Locale.ROOT));
+            }
+        };
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private Optional<CachedUser> load(String condition, Object key, long now) {
+        long observed = generation.get();
+        List<CachedUser> rows = jdbcTemplate.query(SELECT_USER + condition, CACHED_USER, key);
+        if (rows.isEmpty()) {
+            // Misses are not cached, a user registered a moment later must be found
+            return Optional.empty();
+        }
+        CachedUser user = rows.get(0);
+        if (generation.get() == observed) {
+            byId.put(user.id(), new Entry(user, now));
+            idByEmail.put(user.email().toLowerCase(Locale.ROOT), user.id());
+        }
+        return Optional.of(user);
+    }
+
+    private static double ratio(Counter hits, Counter misses) {
+        double total = hits.count() + misses.count();
+        return total == 0 ? Double.NaN : hits.count() / total;
+    }
+
+    private record Entry(CachedUser user, long loadedAt) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.finance.users;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class UserPage {
+    private List<UserDto> items;
+    // Pass as "after" to fetch the next page, null on the last page
+    private Long nextCursor;
+}
@@ -1,40 +1,95 @@
 package com.example.finance.users;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
-import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.finance.auth.PasswordHashingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final UserMapper userMapper;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final ObjectWriter userWriter;
+    
+    // Listing queries select only these columns so password_hash never leaves the database
+    private static final String LIST_COLUMNS = "SELECT id, name, email, phone_number FROM users ";
+    private static final int MAX_PAGE_SIZE = 1000;
     
-    public UserService(UserRepository userRepository, UserMapper userMapper, PasswordEncoder passwordEncoder) {
+    private static final RowMapper<UserDto> USER_ROW = (rs, rowNum) -> {
+        UserDto dto = new UserDto();
+        dto.setId(rs.getLong("id"));
+        dto.setName(rs.getString("name"));
+        dto.setEmail(rs.getString("email"));
+        dto.setPhoneNumber(rs.getString("phone_number"));
+        return dto;
+    };
+    
+    public UserService(UserRepository userRepository, UserCache userCache, UserMapper userMapper, PasswordHashingService passwordHashingService,
+                       JdbcTemplate jdbcTemplate, DataSource dataSource, ObjectMapper objectMapper) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
         this.userMapper = userMapper;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.jdbcTemplate = jdbcTemplate;
+        // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole table
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.userWriter = objectMapper.writerFor(UserDto.class);
     }
 
     public UserDto createUser(RegisterRequest request) {
         User user = userMapper.toEntity(request);
-        user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        user.setPasswordHash(passwordHashingService.encode(request.getPassword()));
         User savedUser = userRepository.save(user);
         return userMapper.toDto(savedUser);
     }
 
     public UserDto getUserById(Long id) {
-        User user = userRepository.findById(id)
+        return userCache.findById(id)
+            .map(CachedUser::toDto)
             .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
-        return userMapper.toDto(user);
     }
 
-    public List<UserDto> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        return users.stream()
-            .map(userMapper::toDto)
-            .collect(Collectors.toList());
+    /**
+     * One page of users ordered by id, starting after the given id
+     */
+    public UserPage listUsers(Long after, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        // One extra row tells whether another page follows
+        List<UserDto> rows = jdbcTemplate.query(LIST_COLUMNS + "WHERE id > ? ORDER BY id LIMIT ?",
+            USER_ROW, after == null ? 0L : after, limit + 1);
+        if (rows.size() <= limit) {
+            return new UserPage(rows, null);
+        }
+        List<UserDto> page = rows.subList(0, limit);
+        return new UserPage(page, page.get(limit - 1).getId());
+    }
+    
+    /**
+     * Writes every user after the given id as newline-delimited JSON straight from a streaming cursor
+     */
+    public void streamUsers(Long after, OutputStream out) {
+        streamingJdbcTemplate.query(LIST_COLUMNS + "WHERE id > ? ORDER BY id", rs -> {
+            try {
+                out.write(userWriter.writeValueAsBytes(USER_ROW.mapRow(rs, 0)));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, after == null ? 0L : after);
     }
 }
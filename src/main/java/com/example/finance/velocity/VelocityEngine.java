@@ -0,0 +1,311 @@
+package com.example.finance.velocity;
+
+import com.example.finance.exceptions.VelocityLimitExceededException;
+import com.example.finance.money.Money;
+import com.example.finance.transactions.Transaction.TransactionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory velocity checks for withdrawals and transfers.
+ * Each account has sliding windows of its outgoing postings, and each transfer destination has windows
+ * of its incoming transfers. A posting is checked and reserved in its windows under one lock, so
+ * concurrent requests cannot both slip under a rule. The reservation is released if the posting rolls back.
+ * Windows are rebuilt from the last hour of transactions at startup, after that no request reads the database.
+ * Windows are per node, so with several nodes each one only sees the postings it served.
+ */
+@Component
+public class VelocityEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(VelocityEngine.class);
+    private static final int REBUILD_BATCH = 10_000;
+
+    // Account windows hold one slot per outgoing type, destination windows only incoming transfers
+    private static final int WITHDRAW_SLOT = 0;
+    private static final int TRANSFER_SLOT = 1;
+    private static final int ACCOUNT_SLOTS = 2;
+    private static final int DESTINATION_SLOTS = 1;
+
+    private final VelocityProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<Long, VelocityWindows> accounts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, VelocityWindows> destinations = new ConcurrentHashMap<>();
+
+    private CompiledRule[] accountRules = new CompiledRule[0];
+    private CompiledRule[] destinationRules = new CompiledRule[0];
+    private CompiledRule[] rules = new CompiledRule[0];
+    private long blockingRules;
+
+    public VelocityEngine(VelocityProperties properties, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    private record CompiledRule(int index, String name, VelocityProperties.Scope scope, int window, int slotMask,
+                                int maxCount, long maxAmount, VelocityProperties.Action action, String description,
+                                Counter hits) {
+    }
+
+    @PostConstruct
+    void start() {
+        compileRules();
+        if (properties.isEnabled() && rules.length > 0) {
+            // Postings reserved live get higher ids, so replaying only up to here never counts one twice
+            long upToId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM transactions", Long.class);
+            if (properties.isAsyncRebuild()) {
+                Thread.ofPlatform().name("velocity-rebuild").daemon(true).start(() -> {
+                    try {
+                        rebuild(upToId);
+                    } catch (RuntimeException e) {
+                        log.error("Velocity window rebuild failed, windows only hold postings made since startup", e);
+                    }
+                });
+            } else {
+                rebuild(upToId);
+            }
+        }
+    }
+
+    /**
+     * Checks a withdrawal or transfer against the velocity rules and reserves it in the windows.
+     * Throws when a BLOCK rule is violated; FLAG rules are logged and counted.
+     */
+    public void checkAndReserve(Long sourceAccountId, Long destinationAccountId, TransactionType type, Money amount) {
+        if (!properties.isEnabled() || rules.length == 0 || type == TransactionType.DEPOSIT) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long amountMinor = amount.minorUnits();
+        int slot = type == TransactionType.WITHDRAW ? WITHDRAW_SLOT : TRANSFER_SLOT;
+
+        VelocityWindows source = accounts.computeIfAbsent(sourceAccountId, id -> new VelocityWindows(ACCOUNT_SLOTS));
+        long violated;
+        synchronized (source) {
+            violated = evaluate(source, accountRules, now, slot, amountMinor);
+            if ((violated & blockingRules) == 0) {
+                source.add(now, slot, 1, amountMinor);
+            }
+        }
+
+        VelocityWindows destination = null;
+        if ((violated & blockingRules) == 0 && type == TransactionType.TRANSFER && destinationRules.length > 0) {
+            destination = destinations.computeIfAbsent(destinationAccountId, id -> new VelocityWindows(DESTINATION_SLOTS));
+            long destinationViolated;
+            synchronized (destination) {
+                destinationViolated = evaluate(destination, destinationRules, now, 0, amountMinor);
+                if ((destinationViolated & blockingRules) == 0) {
+                    destination.add(now, 0, 1, amountMinor);
+                }
+            }
+            if ((destinationViolated & blockingRules) != 0) {
+                release(source, now, slot, amountMinor);
+                destination = null;
+            }
+            violated |= destinationViolated;
+        }
+
+        if (violated != 0) {
+            report(violated, sourceAccountId, destinationAccountId, type, amount);
+        }
+        if ((violated & blockingRules) == 0 && TransactionSynchronizationManager.isSynchronizationActive()) {
+            VelocityWindows reservedDestination = destination;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(source, now, slot, amountMinor);
+                        if (reservedDestination != null) {
+                            release(reservedDestination, now, 0, amountMinor);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Bit i is set when rule i would be exceeded by adding the posting
+     */
+    private long evaluate(VelocityWindows windows, CompiledRule[] scopeRules, long now, int slot, long amountMinor) {
+        long violated = 0;
+        for (CompiledRule rule : scopeRules) {
+            if ((rule.slotMask & (1 << slot)) == 0) {
+                continue;
+            }
+            if (windows.count(rule.window, now, rule.slotMask) + 1 > rule.maxCount
+                || windows.amount(rule.window, now, rule.slotMask) + amountMinor > rule.maxAmount) {
+                violated |= 1L << rule.index;
+            }
+        }
+        return violated;
+    }
+
+    private void release(VelocityWindows windows, long postedAt, int slot, long amountMinor) {
+        synchronized (windows) {
+            windows.add(postedAt, slot, -1, -amountMinor);
+        }
+    }
+
+    private void report(long violated, Long sourceAccountId, Long destinationAccountId, TransactionType type, Money amount) {
+        CompiledRule blocking = null;
+        for (CompiledRule rule : rules) {
+            if ((violated & (1L << rule.index)) == 0) {
+                continue;
+            }
+            rule.hits.increment();
+            if (rule.action == VelocityProperties.Action.BLOCK) {
+                if (blocking == null) {
+                    blocking = rule;
+                }
+            } else {
+                log.warn("Velocity rule {} flagged {} of {} from account {} to account {}",
+                    rule.name, type, amount, sourceAccountId, destinationAccountId);
+            }
+        }
+        if (blocking != null) {
+            throw new VelocityLimitExceededException("Transaction blocked by velocity rule " + blocking.name + ": " + blocking.description);
+        }
+    }
+
+    /**
+     * Drops windows with no posting in the last hour
+     */
+    @Scheduled(fixedDelayString = "${finance.velocity.eviction-interval-ms:300000}")
+    public void evictIdle() {
+        long idleBefore = System.currentTimeMillis() - VelocityWindows.HOUR_MILLIS;
+        for (ConcurrentHashMap<Long, VelocityWindows> map : List.of(accounts, destinations)) {
+            map.values().removeIf(windows -> {
+                synchronized (windows) {
+                    return windows.getLastActivityMillis() < idleBefore;
+                }
+            });
+        }
+    }
+
+    /**
+     * Replays the last hour of completed withdrawals and transfers, newest first by primary key
+     */
+    private void rebuild(long upToId) {
+        long cutoff = System.currentTimeMillis() - VelocityWindows.HOUR_MILLIS;
+        long beforeId = upToId + 1;
+        int replayed = 0;
+        while (true) {
+            long[] oldest = {Long.MAX_VALUE};
+            long[] lastId = {0};
+            int[] rows = {0};
+            int[] counted = {0};
+            jdbcTemplate.query(
+                "SELECT id, source_account_id, destination_account_id, type, amount, status, created_at " +
+                "FROM transactions WHERE id < ? ORDER BY id DESC LIMIT ?",
+                rs -> {
+                    rows[0]++;
+                    lastId[0] = rs.getLong("id");
+                    long postedAt = rs.getTimestamp("created_at").getTime();
+                    oldest[0] = Math.min(oldest[0], postedAt);
+                    String type = rs.getString("type");
+                    if (postedAt < cutoff || !"COMPLETED".equals(rs.getString("status")) || "DEPOSIT".equals(type)) {
+                        return;
+                    }
+                    long amountMinor = Money.of(rs.getBigDecimal("amount")).minorUnits();
+                    boolean transfer = "TRANSFER".equals(type);
+                    VelocityWindows source = accounts.computeIfAbsent(rs.getLong("source_account_id"), id -> new VelocityWindows(ACCOUNT_SLOTS));
+                    synchronized (source) {
+                        source.add(postedAt, transfer ? TRANSFER_SLOT : WITHDRAW_SLOT, 1, amountMinor);
+                    }
+                    if (transfer && destinationRules.length > 0) {
+                        VelocityWindows destination = destinations.computeIfAbsent(rs.getLong("destination_account_id"),
+                            id -> new VelocityWindows(DESTINATION_SLOTS));
+                        synchronized (destination) {
+                            destination.add(postedAt, 0, 1, amountMinor);
+                        }
+                    }
+                    counted[0]++;
+                },
+                beforeId, REBUILD_BATCH);
+            replayed += counted[0];
+            if (rows[0] < REBUILD_BATCH || oldest[0] < cutoff) {
+                break;
+            }
+            beforeId = lastId[0];
+        }
+        log.info("Velocity windows rebuilt from {} postings of the last hour, {} accounts and {} destinations tracked",
+            replayed, accounts.size(), destinations.size());
+    }
+
+    private void compileRules() {
+        List<VelocityProperties.Rule> configured = properties.getRules();
+        if (configured.size() > Long.SIZE) {
+            throw new IllegalStateException("At most " + Long.SIZE + " velocity rules are supported");
+        }
+        List<CompiledRule> compiled = new ArrayList<>();
+        long blocking = 0;
+        for (VelocityProperties.Rule rule : configured) {
+            int index = compiled.size();
+            boolean destination = rule.getScope() == VelocityProperties.Scope.DESTINATION;
+            int slotMask = 0;
+            for (TransactionType type : rule.getTypes()) {
+                if (type == TransactionType.TRANSFER) {
+                    slotMask |= 1 << (destination ? 0 : TRANSFER_SLOT);
+                } else if (type == TransactionType.WITHDRAW && !destination) {
+                    slotMask |= 1 << WITHDRAW_SLOT;
+                } else {
+                    throw new IllegalStateException("Velocity rule " + rule.getName() + " cannot count " + type + " in scope " + rule.getScope());
+                }
+            }
+            if (slotMask == 0) {
+                slotMask = destination ? 1 : (1 << WITHDRAW_SLOT) | (1 << TRANSFER_SLOT);
+            }
+            if (rule.getMaxCount() == null && rule.getMaxAmount() == null) {
+                throw new IllegalStateException("Velocity rule " + rule.getName() + " needs max-count or max-amount");
+            }
+            int maxCount = rule.getMaxCount() == null ? Integer.MAX_VALUE : rule.getMaxCount();
+            long maxAmount = rule.getMaxAmount() == null ? Long.MAX_VALUE : Money.of(rule.getMaxAmount()).minorUnits();
+            String types = rule.getTypes().isEmpty() ? (destination ? "incoming transfers" : "outgoing transactions") : rule.getTypes() + " transactions";
+            String description = (rule.getMaxCount() != null ? "more than " + maxCount + " " + types : "")
+                + (rule.getMaxCount() != null && rule.getMaxAmount() != null ? " or " : "")
+                + (rule.getMaxAmount() != null ? "more than " + rule.getMaxAmount() + " in " + types : "")
+                + " within " + rule.getWindow().toMinutes() + " minutes";
+
+            compiled.add(new CompiledRule(index, rule.getName(), rule.getScope(), window(rule), slotMask, maxCount, maxAmount,
+                rule.getAction(), description,
+                Counter.builder("finance.velocity.hits").tag("rule", rule.getName()).tag("action", rule.getAction().name())
+                    .register(meterRegistry)));
+            if (rule.getAction() == VelocityProperties.Action.BLOCK) {
+                blocking |= 1L << index;
+            }
+        }
+        rules = compiled.toArray(CompiledRule[]::new);
+        accountRules = compiled.stream().filter(r -> r.scope == VelocityProperties.Scope.ACCOUNT).toArray(CompiledRule[]::new);
+        destinationRules = compiled.stream().filter(r -> r.scope == VelocityProperties.Scope.DESTINATION).toArray(CompiledRule[]::new);
+        blockingRules = blocking;
+    }
+
+    private static int window(VelocityProperties.Rule rule) {
+        Duration window = rule.getWindow();
+        if (Duration.ofMinutes(1).equals(window)) {
+            return VelocityWindows.MINUTE;
+        }
+        if (Duration.ofMinutes(10).equals(window)) {
+            return VelocityWindows.TEN_MINUTES;
+        }
+        if (Duration.ofHours(1).equals(window)) {
+            return VelocityWindows.HOUR;
+        }
+        throw new IllegalStateException("Velocity rule " + rule.getName() + " window must be 1m, 10m or 1h, got " + window);
+    }
+}
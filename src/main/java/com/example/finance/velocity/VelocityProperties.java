@@ -0,0 +1,51 @@
+package com.example.finance.velocity;
+
+import com.example.finance.transactions.Transaction;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Velocity rules from finance.velocity. Bound as a list, which @Value cannot express.
+ */
+@Component
+@ConfigurationProperties(prefix = "finance.velocity")
+@Data
+public class VelocityProperties {
+
+    private boolean enabled = true;
+    /** Rebuild the windows in the background instead of before the context finishes starting */
+    private boolean asyncRebuild = false;
+    private List<Rule> rules = new ArrayList<>();
+
+    public enum Scope {
+        /** Outgoing withdrawals and transfers of the source account */
+        ACCOUNT,
+        /** Incoming transfers of the destination account */
+        DESTINATION
+    }
+
+    public enum Action {
+        BLOCK, FLAG
+    }
+
+    @Data
+    public static class Rule {
+        private String name;
+        private Scope scope = Scope.ACCOUNT;
+        /** One of 1m, 10m or 1h */
+        private Duration window;
+        /** Transaction types counted by the rule, empty counts every type of the scope */
+        private List<Transaction.TransactionType> types = new ArrayList<>();
+        /** Violated when the window would hold more postings than this, including the new one */
+        private Integer maxCount;
+        /** Violated when the window would hold a larger total than this, including the new one */
+        private BigDecimal maxAmount;
+        private Action action = Action.BLOCK;
+    }
+}
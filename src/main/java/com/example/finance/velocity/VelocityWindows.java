@@ -0,0 +1,105 @@
+package com.example.finance.velocity;
+
+import java.util.Arrays;
+
+/**
+ * Sliding 1 minute, 10 minute and 1 hour windows of one account, held in fixed-size primitive rings.
+ * Each window is a ring of time buckets, so it slides in bucket steps: 5 s, 30 s and 5 min.
+ * Counts and amounts are kept per transaction type slot, bucket epochs are shared by the slots.
+ * Not thread-safe on its own, VelocityEngine synchronizes on the instance.
+ */
+final class VelocityWindows {
+
+    static final int MINUTE = 0;
+    static final int TEN_MINUTES = 1;
+    static final int HOUR = 2;
+
+    private static final long[] BUCKET_MILLIS = {5_000, 30_000, 300_000};
+    private static final int[] BUCKETS = {12, 20, 12};
+    private static final int[] OFFSETS = {0, 12, 32};
+    private static final int TOTAL_BUCKETS = 44;
+
+    static final long HOUR_MILLIS = BUCKET_MILLIS[HOUR] * BUCKETS[HOUR];
+
+    private final int slots;
+    private final long[] epochs = new long[TOTAL_BUCKETS];
+    private final int[] counts;
+    private final long[] amounts;
+    private long lastActivityMillis;
+
+    VelocityWindows(int slots) {
+        this.slots = slots;
+        this.counts = new int[TOTAL_BUCKETS * slots];
+        this.amounts = new long[TOTAL_BUCKETS * slots];
+        Arrays.fill(epochs, Long.MIN_VALUE);
+    }
+
+    /**
+     * Adds (or with a negative count removes) a posting at the given time to every window.
+     * Postings older than a window's span are ignored by that window.
+     */
+    void add(long nowMillis, int slot, int count, long amountMinor) {
+        for (int window = 0; window < BUCKETS.length; window++) {
+            long epoch = nowMillis / BUCKET_MILLIS[window];
+            int bucket = OFFSETS[window] + (int) (epoch % BUCKETS[window]);
+            if (epochs[bucket] > epoch) {
+                continue;
+            }
+            if (epochs[bucket] < epoch) {
+                if (count < 0) {
+                    continue;
+                }
+                epochs[bucket] = epoch;
+                for (int s = 0; s < slots; s++) {
+                    counts[bucket * slots + s] = 0;
+                    amounts[bucket * slots + s] = 0;
+                }
+            }
+            counts[bucket * slots + slot] += count;
+            amounts[bucket * slots + slot] += amountMinor;
+        }
+        if (nowMillis > lastActivityMillis) {
+            lastActivityMillis = nowMillis;
+        }
+    }
+
+    /**
+     * Count of postings in the window for the slots set in slotMask
+     */
+    int count(int window, long nowMillis, int slotMask) {
+        long oldest = nowMillis / BUCKET_MILLIS[window] - BUCKETS[window];
+        int total = 0;
+        for (int bucket = OFFSETS[window], end = bucket + BUCKETS[window]; bucket < end; bucket++) {
+            if (epochs[bucket] > oldest) {
+                for (int s = 0; s < slots; s++) {
+                    if ((slotMask & (1 << s)) != 0) {
+                        total += counts[bucket * slots + s];
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Sum of posted minor units in the window for the slots set in slotMask
+     */
+    long amount(int window, long nowMillis, int slotMask) {
+        long oldest = nowMillis / BUCKET_MILLIS[window] - BUCKETS[window];
+        long total = 0;
+        for (int bucket = OFFSETS[window], end = bucket + BUCKETS[window]; bucket < end; bucket++) {
+            if (epochs[bucket] > oldest) {
+                for (int s = 0; s < slots; s++) {
+                    if ((slotMask & (1 << s)) != 0) {
+                        total += amounts[bucket * slots + s];
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    long getLastActivityMillis() {
+        return lastActivityMillis;
+    }
+}
@@ -0,0 +1,26 @@
+-- Closed months of transactions are moved here by the archiver to keep the hot table and its indexes small.
+-- MySQL cannot partition transactions by month because partitioned InnoDB tables do not support
+-- foreign keys and every unique key (transaction_ref) would have to include created_at.
+CREATE TABLE transactions_archive (
+    id BIGINT PRIMARY KEY,
+    source_account_id BIGINT,
+    destination_account_id BIGINT,
+    type VARCHAR(20) NOT NULL,
+    amount DECIMAL(15,2) NOT NULL,
+    description VARCHAR(255),
+    status VARCHAR(20) NOT NULL,
+    transaction_ref VARCHAR(50),
+    created_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT uk_transactions_archive_ref
+        UNIQUE (transaction_ref),
+
+    INDEX idx_transactions_archive_source_created (source_account_id, created_at),
+    INDEX idx_transactions_archive_dest_created (destination_account_id, created_at),
+    INDEX idx_transactions_archive_source_status_amount (source_account_id, status, amount),
+    INDEX idx_transactions_archive_dest_status_amount (destination_account_id, status, amount)
+);
+
+-- Lets the archiver find the first row of the retained window without scanning
+CREATE INDEX idx_transactions_created_at ON transactions(created_at);
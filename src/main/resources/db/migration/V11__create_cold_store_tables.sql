@@ -0,0 +1,18 @@
+-- Months of archived transactions sealed into immutable cold segment files
+CREATE TABLE cold_segments (
+    month INT PRIMARY KEY COMMENT 'yyyymm of created_at',
+    file_name VARCHAR(255) NOT NULL,
+    row_count BIGINT NOT NULL,
+    sealed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Net COMPLETED totals per account of all sealed months, kept so reconciliation never reads segments
+CREATE TABLE cold_account_totals (
+    account_id BIGINT PRIMARY KEY,
+    credits DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    debits DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- Lets the sealer find and delete a month of archived rows by range
+CREATE INDEX idx_transactions_archive_created_at ON transactions_archive(created_at);
@@ -0,0 +1,66 @@
+-- Per-account posting totals, maintained by delta in the same transaction as each posting.
+-- One wide row per account and period so a summary read is a single primary key lookup.
+CREATE TABLE account_daily_totals (
+    account_id BIGINT NOT NULL,
+    day DATE NOT NULL,
+    deposit_amount DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    deposit_count INT NOT NULL DEFAULT 0,
+    withdraw_amount DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    withdraw_count INT NOT NULL DEFAULT 0,
+    transfer_in_amount DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    transfer_in_count INT NOT NULL DEFAULT 0,
+    transfer_out_amount DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    transfer_out_count INT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (account_id, day)
+);
+
+CREATE TABLE account_monthly_totals (
+    account_id BIGINT NOT NULL,
+    month DATE NOT NULL COMMENT 'first day of the month',
+    deposit_amount DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    deposit_count INT NOT NULL DEFAULT 0,
+    withdraw_amount DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    withdraw_count INT NOT NULL DEFAULT 0,
+    transfer_in_amount DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    transfer_in_count INT NOT NULL DEFAULT 0,
+    transfer_out_amount DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    transfer_out_count INT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (account_id, month)
+);
+
+-- Backfill from existing COMPLETED history in the hot and archive tables
+INSERT INTO account_daily_totals (account_id, day,
+    deposit_amount, deposit_count, withdraw_amount, withdraw_count,
+    transfer_in_amount, transfer_in_count, transfer_out_amount, transfer_out_count)
+SELECT account_id, day,
+    SUM(CASE WHEN leg = 'deposit' THEN amount ELSE 0 END), SUM(leg = 'deposit'),
+    SUM(CASE WHEN leg = 'withdraw' THEN amount ELSE 0 END), SUM(leg = 'withdraw'),
+    SUM(CASE WHEN leg = 'transfer_in' THEN amount ELSE 0 END), SUM(leg = 'transfer_in'),
+    SUM(CASE WHEN leg = 'transfer_out' THEN amount ELSE 0 END), SUM(leg = 'transfer_out')
+FROM (
+    SELECT destination_account_id AS account_id, DATE(created_at) AS day,
+           IF(type = 'DEPOSIT', 'deposit', 'transfer_in') AS leg, amount
+    FROM transactions WHERE status = 'COMPLETED' AND destination_account_id IS NOT NULL
+    UNION ALL
+    SELECT source_account_id, DATE(created_at), IF(type = 'WITHDRAW', 'withdraw', 'transfer_out'), amount
+    FROM transactions WHERE status = 'COMPLETED' AND source_account_id IS NOT NULL
+    UNION ALL
+    SELECT destination_account_id, DATE(created_at), IF(type = 'DEPOSIT', 'deposit', 'transfer_in'), amount
+    FROM transactions_archive WHERE status = 'COMPLETED' AND destination_account_id IS NOT NULL
+    UNION ALL
+    SELECT source_account_id, DATE(created_at), IF(type = 'WITHDRAW', 'withdraw', 'transfer_out'), amount
+    FROM transactions_archive WHERE status = 'COMPLETED' AND source_account_id IS NOT NULL
+) legs
+WHERE day IS NOT NULL
+GROUP BY account_id, day;
+
+INSERT INTO account_monthly_totals (account_id, month,
+    deposit_amount, deposit_count, withdraw_amount, withdraw_count,
+    transfer_in_amount, transfer_in_count, transfer_out_amount, transfer_out_count)
+SELECT account_id, DATE_FORMAT(day, '%Y-%m-01'),
+    SUM(deposit_amount), SUM(deposit_count), SUM(withdraw_amount), SUM(withdraw_count),
+    SUM(transfer_in_amount), SUM(transfer_in_count), SUM(transfer_out_amount), SUM(transfer_out_count)
+FROM account_daily_totals
+GROUP BY account_id, DATE_FORMAT(day, '%Y-%m-01');
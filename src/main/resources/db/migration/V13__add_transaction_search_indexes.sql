@@ -0,0 +1,11 @@
+-- Composite indexes for the transaction search API. Every search runs once per side of the
+-- account (source and destination), ordered by (created_at, id) for keyset pagination; InnoDB
+-- appends the primary key to each secondary index, so id is implicitly the last column.
+CREATE INDEX idx_transactions_source_created ON transactions(source_account_id, created_at);
+CREATE INDEX idx_transactions_dest_created ON transactions(destination_account_id, created_at);
+
+CREATE INDEX idx_transactions_source_type_created ON transactions(source_account_id, type, created_at);
+CREATE INDEX idx_transactions_dest_type_created ON transactions(destination_account_id, type, created_at);
+
+CREATE INDEX idx_transactions_source_status_created ON transactions(source_account_id, status, created_at);
+CREATE INDEX idx_transactions_dest_status_created ON transactions(destination_account_id, status, created_at);
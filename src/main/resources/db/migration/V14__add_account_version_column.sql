@@ -0,0 +1,5 @@
+-- Version counter bumped on every balance or status change, used for optimistic locking and ETags.
+ALTER TABLE accounts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Covers the per-user ETag aggregate so conditional GETs never touch the clustered rows
+CREATE INDEX idx_accounts_user_version ON accounts(user_id, version);
@@ -0,0 +1,24 @@
+-- Transactional outbox: one row per account leg of every COMPLETED posting, written in the posting's
+-- own transaction and relayed to downstream sinks. Rows of an account always share a partition.
+CREATE TABLE outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    partition_no SMALLINT NOT NULL,
+    account_id BIGINT NOT NULL,
+    event_type VARCHAR(40) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    published_at TIMESTAMP(6) NULL,
+
+    INDEX idx_outbox_events_pending (partition_no, published_at, id),
+    INDEX idx_outbox_events_published (published_at)
+);
+
+-- One lease row per partition; a relay locks a partition with SKIP LOCKED so only one node drains it
+-- at a time, which keeps each account's events in order. The row count fixes the partition count.
+CREATE TABLE outbox_partitions (
+    partition_no SMALLINT PRIMARY KEY,
+    last_relayed_at TIMESTAMP(6) NULL
+);
+
+INSERT INTO outbox_partitions (partition_no) VALUES
+    (0), (1), (2), (3), (4), (5), (6), (7), (8), (9), (10), (11), (12), (13), (14), (15);
@@ -0,0 +1,48 @@
+-- Named limit tiers. Each profile carries one row per transaction type; types without a row fall
+-- back to the finance.transaction.* defaults.
+CREATE TABLE limit_profiles (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL,
+    description VARCHAR(255) NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    CONSTRAINT uk_limit_profiles_name UNIQUE (name)
+);
+
+CREATE TABLE limit_profile_entries (
+    profile_id BIGINT NOT NULL,
+    transaction_type VARCHAR(20) NOT NULL,
+    daily_limit DECIMAL(15,2) NOT NULL,
+    daily_count INT NOT NULL,
+    max_per_transaction DECIMAL(15,2) NOT NULL,
+
+    PRIMARY KEY (profile_id, transaction_type),
+    CONSTRAINT fk_limit_profile_entries_profile
+        FOREIGN KEY (profile_id) REFERENCES limit_profiles(id)
+        ON DELETE CASCADE,
+    CONSTRAINT chk_limit_profile_entries_positive
+        CHECK (daily_limit >= 0 AND daily_count > 0 AND max_per_transaction >= 0)
+);
+
+-- Accounts without a profile use the configured defaults; deleting a profile returns its accounts to them
+ALTER TABLE accounts
+    ADD COLUMN limit_profile_id BIGINT NULL,
+    ADD CONSTRAINT fk_accounts_limit_profile
+        FOREIGN KEY (limit_profile_id) REFERENCES limit_profiles(id)
+        ON DELETE SET NULL;
+
+-- Per-account overrides on top of the profile; a NULL column keeps the profile value
+CREATE TABLE account_limit_overrides (
+    account_id BIGINT NOT NULL,
+    transaction_type VARCHAR(20) NOT NULL,
+    daily_limit DECIMAL(15,2) NULL,
+    daily_count INT NULL,
+    max_per_transaction DECIMAL(15,2) NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (account_id, transaction_type),
+    CONSTRAINT fk_account_limit_overrides_account
+        FOREIGN KEY (account_id) REFERENCES accounts(id)
+        ON DELETE CASCADE
+);
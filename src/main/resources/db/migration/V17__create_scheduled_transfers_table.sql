@@ -0,0 +1,41 @@
+-- Future-dated and recurring transfers. Occurrence n of an order is due at start_at plus n periods;
+-- next_run_at is when the current occurrence is attempted next, later than its due time after a failure.
+CREATE TABLE scheduled_transfers (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    source_account_id BIGINT NOT NULL,
+    destination_account_id BIGINT NOT NULL,
+    amount DECIMAL(15,2) NOT NULL,
+    description VARCHAR(255) NULL,
+    frequency VARCHAR(10) NOT NULL,
+    start_at TIMESTAMP NOT NULL,
+    end_date DATE NULL,
+    status VARCHAR(10) NOT NULL DEFAULT 'ACTIVE',
+    run_count INT NOT NULL DEFAULT 0,
+    attempts INT NOT NULL DEFAULT 0,
+    next_run_at TIMESTAMP NULL,
+    last_run_at TIMESTAMP NULL,
+    last_transaction_ref VARCHAR(50) NULL,
+    last_error VARCHAR(255) NULL,
+    -- Lease of the node that loaded the order into its timing wheel
+    claim_token CHAR(36) NULL,
+    claimed_until TIMESTAMP NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_scheduled_transfers_user
+        FOREIGN KEY (user_id) REFERENCES users(id)
+        ON DELETE CASCADE,
+    CONSTRAINT fk_scheduled_transfers_source
+        FOREIGN KEY (source_account_id) REFERENCES accounts(id)
+        ON DELETE CASCADE,
+    CONSTRAINT fk_scheduled_transfers_destination
+        FOREIGN KEY (destination_account_id) REFERENCES accounts(id)
+        ON DELETE CASCADE,
+    CONSTRAINT chk_scheduled_transfers_amount_positive
+        CHECK (amount > 0),
+
+    INDEX idx_scheduled_transfers_due (status, next_run_at, id),
+    INDEX idx_scheduled_transfers_claim (claim_token),
+    INDEX idx_scheduled_transfers_user (user_id, id)
+);
@@ -0,0 +1,40 @@
+-- One row per CSV import. next_offset and next_line point at the first line not yet processed and are
+-- advanced in the same transaction as each chunk's postings, so a restarted import resumes exactly there.
+CREATE TABLE transaction_imports (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    -- NULL for imports started from the command line, which are not bound to an owner
+    user_id BIGINT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    file_path VARCHAR(1024) NOT NULL,
+    file_size BIGINT NOT NULL,
+    status VARCHAR(10) NOT NULL DEFAULT 'RUNNING',
+    next_offset BIGINT NOT NULL DEFAULT 0,
+    next_line BIGINT NOT NULL DEFAULT 1,
+    posted_rows BIGINT NOT NULL DEFAULT 0,
+    failed_rows BIGINT NOT NULL DEFAULT 0,
+    error VARCHAR(255) NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP NULL,
+
+    CONSTRAINT fk_transaction_imports_user
+        FOREIGN KEY (user_id) REFERENCES users(id)
+        ON DELETE CASCADE,
+    CONSTRAINT chk_transaction_import_status
+        CHECK (status IN ('RUNNING', 'COMPLETED', 'FAILED')),
+
+    INDEX idx_transaction_imports_status (status, id),
+    INDEX idx_transaction_imports_user (user_id, id)
+);
+
+-- Rows that were rejected, written with the chunk they belong to
+CREATE TABLE transaction_import_errors (
+    import_id BIGINT NOT NULL,
+    line_number BIGINT NOT NULL,
+    message VARCHAR(255) NOT NULL,
+
+    PRIMARY KEY (import_id, line_number),
+
+    CONSTRAINT fk_transaction_import_errors_import
+        FOREIGN KEY (import_id) REFERENCES transaction_imports(id)
+        ON DELETE CASCADE
+);
@@ -0,0 +1,3 @@
+-- Fraction of a cent of accrued interest not yet credited, in units of 1 / (10000 * 365) of a minor unit.
+-- Carried from day to day so small balances still earn interest and no account loses the truncated remainder.
+ALTER TABLE accounts ADD COLUMN interest_carry BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,5 @@
+-- Operational endpoints (reconciliation, index rebuilds, limit profiles) require ADMIN.
+-- Operators are promoted with: UPDATE users SET role = 'ADMIN' WHERE email = ?
+ALTER TABLE users ADD COLUMN role VARCHAR(20) NOT NULL DEFAULT 'USER';
+
+ALTER TABLE users ADD CONSTRAINT chk_user_role CHECK (role IN ('USER', 'ADMIN'));
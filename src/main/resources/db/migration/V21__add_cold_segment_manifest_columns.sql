@@ -0,0 +1,15 @@
+-- cold_segments is the manifest every node loads its segments from. The checksum lets a node verify a file
+-- it finds or rebuilds. rows_deleted records whether the month is still in transactions_archive, from which
+-- a node that lacks the file rebuilds it; months sealed before this migration had their rows deleted.
+ALTER TABLE cold_segments
+    ADD COLUMN checksum BIGINT NULL,
+    ADD COLUMN rows_deleted BOOLEAN NOT NULL DEFAULT TRUE;
+
+-- Single lease row so only one node seals months and deletes sealed rows at a time
+CREATE TABLE cold_store_lease (
+    id TINYINT PRIMARY KEY,
+    owner VARCHAR(36) NULL,
+    leased_until TIMESTAMP NULL
+);
+
+INSERT INTO cold_store_lease (id) VALUES (1);
@@ -0,0 +1,32 @@
+-- One row per nightly accrual run, used to resume runs that did not finish
+CREATE TABLE interest_accrual_runs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    accrual_date DATE NOT NULL,
+    chunk_size INT NOT NULL,
+    max_account_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'RUNNING',
+    started_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP NULL,
+
+    CONSTRAINT uk_interest_runs_accrual_date
+        UNIQUE (accrual_date),
+
+    CONSTRAINT chk_interest_run_status
+        CHECK (status IN ('RUNNING', 'COMPLETED'))
+);
+
+-- One row per committed account id chunk, written in the same transaction as its postings
+CREATE TABLE interest_accrual_chunks (
+    run_id BIGINT NOT NULL,
+    chunk_start_id BIGINT NOT NULL,
+    chunk_end_id BIGINT NOT NULL,
+    accounts_credited INT NOT NULL DEFAULT 0,
+    interest_posted DECIMAL(15,2) NOT NULL DEFAULT 0.00,
+    committed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (run_id, chunk_start_id),
+
+    CONSTRAINT fk_interest_chunks_run
+        FOREIGN KEY (run_id) REFERENCES interest_accrual_runs(id)
+        ON DELETE CASCADE
+);
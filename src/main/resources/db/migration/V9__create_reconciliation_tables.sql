@@ -0,0 +1,34 @@
+-- Reconciliation runs and the balance discrepancies they detect
+CREATE TABLE reconciliation_runs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    status VARCHAR(20) NOT NULL DEFAULT 'RUNNING',
+    accounts_checked BIGINT NOT NULL DEFAULT 0,
+    discrepancies BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP NULL,
+
+    CONSTRAINT chk_reconciliation_run_status
+        CHECK (status IN ('RUNNING', 'COMPLETED', 'FAILED'))
+);
+
+CREATE TABLE reconciliation_findings (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    run_id BIGINT NOT NULL,
+    account_id BIGINT NOT NULL,
+    account_number VARCHAR(20) NOT NULL,
+    recorded_balance DECIMAL(15,2) NOT NULL,
+    expected_balance DECIMAL(15,2) NOT NULL,
+    difference DECIMAL(15,2) NOT NULL,
+    detected_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_reconciliation_findings_run
+        FOREIGN KEY (run_id) REFERENCES reconciliation_runs(id)
+        ON DELETE CASCADE,
+
+    INDEX idx_reconciliation_findings_run (run_id),
+    INDEX idx_reconciliation_findings_account (account_id)
+);
+
+-- Covering indexes so per-partition credit and debit sums are index-only range scans
+CREATE INDEX idx_transactions_dest_status_amount ON transactions(destination_account_id, status, amount);
+CREATE INDEX idx_transactions_source_status_amount ON transactions(source_account_id, status, amount);
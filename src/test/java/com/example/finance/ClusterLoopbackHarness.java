@@ -0,0 +1,211 @@
+package com.example.finance;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Starts the three instances of the cluster-local profile on loopback and checks account ownership routing.
+ * Deposits and transfers for a set of accounts are sent concurrently to every instance; each must be served
+ * by the same owner whichever instance received it, and the final balances must add up. Reports how the
+ * accounts spread over the instances and the latency of local against forwarded requests.
+ * Needs MySQL as configured in application.yml:
+ * <pre>
+ * mvn package -DskipTests && mvn test-compile
+ * java -cp target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *     com.example.finance.ClusterLoopbackHarness [accounts] [deposits per account and instance]
+ * </pre>
+ */
+public class ClusterLoopbackHarness {
+
+	private static final String[] NODES = {"node-1", "node-2", "node-3"};
+	private static final int FIRST_PORT = 8081;
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final HttpClient CLIENT = HttpClient.newBuilder()
+		.version(HttpClient.Version.HTTP_1_1)
+		.connectTimeout(Duration.ofSeconds(5))
+		.build();
+
+	public static void main(String[] args) throws Exception {
+		int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+		int depositsPerNode = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+		String jar = "target/finance-0.0.1-SNAPSHOT.jar";
+
+		List<Process> processes = new ArrayList<>();
+		try {
+			for (int i = 0; i < NODES.length; i++) {
+				processes.add(new ProcessBuilder(java, "-jar", jar, "--spring.profiles.active=cluster-local",
+					"--server.port=" + (FIRST_PORT + i), "--finance.cluster.self=" + NODES[i])
+					.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+					.redirectError(ProcessBuilder.Redirect.DISCARD)
+					.start());
+			}
+			for (int i = 0; i < NODES.length; i++) {
+				awaitUp(FIRST_PORT + i);
+			}
+			run(accounts, depositsPerNode);
+		} finally {
+			for (Process process : processes) {
+				process.destroy();
+			}
+			for (Process process : processes) {
+				if (!process.waitFor(30, TimeUnit.SECONDS)) {
+					process.destroyForcibly().waitFor();
+				}
+			}
+		}
+	}
+
+	private static void run(int accounts, int depositsPerNode) throws Exception {
+		String email = "cluster-" + UUID.randomUUID() + "@example.com";
+		send(FIRST_PORT, "/api/users/register", null, "{\"name\":\"Cluster Test\",\"email\":\"" + email
+			+ "\",\"password\":\"cluster-test-password\",\"phoneNumber\":\"0000000000\"}");
+		String token = send(FIRST_PORT, "/api/auth/login", null,
+			"{\"email\":\"" + email + "\",\"password\":\"cluster-test-password\"}").body.get("token").asText();
+		List<String> numbers = new ArrayList<>();
+		for (int i = 0; i < accounts; i++) {
+			numbers.add(send(FIRST_PORT, "/api/accounts", token, "{\"accountType\":\"CURRENT\",\"balance\":0}")
+				.body.get("accountNumber").asText());
+		}
+
+		// Every instance deposits 1.00 into every account, then moves 0.50 on to the next account, so the
+		// transfers cancel out. Both phases send everything at once.
+		List<Served> served = new ArrayList<>();
+		served.addAll(fanOut(numbers, depositsPerNode, token, (account, next) -> "/api/transactions/deposit/" + account, "{\"amount\":1.00}"));
+		served.addAll(fanOut(numbers, depositsPerNode, token,
+			(account, next) -> "/api/transactions/transfer/" + account + "/to/" + next, "{\"amount\":0.50}"));
+
+		Map<String, String> owners = new HashMap<>();
+		List<Long> localMicros = new ArrayList<>();
+		List<Long> forwardedMicros = new ArrayList<>();
+		int misrouted = 0;
+		for (Served s : served) {
+			String previous = owners.putIfAbsent(s.account, s.node);
+			if (previous != null && !previous.equals(s.node)) {
+				misrouted++;
+			}
+			(s.node.equals(NODES[s.port - FIRST_PORT]) ? localMicros : forwardedMicros).add(s.micros);
+		}
+
+		BigDecimal expected = BigDecimal.valueOf(depositsPerNode * NODES.length).setScale(2);
+		int wrongBalances = 0;
+		for (String account : numbers) {
+			BigDecimal balance = get(FIRST_PORT, "/api/accounts/" + account, token).get("balance").decimalValue();
+			if (balance.compareTo(expected) != 0) {
+				wrongBalances++;
+				System.out.printf("account %s balance %s, expected %s%n", account, balance, expected);
+			}
+		}
+
+		Map<String, Integer> spread = new TreeMap<>();
+		owners.values().forEach(node -> spread.merge(node, 1, Integer::sum));
+		System.out.printf("%d accounts, owners %s%n", numbers.size(), spread);
+		System.out.printf("local     %6d requests  p50 %6d us  p99 %6d us%n", localMicros.size(),
+			percentile(localMicros, 0.50), percentile(localMicros, 0.99));
+		System.out.printf("forwarded %6d requests  p50 %6d us  p99 %6d us%n", forwardedMicros.size(),
+			percentile(forwardedMicros, 0.50), percentile(forwardedMicros, 0.99));
+		System.out.printf("accounts served by more than one instance: %d, wrong balances: %d%n", misrouted, wrongBalances);
+		if (misrouted > 0 || wrongBalances > 0) {
+			throw new AssertionError("Ownership routing is broken");
+		}
+	}
+
+	private static List<Served> fanOut(List<String> numbers, int rounds, String token,
+									   BiFunction<String, String, String> path, String body) throws Exception {
+		List<Future<Served>> pending = new ArrayList<>();
+		try (ExecutorService executor = Executors.newFixedThreadPool(64)) {
+			for (int round = 0; round < rounds; round++) {
+				for (int node = 0; node < NODES.length; node++) {
+					int port = FIRST_PORT + node;
+					for (int a = 0; a < numbers.size(); a++) {
+						String account = numbers.get(a);
+						String next = numbers.get((a + 1) % numbers.size());
+						pending.add(executor.submit(() -> send(port, path.apply(account, next), token, body).served(account, port)));
+					}
+				}
+			}
+		}
+		List<Served> served = new ArrayList<>(pending.size());
+		for (Future<Served> result : pending) {
+			served.add(result.get());
+		}
+		return served;
+	}
+
+	private static long percentile(List<Long> samples, double fraction) {
+		long[] sorted = samples.stream().mapToLong(Long::longValue).toArray();
+		Arrays.sort(sorted);
+		return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+	}
+
+	private static void awaitUp(int port) throws Exception {
+		for (int attempt = 0; attempt < 1200; attempt++) {
+			try {
+				CLIENT.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/actuator/health")).build(),
+					HttpResponse.BodyHandlers.discarding());
+				return;
+			} catch (ConnectException e) {
+				Thread.sleep(100);
+			}
+		}
+		throw new IllegalStateException("Instance on port " + port + " did not start");
+	}
+
+	private static Answer send(int port, String path, String token, String body) throws IOException, InterruptedException {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path))
+			.header("Content-Type", "application/json")
+			.POST(HttpRequest.BodyPublishers.ofString(body));
+		if (token != null) {
+			request.header("Authorization", "Bearer " + token);
+		}
+		long started = System.nanoTime();
+		HttpResponse<String> response = CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofString());
+		// A transfer also updates a destination account owned by another instance, which can conflict
+		for (int retry = 0; retry < 20 && (response.statusCode() == 409 || response.statusCode() == 503); retry++) {
+			Thread.sleep(10L << Math.min(retry, 6));
+			response = CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofString());
+		}
+		long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException(path + " on port " + port + " returned " + response.statusCode() + ": " + response.body());
+		}
+		return new Answer(MAPPER.readTree(response.body()), response.headers().firstValue("X-Finance-Node").orElse(null), micros);
+	}
+
+	private static JsonNode get(int port, String path, String token) throws IOException, InterruptedException {
+		HttpResponse<String> response = CLIENT.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path))
+			.header("Authorization", "Bearer " + token).build(), HttpResponse.BodyHandlers.ofString());
+		return MAPPER.readTree(response.body());
+	}
+
+	private record Answer(JsonNode body, String node, long micros) {
+		Served served(String account, int port) {
+			return new Served(account, port, node, micros);
+		}
+	}
+
+	private record Served(String account, int port, String node, long micros) {
+	}
+}
@@ -0,0 +1,147 @@
+package com.example.finance;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures time from process start to the first successful deposit, for the regular jar and the
+ * fast-start build. Needs MySQL as configured in application.yml and both builds in target/:
+ * <pre>
+ * mvn -Pfast-start package -DskipTests
+ * mvn test-compile
+ * java -cp target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *     com.example.finance.StartupBenchmark [runs]
+ * </pre>
+ */
+public class StartupBenchmark {
+
+	private static final String JAR = "finance-0.0.1-SNAPSHOT.jar";
+	private static final String BASE_URL = "http://localhost:8080";
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final HttpClient CLIENT = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(500)).build();
+
+	public static void main(String[] args) throws Exception {
+		int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+		List<String> baseline = List.of(java, "-jar", "target/" + JAR);
+		List<String> fastStart = List.of(java,
+			"-XX:SharedArchiveFile=target/fast-start/application.jsa",
+			"-Dspring.aot.enabled=true",
+			"-Dspring.profiles.active=worker",
+			"-jar", "target/fast-start/" + JAR);
+
+		// One user and account shared by every run, created against a baseline instance
+		Process setup = start(baseline);
+		String token;
+		String accountNumber;
+		try {
+			awaitUp();
+			String email = "startup-" + UUID.randomUUID() + "@example.com";
+			post("/api/users/register", null, "{\"name\":\"Startup Benchmark\",\"email\":\"" + email
+				+ "\",\"password\":\"benchmark-password\",\"phoneNumber\":\"0000000000\"}");
+			token = post("/api/auth/login", null,
+				"{\"email\":\"" + email + "\",\"password\":\"benchmark-password\"}").get("token").asText();
+			accountNumber = post("/api/accounts", token, "{\"accountType\":\"CURRENT\",\"balance\":0}")
+				.get("accountNumber").asText();
+		} finally {
+			stop(setup);
+		}
+
+		report("baseline", measure(baseline, token, accountNumber, runs));
+		report("fast-start", measure(fastStart, token, accountNumber, runs));
+	}
+
+	private static long[] measure(List<String> command, String token, String accountNumber, int runs) throws Exception {
+		long[] millis = new long[runs];
+		for (int run = 0; run < runs; run++) {
+			long started = System.nanoTime();
+			Process process = start(command);
+			try {
+				while (true) {
+					try {
+						HttpResponse<String> response = send("/api/transactions/deposit/" + accountNumber, token,
+							"{\"amount\":1.00,\"description\":\"startup benchmark\"}");
+						if (response.statusCode() == 200) {
+							break;
+						}
+					} catch (ConnectException e) {
+						// not listening yet
+					}
+					if (!process.isAlive()) {
+						throw new IllegalStateException("Application exited with " + process.exitValue() + ": " + command);
+					}
+					Thread.sleep(20);
+				}
+				millis[run] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+			} finally {
+				stop(process);
+			}
+		}
+		return millis;
+	}
+
+	private static void report(String name, long[] millis) {
+		long[] sorted = millis.clone();
+		Arrays.sort(sorted);
+		System.out.printf("%-10s first deposit after  min %5d ms  median %5d ms  max %5d ms  %s%n",
+			name, sorted[0], sorted[sorted.length / 2], sorted[sorted.length - 1], Arrays.toString(millis));
+	}
+
+	private static Process start(List<String> command) throws IOException {
+		return new ProcessBuilder(new ArrayList<>(command))
+			.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+			.redirectError(ProcessBuilder.Redirect.DISCARD)
+			.start();
+	}
+
+	private static void stop(Process process) throws InterruptedException {
+		process.destroy();
+		if (!process.waitFor(30, TimeUnit.SECONDS)) {
+			process.destroyForcibly().waitFor();
+		}
+	}
+
+	private static void awaitUp() throws Exception {
+		for (int attempt = 0; attempt < 1200; attempt++) {
+			try {
+				CLIENT.send(HttpRequest.newBuilder(URI.create(BASE_URL + "/actuator/health")).build(), HttpResponse.BodyHandlers.discarding());
+				return;
+			} catch (ConnectException e) {
+				Thread.sleep(100);
+			}
+		}
+		throw new IllegalStateException("Application did not start");
+	}
+
+	private static JsonNode post(String path, String token, String body) throws Exception {
+		HttpResponse<String> response = send(path, token, body);
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException(path + " returned " + response.statusCode() + ": " + response.body());
+		}
+		return MAPPER.readTree(response.body());
+	}
+
+	private static HttpResponse<String> send(String path, String token, String body) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(BASE_URL + path))
+			.header("Content-Type", "application/json")
+			.POST(HttpRequest.BodyPublishers.ofString(body));
+		if (token != null) {
+			request.header("Authorization", "Bearer " + token);
+		}
+		return CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofString());
+	}
+}
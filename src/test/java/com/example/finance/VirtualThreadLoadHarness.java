@@ -0,0 +1,230 @@
+package com.example.finance;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares platform-thread Tomcat with the virtual-threads profile under high concurrency.
+ * Each mode is started as its own JVM; a fixed number of clients then request an account over and over
+ * and the run reports throughput, latency, and resident memory and threads per in-flight request
+ * (Linux only, read from /proc). The platform run gets one Tomcat thread per client so both modes
+ * can hold the same number of requests in flight. Needs MySQL as configured in application.yml:
+ * <pre>
+ * mvn package -DskipTests && mvn test-compile
+ * java -cp target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *     com.example.finance.VirtualThreadLoadHarness [clients] [seconds]
+ * </pre>
+ */
+public class VirtualThreadLoadHarness {
+
+	private static final String BASE_URL = "http://localhost:8080";
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final HttpClient CLIENT = HttpClient.newBuilder()
+		.version(HttpClient.Version.HTTP_1_1)
+		.connectTimeout(Duration.ofSeconds(5))
+		.executor(Executors.newVirtualThreadPerTaskExecutor())
+		.build();
+
+	public static void main(String[] args) throws Exception {
+		int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+		String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+		String jar = "target/finance-0.0.1-SNAPSHOT.jar";
+		List<String> platform = List.of(java, "-jar", jar,
+			"--server.tomcat.threads.max=" + clients, "--spring.datasource.hikari.maximum-pool-size=20");
+		List<String> virtual = List.of(java, "-jar", jar, "--spring.profiles.active=virtual-threads");
+
+		Process setup = start(platform);
+		String token;
+		String accountNumber;
+		try {
+			awaitUp();
+			String email = "load-" + UUID.randomUUID() + "@example.com";
+			post("/api/users/register", null, "{\"name\":\"Load Test\",\"email\":\"" + email
+				+ "\",\"password\":\"load-test-password\",\"phoneNumber\":\"0000000000\"}");
+			token = post("/api/auth/login", null,
+				"{\"email\":\"" + email + "\",\"password\":\"load-test-password\"}").get("token").asText();
+			accountNumber = post("/api/accounts", token, "{\"accountType\":\"CURRENT\",\"balance\":100}")
+				.get("accountNumber").asText();
+		} finally {
+			stop(setup);
+		}
+
+		System.out.printf("%d clients, %d s per mode, GET /api/accounts/{accountNumber}%n", clients, seconds);
+		run("platform", platform, token, accountNumber, clients, seconds);
+		run("virtual", virtual, token, accountNumber, clients, seconds);
+	}
+
+	private static void run(String name, List<String> command, String token, String accountNumber,
+							int clients, int seconds) throws Exception {
+		Process process = start(command);
+		try {
+			awaitUp();
+			HttpRequest request = HttpRequest.newBuilder(URI.create(BASE_URL + "/api/accounts/" + accountNumber))
+				.header("Authorization", "Bearer " + token)
+				.timeout(Duration.ofSeconds(30))
+				.build();
+
+			// Warm up with a few clients so JIT compilation does not count against either mode
+			drive(request, 50, 10);
+			long idleRss = status(process, "VmRSS");
+			long idleThreads = status(process, "Threads");
+
+			Load load = new Load();
+			Thread sampler = Thread.ofVirtual().start(() -> {
+				try {
+					while (!Thread.currentThread().isInterrupted()) {
+						load.peakRss.accumulateAndGet(status(process, "VmRSS"), Math::max);
+						load.peakThreads.accumulateAndGet(status(process, "Threads"), Math::max);
+						Thread.sleep(250);
+					}
+				} catch (InterruptedException | IOException e) {
+					// sampling ends with the run
+				}
+			});
+			Load measured = drive(request, clients, seconds, load);
+			sampler.interrupt();
+			sampler.join();
+
+			long[] latencies = measured.latencies();
+			Arrays.sort(latencies);
+			System.out.printf("%-8s %8.0f req/s  errors %6d  p50 %5d ms  p99 %5d ms  " +
+					"rss +%5d MB (%6.1f KB/request)  threads +%5d (%.2f/request)%n",
+				name,
+				measured.ok.sum() / (double) seconds,
+				measured.errors.sum(),
+				percentile(latencies, 0.50),
+				percentile(latencies, 0.99),
+				(measured.peakRss.get() - idleRss) / 1024,
+				(measured.peakRss.get() - idleRss) / (double) clients,
+				measured.peakThreads.get() - idleThreads,
+				(measured.peakThreads.get() - idleThreads) / (double) clients);
+		} finally {
+			stop(process);
+		}
+	}
+
+	private static Load drive(HttpRequest request, int clients, int seconds) throws InterruptedException {
+		return drive(request, clients, seconds, new Load());
+	}
+
+	private static Load drive(HttpRequest request, int clients, int seconds, Load load) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < clients; i++) {
+				executor.submit(() -> {
+					List<Long> latencies = new ArrayList<>();
+					while (System.nanoTime() < deadline) {
+						long started = System.nanoTime();
+						try {
+							HttpResponse<Void> response = CLIENT.send(request, HttpResponse.BodyHandlers.discarding());
+							if (response.statusCode() == 200) {
+								load.ok.increment();
+								latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+							} else {
+								load.errors.increment();
+							}
+						} catch (IOException e) {
+							load.errors.increment();
+						} catch (InterruptedException e) {
+							return;
+						}
+					}
+					synchronized (load.samples) {
+						load.samples.addAll(latencies);
+					}
+				});
+			}
+		}
+		return load;
+	}
+
+	private static long percentile(long[] sorted, double fraction) {
+		return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+	}
+
+	/**
+	 * Reads a numeric field of /proc/&lt;pid&gt;/status, memory fields are in KB
+	 */
+	private static long status(Process process, String field) throws IOException {
+		for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(process.pid()), "status"))) {
+			if (line.startsWith(field + ":")) {
+				return Long.parseLong(line.substring(field.length() + 1).trim().split("\\s+")[0]);
+			}
+		}
+		throw new IOException(field + " not found for process " + process.pid());
+	}
+
+	private static Process start(List<String> command) throws IOException {
+		return new ProcessBuilder(new ArrayList<>(command))
+			.redirectOutput(ProcessBuilder.Redirect.DISCARD)
+			.redirectError(ProcessBuilder.Redirect.DISCARD)
+			.start();
+	}
+
+	private static void stop(Process process) throws InterruptedException {
+		process.destroy();
+		if (!process.waitFor(30, TimeUnit.SECONDS)) {
+			process.destroyForcibly().waitFor();
+		}
+	}
+
+	private static void awaitUp() throws Exception {
+		for (int attempt = 0; attempt < 1200; attempt++) {
+			try {
+				CLIENT.send(HttpRequest.newBuilder(URI.create(BASE_URL + "/actuator/health")).build(), HttpResponse.BodyHandlers.discarding());
+				return;
+			} catch (ConnectException e) {
+				Thread.sleep(100);
+			}
+		}
+		throw new IllegalStateException("Application did not start");
+	}
+
+	private static JsonNode post(String path, String token, String body) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(BASE_URL + path))
+			.header("Content-Type", "application/json")
+			.POST(HttpRequest.BodyPublishers.ofString(body));
+		if (token != null) {
+			request.header("Authorization", "Bearer " + token);
+		}
+		HttpResponse<String> response = CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() != 200) {
+			throw new IllegalStateException(path + " returned " + response.statusCode() + ": " + response.body());
+		}
+		return MAPPER.readTree(response.body());
+	}
+
+	private static final class Load {
+		private final LongAdder ok = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		private final List<Long> samples = new ArrayList<>();
+		private final AtomicLong peakRss = new AtomicLong();
+		private final AtomicLong peakThreads = new AtomicLong();
+
+		long[] latencies() {
+			synchronized (samples) {
+				return samples.stream().mapToLong(Long::longValue).toArray();
+			}
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.finance.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForwardSignatureTests {
+
+	private static final String TARGET = "/api/transactions/transfer/ACC1/to/ACC2?note=x";
+	private static final long NOW = 1_700_000_000_000L;
+
+	private final ForwardSignature signature = new ForwardSignature("shared-secret");
+
+	@Test
+	void acceptsItsOwnSignature() {
+		String signed = signature.sign("node-1", NOW, "POST", TARGET);
+		assertTrue(signature.verify("node-1", Long.toString(NOW), "POST", TARGET, signed, NOW + 1_000));
+	}
+
+	@Test
+	void rejectsChangedValues() {
+		String signed = signature.sign("node-1", NOW, "POST", TARGET);
+		assertFalse(signature.verify("node-2", Long.toString(NOW), "POST", TARGET, signed, NOW));
+		assertFalse(signature.verify("node-1", Long.toString(NOW + 1), "POST", TARGET, signed, NOW));
+		assertFalse(signature.verify("node-1", Long.toString(NOW), "PUT", TARGET, signed, NOW));
+		assertFalse(signature.verify("node-1", Long.toString(NOW), "POST", "/api/transactions/withdraw/ACC1", signed, NOW));
+	}
+
+	@Test
+	void rejectsAnotherSecret() {
+		String signed = new ForwardSignature("other-secret").sign("node-1", NOW, "POST", TARGET);
+		assertFalse(signature.verify("node-1", Long.toString(NOW), "POST", TARGET, signed, NOW));
+	}
+
+	@Test
+	void rejectsStaleSignatures() {
+		String signed = signature.sign("node-1", NOW, "POST", TARGET);
+		long tooLate = NOW + ForwardSignature.MAX_AGE.toMillis() + 1;
+		assertFalse(signature.verify("node-1", Long.toString(NOW), "POST", TARGET, signed, tooLate));
+	}
+
+	@Test
+	void rejectsMissingOrMalformedHeaders() {
+		String signed = signature.sign("node-1", NOW, "POST", TARGET);
+		assertFalse(signature.verify(null, Long.toString(NOW), "POST", TARGET, signed, NOW));
+		assertFalse(signature.verify("node-1", null, "POST", TARGET, signed, NOW));
+		assertFalse(signature.verify("node-1", Long.toString(NOW), "POST", TARGET, null, NOW));
+		assertFalse(signature.verify("node-1", "yesterday", "POST", TARGET, signed, NOW));
+		assertFalse(signature.verify("node-1", Long.toString(NOW), "POST", TARGET, "not base64!", NOW));
+		assertFalse(signature.verify("node-1", Long.toString(NOW), "POST", TARGET, "", NOW));
+	}
+}
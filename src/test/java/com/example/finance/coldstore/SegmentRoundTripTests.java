@@ -0,0 +1,188 @@
+package com.example.finance.coldstore;
+
+import com.example.finance.transactions.ArchivedTransaction;
+import com.example.finance.transactions.Transaction.TransactionStatus;
+import com.example.finance.transactions.Transaction.TransactionType;
+import com.example.finance.transactions.TransactionDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentRoundTripTests {
+
+	private static final int MONTH = 202401;
+	private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void varIntsRoundTrip() throws IOException {
+		long[] values = {0, 1, -1, 63, -64, 127, 128, 300, -300, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		for (long value : values) {
+			VarInts.writeSigned(out, value);
+			VarInts.writeUnsigned(out, value);
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+		long[] cursor = {0};
+		for (long value : values) {
+			assertEquals(value, VarInts.readSigned(buffer, cursor));
+			assertEquals(value, VarInts.readUnsigned(buffer, cursor));
+		}
+		assertEquals(buffer.capacity(), cursor[0]);
+	}
+
+	@Test
+	void rowsRoundTripIncludingNullRefsAndCounterparties() throws IOException {
+		// Enough rows to cross the 1024 and 2048 boundaries where the ref index grows
+		List<ArchivedTransaction> transactions = new ArrayList<>();
+		for (long id = 1; id <= 3000; id++) {
+			transactions.add(transaction(id));
+		}
+		List<long[]> sides = new ArrayList<>();
+		for (int i = 0; i < transactions.size(); i++) {
+			ArchivedTransaction row = transactions.get(i);
+			if (row.getSourceAccountId() != null) {
+				sides.add(new long[] {row.getSourceAccountId(), i});
+			}
+			if (row.getDestinationAccountId() != null) {
+				sides.add(new long[] {row.getDestinationAccountId(), i});
+			}
+		}
+		sides.sort(Comparator.<long[]>comparingLong(side -> side[0]).thenComparingLong(side -> side[1]));
+
+		// Rows appended at every multiple of 1024 have no ref
+		for (int i = 0; i < sides.size(); i += 1024) {
+			int index = (int) sides.get(i)[1];
+			transactions.set(index, withoutRef(transactions.get(index)));
+		}
+
+		Path target = directory.resolve("segment.seg");
+		try (SegmentWriter writer = new SegmentWriter(directory, MONTH)) {
+			for (long[] side : sides) {
+				writer.append(side[0], transactions.get((int) side[1]));
+			}
+			writer.finish(target);
+
+			SegmentReader reader = new SegmentReader(target);
+			assertEquals(MONTH, reader.getMonth());
+			assertEquals(sides.size(), reader.getRowCount());
+			assertTrue(sides.size() > 2048);
+
+			for (long accountId = 1; accountId <= 7; accountId++) {
+				List<ArchivedTransaction> expected = new ArrayList<>();
+				for (long[] side : sides) {
+					if (side[0] == accountId) {
+						expected.add(transactions.get((int) side[1]));
+					}
+				}
+				List<TransactionDto> actual = reader.findByAccountId(accountId);
+				assertEquals(expected.size(), actual.size());
+				assertEquals(expected.size(), reader.countByAccountId(accountId));
+				for (int i = 0; i < expected.size(); i++) {
+					assertRow(expected.get(i), actual.get(i));
+				}
+			}
+			assertTrue(reader.findByAccountId(99).isEmpty());
+
+			for (ArchivedTransaction row : transactions) {
+				if (row.getTransactionRef() != null) {
+					assertRow(row, reader.findByRef(row.getTransactionRef()).orElseThrow());
+				}
+			}
+			assertTrue(reader.findByRef("REF-MISSING").isEmpty());
+
+			Map<Long, long[]> totals = writer.getAccountTotals();
+			for (long accountId = 1; accountId <= 7; accountId++) {
+				long credits = 0;
+				long debits = 0;
+				for (ArchivedTransaction row : transactions) {
+					if (row.getStatus() != TransactionStatus.COMPLETED) {
+						continue;
+					}
+					long minor = row.getAmount().movePointRight(2).longValueExact();
+					if (row.getDestinationAccountId() != null && row.getDestinationAccountId() == accountId) {
+						credits += minor;
+					} else if (row.getSourceAccountId() != null && row.getSourceAccountId() == accountId) {
+						debits += minor;
+					}
+				}
+				assertArrayEquals(new long[] {credits, debits}, totals.getOrDefault(accountId, new long[2]));
+			}
+		}
+	}
+
+	@Test
+	void rebuildingFromTheSameRowsGivesTheSameChecksum() throws IOException {
+		long[] checksums = new long[2];
+		for (int build = 0; build < 2; build++) {
+			Path target = directory.resolve("segment-" + build + ".seg");
+			try (SegmentWriter writer = new SegmentWriter(directory, MONTH)) {
+				for (long accountId = 1; accountId <= 7; accountId++) {
+					for (long id = 1; id <= 50; id++) {
+						ArchivedTransaction row = transaction(id);
+						if (Objects.equals(row.getSourceAccountId(), accountId) || Objects.equals(row.getDestinationAccountId(), accountId)) {
+							writer.append(accountId, row);
+						}
+					}
+				}
+				writer.finish(target);
+			}
+			checksums[build] = new SegmentReader(target).checksum();
+		}
+		assertEquals(checksums[0], checksums[1]);
+	}
+
+	private static ArchivedTransaction transaction(long id) {
+		long account = 1 + id % 7;
+		long other = 1 + (id + 3) % 7;
+		TransactionType type = TransactionType.values()[(int) (id % 3)];
+		return new ArchivedTransaction(
+			id,
+			type == TransactionType.DEPOSIT ? null : account,
+			type == TransactionType.WITHDRAW ? null : (type == TransactionType.TRANSFER ? other : account),
+			type,
+			BigDecimal.valueOf(id * 137 % 100_000, 2).add(BigDecimal.ONE),
+			id % 5 == 0 ? null : "Payment " + (id % 11),
+			id % 13 == 0 ? TransactionStatus.FAILED : TransactionStatus.COMPLETED,
+			id % 4 == 0 ? null : "REF-" + id,
+			START.plusMinutes(id * 7),
+			null);
+	}
+
+	private static ArchivedTransaction withoutRef(ArchivedTransaction row) {
+		return new ArchivedTransaction(row.getId(), row.getSourceAccountId(), row.getDestinationAccountId(), row.getType(),
+			row.getAmount(), row.getDescription(), row.getStatus(), null, row.getCreatedAt(), null);
+	}
+
+	private static void assertRow(ArchivedTransaction expected, TransactionDto actual) {
+		assertEquals(expected.getId(), actual.getId());
+		assertEquals(expected.getSourceAccountId(), actual.getSourceAccountId());
+		assertEquals(expected.getDestinationAccountId(), actual.getDestinationAccountId());
+		assertEquals(expected.getType(), actual.getType());
+		assertEquals(0, expected.getAmount().compareTo(actual.getAmount()));
+		assertEquals(expected.getDescription(), actual.getDescription());
+		assertEquals(expected.getStatus(), actual.getStatus());
+		assertEquals(expected.getTransactionRef(), actual.getTransactionRef());
+		assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+	}
+
+}
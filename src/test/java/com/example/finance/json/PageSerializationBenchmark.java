@@ -0,0 +1,156 @@
+package com.example.finance.json;
+
+import com.example.finance.accounts.Account;
+import com.example.finance.accounts.AccountDto;
+import com.example.finance.transactions.Transaction;
+import com.example.finance.transactions.TransactionDto;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes a 100-item page of transactions and of accounts as the endpoints used to, a PageImpl through
+ * the default bean serializers, and as they do now, a PageResponse through the hand-written serializers.
+ * Both mappers are configured like Spring Boot's. Prints the bytes per response and checks that items
+ * serialize identically, then measures serialization time and allocation per response.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.finance.json.PageSerializationBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class PageSerializationBenchmark {
+
+	private static final int PAGE_SIZE = 100;
+
+	private ObjectWriter before;
+	private ObjectWriter after;
+	private Page<TransactionDto> transactionPage;
+	private Page<AccountDto> accountPage;
+	private PageResponse<TransactionDto> transactionResponse;
+	private PageResponse<AccountDto> accountResponse;
+
+	@Setup
+	public void setUp() {
+		// Boot writes dates as ISO strings by default
+		before = Jackson2ObjectMapperBuilder.json()
+			.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build().writer();
+		// Installed next to the well-known modules, as Boot does with Module beans
+		after = Jackson2ObjectMapperBuilder.json()
+			.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.modulesToInstall(new JsonConfig().financeDtoModule()).build().writer();
+
+		PageRequest pageable = PageRequest.of(3, PAGE_SIZE, Sort.by("createdAt").descending());
+		transactionPage = new PageImpl<>(transactions(), pageable, 12_345);
+		accountPage = new PageImpl<>(accounts(), pageable, 12_345);
+		transactionResponse = PageResponse.of(transactionPage);
+		accountResponse = PageResponse.of(accountPage);
+	}
+
+	@Benchmark
+	public byte[] transactionsBefore() throws Exception {
+		return before.writeValueAsBytes(transactionPage);
+	}
+
+	@Benchmark
+	public byte[] transactionsAfter() throws Exception {
+		return after.writeValueAsBytes(transactionResponse);
+	}
+
+	@Benchmark
+	public byte[] accountsBefore() throws Exception {
+		return before.writeValueAsBytes(accountPage);
+	}
+
+	@Benchmark
+	public byte[] accountsAfter() throws Exception {
+		return after.writeValueAsBytes(accountResponse);
+	}
+
+	private static List<TransactionDto> transactions() {
+		List<TransactionDto> items = new ArrayList<>(PAGE_SIZE);
+		LocalDateTime createdAt = LocalDateTime.of(2024, 3, 15, 18, 30, 5);
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			TransactionDto dto = new TransactionDto();
+			dto.setId(9_000_000L + i);
+			Transaction.TransactionType type = Transaction.TransactionType.values()[i % 3];
+			dto.setSourceAccountId(type == Transaction.TransactionType.DEPOSIT ? null : 1_000L + i);
+			dto.setDestinationAccountId(type == Transaction.TransactionType.WITHDRAW ? null : 2_000L + i);
+			dto.setType(type);
+			dto.setAmount(BigDecimal.valueOf(12_345 + i * 101L, 2));
+			dto.setDescription(i % 4 == 0 ? null : "Payment \"" + i + "\" for services");
+			dto.setStatus(Transaction.TransactionStatus.COMPLETED);
+			dto.setTransactionRef("TXN-" + Integer.toHexString(0xABC000 + i).toUpperCase() + "-456789");
+			dto.setCreatedAt(createdAt.minusMinutes(i * 7L));
+			items.add(dto);
+		}
+		// Fractional seconds take the formatter path
+		items.get(1).setCreatedAt(LocalDateTime.of(2024, 3, 15, 18, 30, 5, 120_000_000));
+		return items;
+	}
+
+	private static List<AccountDto> accounts() {
+		List<AccountDto> items = new ArrayList<>(PAGE_SIZE);
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			AccountDto dto = new AccountDto();
+			dto.setId(1_000L + i);
+			dto.setAccountNumber("ACC" + (123_456_789 + i));
+			dto.setAccountType(i % 2 == 0 ? Account.AccountType.SAVINGS : Account.AccountType.CURRENT);
+			dto.setAccountStatus(Account.AccountStatus.ACTIVE);
+			dto.setBalance(BigDecimal.valueOf(150_000 + i * 37L, 2));
+			dto.setCreatedAt(LocalDateTime.of(2023, 1, 1, 10, 0).plusDays(i));
+			dto.setUserId(42L);
+			items.add(dto);
+		}
+		return items;
+	}
+
+	public static void main(String[] args) throws Exception {
+		PageSerializationBenchmark benchmark = new PageSerializationBenchmark();
+		benchmark.setUp();
+		System.out.printf("%d-item pages, bytes per response%n", PAGE_SIZE);
+		System.out.printf("transactions  before %6d  after %6d%n", benchmark.transactionsBefore().length, benchmark.transactionsAfter().length);
+		System.out.printf("accounts      before %6d  after %6d%n", benchmark.accountsBefore().length, benchmark.accountsAfter().length);
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			String expected = benchmark.before.writeValueAsString(benchmark.transactionPage.getContent().get(i));
+			String actual = benchmark.after.writeValueAsString(benchmark.transactionResponse.getItems().get(i));
+			if (!expected.equals(actual)) {
+				throw new AssertionError("Transaction " + i + " differs:\n" + expected + "\n" + actual);
+			}
+			expected = benchmark.before.writeValueAsString(benchmark.accountPage.getContent().get(i));
+			actual = benchmark.after.writeValueAsString(benchmark.accountResponse.getItems().get(i));
+			if (!expected.equals(actual)) {
+				throw new AssertionError("Account " + i + " differs:\n" + expected + "\n" + actual);
+			}
+		}
+
+		new Runner(new OptionsBuilder()
+			.include(PageSerializationBenchmark.class.getSimpleName())
+			.addProfiler("gc")
+			.build()).run();
+	}
+}
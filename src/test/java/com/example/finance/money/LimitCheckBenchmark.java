@@ -0,0 +1,110 @@
+package com.example.finance.money;
+
+import com.example.finance.transactions.DailyTransactionLimit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-withdrawal limit check on BigDecimal, as it was, with the Money path.
+ * Each operation checks the maximum limit and the daily remaining limit of one amount, then records it.
+ * Both read a daily limit held on the limit row: the old service derived it with multiply(0.5) only when it created
+ * the day's row, so neither case pays for that on a check.
+ * The forked JVM needs a plain classpath, so run it outside Maven:
+ * mvn test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/benchmark.classpath
+ * java -cp target/test-classes:target/classes:$(cat target/benchmark.classpath) com.example.finance.money.LimitCheckBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class LimitCheckBenchmark {
+
+	private static final int AMOUNTS = 1024;
+
+	private final BigDecimal[] decimalAmounts = new BigDecimal[AMOUNTS];
+	private final Money[] moneyAmounts = new Money[AMOUNTS];
+
+	// Configured values as TransactionLimitService held them, the withdrawal daily limit was derived on every new limit row
+	private final BigDecimal maxWithdrawLimit = new BigDecimal("100000.00");
+	private final BigDecimal defaultDailyLimit = new BigDecimal("50000.00");
+	private BigDecimal decimalDailyLimit;
+	private BigDecimal decimalUsed;
+	private int decimalCount;
+
+	private final Money maxWithdrawMoney = Money.of(maxWithdrawLimit);
+	private final DailyTransactionLimit moneyLimit = new DailyTransactionLimit();
+
+	private int next;
+
+	@Setup
+	public void setUp() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int i = 0; i < AMOUNTS; i++) {
+			long cents = random.nextLong(1, 50_000);
+			decimalAmounts[i] = BigDecimal.valueOf(cents, 2);
+			moneyAmounts[i] = Money.ofMinor(cents);
+		}
+		decimalDailyLimit = defaultDailyLimit.multiply(BigDecimal.valueOf(0.5));
+		decimalUsed = BigDecimal.ZERO;
+		decimalCount = 0;
+		moneyLimit.setDailyLimit(Money.of(decimalDailyLimit));
+		moneyLimit.setUsedAmount(Money.ZERO);
+		moneyLimit.setTransactionCount(0);
+		moneyLimit.setMaxTransactionCount(Integer.MAX_VALUE);
+	}
+
+	@Benchmark
+	public boolean bigDecimal() {
+		BigDecimal amount = decimalAmounts[next++ & (AMOUNTS - 1)];
+		if (amount.compareTo(maxWithdrawLimit) > 0) {
+			return false;
+		}
+		// canAccommodateTransaction() exactly as it was
+		Integer remainingCount = Integer.MAX_VALUE - decimalCount;
+		if (decimalDailyLimit.subtract(decimalUsed).compareTo(amount) < 0 || remainingCount <= 0) {
+			decimalUsed = BigDecimal.ZERO;
+			return false;
+		}
+		decimalUsed = decimalUsed.add(amount);
+		decimalCount++;
+		return true;
+	}
+
+	@Benchmark
+	public boolean money() {
+		Money amount = moneyAmounts[next++ & (AMOUNTS - 1)];
+		if (amount.isGreaterThan(maxWithdrawMoney)) {
+			return false;
+		}
+		if (!moneyLimit.canAccommodateTransaction(amount)) {
+			moneyLimit.setUsedAmount(Money.ZERO);
+			return false;
+		}
+		moneyLimit.addTransaction(amount);
+		return true;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+			.include(LimitCheckBenchmark.class.getSimpleName())
+			.addProfiler("gc")
+			.build()).run();
+	}
+}
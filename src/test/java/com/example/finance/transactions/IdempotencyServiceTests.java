@@ -0,0 +1,219 @@
+package com.example.finance.transactions;
+
+import com.example.finance.accounts.Account;
+import com.example.finance.accounts.AccountRepository;
+import com.example.finance.coldstore.ColdStore;
+import com.example.finance.exceptions.DuplicateTransactionException;
+import com.example.finance.transactions.Transaction.TransactionStatus;
+import com.example.finance.transactions.Transaction.TransactionType;
+import com.example.finance.users.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTests {
+
+	private static final BigDecimal AMOUNT = new BigDecimal("25.00");
+
+	private TransactionRepository transactionRepository;
+	private ArchivedTransactionRepository archivedTransactionRepository;
+	private ColdStore coldStore;
+	private AccountRepository accountRepository;
+	private AtomicInteger postings;
+
+	@BeforeEach
+	void setUp() {
+		transactionRepository = mock(TransactionRepository.class);
+		when(transactionRepository.findWithAccountsByTransactionRef(anyString())).thenReturn(Optional.empty());
+		archivedTransactionRepository = mock(ArchivedTransactionRepository.class);
+		when(archivedTransactionRepository.findByTransactionRef(anyString())).thenReturn(Optional.empty());
+		coldStore = mock(ColdStore.class);
+		when(coldStore.findByRef(anyString())).thenReturn(Optional.empty());
+		accountRepository = mock(AccountRepository.class);
+		postings = new AtomicInteger();
+	}
+
+	@Test
+	void concurrentCallersWithTheSameRefShareOnePosting() throws Exception {
+		IdempotencyService service = service(100);
+		int callers = 8;
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(callers);
+		try {
+			List<Future<TransactionDto>> results = new ArrayList<>();
+			for (int i = 0; i < callers; i++) {
+				results.add(pool.submit(() -> service.execute("REF-1", 1L, TransactionType.TRANSFER, "ACC1", "ACC2", AMOUNT, () -> {
+					started.countDown();
+					await(release);
+					return posted(TransactionType.TRANSFER, "REF-1");
+				})));
+			}
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			// Give the other callers time to reach the in-flight entry before the first posting finishes
+			Thread.sleep(100);
+			release.countDown();
+
+			TransactionDto first = results.get(0).get(5, TimeUnit.SECONDS);
+			for (Future<TransactionDto> result : results) {
+				assertEquals(first.getId(), result.get(5, TimeUnit.SECONDS).getId());
+			}
+			assertEquals(1, postings.get());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void replayForDifferentAccountsIsRejected() {
+		IdempotencyService service = service(100);
+		service.execute("REF-2", 1L, TransactionType.TRANSFER, "ACC1", "ACC2", AMOUNT,
+			() -> posted(TransactionType.TRANSFER, "REF-2"));
+
+		assertThrows(DuplicateTransactionException.class, () -> service.execute("REF-2", 1L, TransactionType.TRANSFER,
+			"ACC1", "ACC3", AMOUNT, () -> posted(TransactionType.TRANSFER, "REF-2")));
+		assertThrows(DuplicateTransactionException.class, () -> service.execute("REF-2", 1L, TransactionType.TRANSFER,
+			"ACC4", "ACC2", AMOUNT, () -> posted(TransactionType.TRANSFER, "REF-2")));
+		assertThrows(DuplicateTransactionException.class, () -> service.execute("REF-2", 2L, TransactionType.TRANSFER,
+			"ACC1", "ACC2", AMOUNT, () -> posted(TransactionType.TRANSFER, "REF-2")));
+		assertThrows(DuplicateTransactionException.class, () -> service.execute("REF-2", 1L, TransactionType.TRANSFER,
+			"ACC1", "ACC2", new BigDecimal("26.00"), () -> posted(TransactionType.TRANSFER, "REF-2")));
+		assertThrows(DuplicateTransactionException.class, () -> service.execute("REF-2", 1L, TransactionType.WITHDRAW,
+			"ACC1", null, AMOUNT, () -> posted(TransactionType.WITHDRAW, "REF-2")));
+
+		TransactionDto replayed = service.execute("REF-2", 1L, TransactionType.TRANSFER, "ACC1", "ACC2", AMOUNT,
+			() -> posted(TransactionType.TRANSFER, "REF-2"));
+		assertEquals("REF-2", replayed.getTransactionRef());
+		assertEquals(1, postings.get());
+	}
+
+	@Test
+	void evictedRefIsReplayedFromTheTransactionsTable() {
+		IdempotencyService service = service(2);
+		for (String ref : List.of("REF-A", "REF-B", "REF-C")) {
+			service.execute(ref, 1L, TransactionType.DEPOSIT, null, "ACC1", AMOUNT, () -> posted(TransactionType.DEPOSIT, ref));
+		}
+		assertEquals(3, postings.get());
+		when(transactionRepository.findWithAccountsByTransactionRef("REF-A"))
+			.thenReturn(Optional.of(stored(TransactionType.DEPOSIT, "REF-A", 1L, null, "ACC1")));
+
+		TransactionDto replayed = service.execute("REF-A", 1L, TransactionType.DEPOSIT, null, "ACC1", AMOUNT,
+			() -> posted(TransactionType.DEPOSIT, "REF-A"));
+
+		assertEquals("REF-A", replayed.getTransactionRef());
+		assertEquals(3, postings.get());
+		assertThrows(DuplicateTransactionException.class, () -> service.execute("REF-A", 1L, TransactionType.DEPOSIT,
+			null, "ACC9", AMOUNT, () -> posted(TransactionType.DEPOSIT, "REF-A")));
+	}
+
+	@Test
+	void cachedRefIsNotLookedUpAgain() {
+		IdempotencyService service = service(2);
+		service.execute("REF-D", 1L, TransactionType.WITHDRAW, "ACC1", null, AMOUNT, () -> posted(TransactionType.WITHDRAW, "REF-D"));
+		service.execute("REF-D", 1L, TransactionType.WITHDRAW, "ACC1", null, AMOUNT, () -> posted(TransactionType.WITHDRAW, "REF-D"));
+
+		verify(transactionRepository).findWithAccountsByTransactionRef("REF-D");
+		assertEquals(1, postings.get());
+	}
+
+	@Test
+	void archivedRefIsReplayedInsteadOfPostedAgain() {
+		IdempotencyService service = service(100);
+		when(accountRepository.findById(1L)).thenReturn(Optional.of(account("ACC1", 1L)));
+		when(accountRepository.findById(2L)).thenReturn(Optional.of(account("ACC2", 2L)));
+		ArchivedTransaction archived = new ArchivedTransaction(7L, 1L, 2L, TransactionType.TRANSFER, AMOUNT, null,
+			TransactionStatus.COMPLETED, "REF-OLD", LocalDateTime.now().minusYears(1), null);
+		when(archivedTransactionRepository.findByTransactionRef("REF-OLD")).thenReturn(Optional.of(archived));
+
+		TransactionDto replayed = service.execute("REF-OLD", 1L, TransactionType.TRANSFER, "ACC1", "ACC2", AMOUNT,
+			() -> posted(TransactionType.TRANSFER, "REF-OLD"));
+
+		assertEquals(7L, replayed.getId());
+		assertEquals(0, postings.get());
+		assertThrows(DuplicateTransactionException.class, () -> service.execute("REF-OLD", 1L, TransactionType.TRANSFER,
+			"ACC1", "ACC3", AMOUNT, () -> posted(TransactionType.TRANSFER, "REF-OLD")));
+	}
+
+	@Test
+	void coldRefIsReplayedInsteadOfPostedAgain() {
+		IdempotencyService service = service(100);
+		when(accountRepository.findById(1L)).thenReturn(Optional.of(account("ACC1", 1L)));
+		TransactionDto cold = posted(TransactionType.WITHDRAW, "REF-COLD");
+		cold.setSourceAccountId(1L);
+		when(coldStore.findByRef("REF-COLD")).thenReturn(Optional.of(cold));
+
+		TransactionDto replayed = service.execute("REF-COLD", 1L, TransactionType.WITHDRAW, "ACC1", null, AMOUNT,
+			() -> posted(TransactionType.WITHDRAW, "REF-COLD"));
+
+		assertEquals(cold.getId(), replayed.getId());
+		// Only the posting that produced the cold row
+		assertEquals(1, postings.get());
+	}
+
+	private IdempotencyService service(int cacheSize) {
+		return new IdempotencyService(transactionRepository, archivedTransactionRepository, coldStore, accountRepository,
+			new TransactionMapperImpl(), cacheSize);
+	}
+
+	private TransactionDto posted(TransactionType type, String ref) {
+		TransactionDto dto = new TransactionDto();
+		dto.setId((long) postings.incrementAndGet());
+		dto.setType(type);
+		dto.setAmount(AMOUNT);
+		dto.setStatus(TransactionStatus.COMPLETED);
+		dto.setTransactionRef(ref);
+		return dto;
+	}
+
+	private static Transaction stored(TransactionType type, String ref, Long userId, String source, String destination) {
+		Transaction transaction = new Transaction();
+		transaction.setId(99L);
+		transaction.setType(type);
+		transaction.setAmount(AMOUNT);
+		transaction.setStatus(TransactionStatus.COMPLETED);
+		transaction.setTransactionRef(ref);
+		transaction.setSourceAccount(account(source, userId));
+		transaction.setDestinationAccount(account(destination, userId));
+		return transaction;
+	}
+
+	private static Account account(String accountNumber, Long userId) {
+		if (accountNumber == null) {
+			return null;
+		}
+		User user = new User();
+		user.setId(userId);
+		Account account = new Account();
+		account.setAccountNumber(accountNumber);
+		account.setUser(user);
+		return account;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
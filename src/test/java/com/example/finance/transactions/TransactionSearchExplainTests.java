@@ -0,0 +1,77 @@
+package com.example.finance.transactions;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class TransactionSearchExplainTests {
+
+	private static final int FILTERS = 8;
+
+	// FORCE INDEX alone can still produce a full index scan ("index"), only these are seeks into the index
+	private static final Set<String> INDEX_SEEKS = Set.of("range", "ref", "eq_ref", "const");
+
+	// Slack for the optimizer's row estimate on small or freshly analyzed tables
+	private static final long ROW_ESTIMATE_SLACK = 10;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void everyFilterCombinationUsesAnIndexRangeScan() {
+		LocalDateTime now = LocalDateTime.now();
+		// No plan may examine more than the account's own rows on that side, however large the table is
+		Map<TransactionSearchQueryBuilder.Side, Long> accountRows = new EnumMap<>(TransactionSearchQueryBuilder.Side.class);
+		for (TransactionSearchQueryBuilder.Side side : TransactionSearchQueryBuilder.Side.values()) {
+			accountRows.put(side, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM " + side.table() + " WHERE " + side.column() + " = 1", Long.class));
+		}
+
+		for (int mask = 0; mask < (1 << FILTERS); mask++) {
+			TransactionSearchCriteria criteria = new TransactionSearchCriteria();
+			criteria.setAccountId(1L);
+			if ((mask & 1) != 0) criteria.setFrom(now.minusDays(30));
+			if ((mask & 2) != 0) criteria.setTo(now);
+			if ((mask & 4) != 0) criteria.setMinAmount(new BigDecimal("10.00"));
+			if ((mask & 8) != 0) criteria.setMaxAmount(new BigDecimal("1000.00"));
+			if ((mask & 16) != 0) criteria.setType(Transaction.TransactionType.TRANSFER);
+			if ((mask & 32) != 0) criteria.setStatus(Transaction.TransactionStatus.COMPLETED);
+			if ((mask & 64) != 0) criteria.setDescription("rent");
+			if ((mask & 128) != 0) {
+				criteria.setAfterCreatedAt(now.minusDays(1));
+				criteria.setAfterId(1000L);
+			}
+
+			for (TransactionSearchQueryBuilder.Side side : TransactionSearchQueryBuilder.Side.values()) {
+				TransactionSearchQueryBuilder query = TransactionSearchQueryBuilder.build(criteria, side, 21);
+				List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + query.getSql(), query.getArgs());
+				for (Map<String, Object> row : plan) {
+					String combination = "filters " + Integer.toBinaryString(mask) + " on " + side + ": " + query.getSql();
+					assertTrue(INDEX_SEEKS.contains(String.valueOf(row.get("type"))),
+						"Access type " + row.get("type") + " is not an index seek for " + combination);
+					assertNotNull(row.get("key"), "No index used for " + combination);
+					assertNotNull(row.get("rows"), "No row estimate for " + combination);
+					long rows = ((Number) row.get("rows")).longValue();
+					long bound = 2 * accountRows.get(side) + ROW_ESTIMATE_SLACK;
+					assertTrue(rows <= bound, "Estimated " + rows + " rows, more than " + bound + " for " + combination);
+					String extra = String.valueOf(row.get("Extra"));
+					assertFalse(extra.contains("filesort"), "Sorts instead of reading in index order for " + combination);
+				}
+			}
+		}
+	}
+
+}